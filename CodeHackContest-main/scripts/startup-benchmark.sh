@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request of the bootJar in three modes: plain JVM, with a CDS archive, and
+# with Spring AOT plus a CDS archive. The first request is a liveness probe, which does not need MongoDB.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-18081}
+JAR=codehack-contest.jar
+WORK=build/startup
+
+./gradlew -q bootJar
+rm -rf "$WORK"
+java -Djarmode=tools -jar "build/output/$JAR" extract --destination "$WORK"
+
+# Training runs: start the context, exit after refresh and dump the loaded classes into an archive
+(cd "$WORK" && java -XX:ArchiveClassesAtExit=application.jsa -Dspring.context.exit=onRefresh -jar "$JAR" > training.log 2>&1)
+(cd "$WORK" && java -XX:ArchiveClassesAtExit=application-aot.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh -jar "$JAR" > training-aot.log 2>&1)
+
+measure() {
+    local label=$1
+    shift
+    local total=0
+    for ((i = 1; i <= RUNS; i++)); do
+        local start end pid
+        start=$(date +%s%N)
+        (cd "$WORK" && exec java "$@" -jar "$JAR" --server.port="$PORT") > "$WORK/$label.log" 2>&1 &
+        pid=$!
+        until curl -sf -o /dev/null "http://localhost:$PORT/actuator/health/liveness"; do
+            sleep 0.01
+        done
+        end=$(date +%s%N)
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        total=$((total + (end - start) / 1000000))
+    done
+    printf "%-8s %6d ms (mean of %d runs)\n" "$label" $((total / RUNS)) "$RUNS"
+}
+
+measure plain
+measure cds -XX:SharedArchiveFile=application.jsa
+measure aot-cds -XX:SharedArchiveFile=application-aot.jsa -Dspring.aot.enabled=true
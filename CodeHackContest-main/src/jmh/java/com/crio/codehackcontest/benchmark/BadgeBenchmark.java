@@ -0,0 +1,27 @@
+package com.crio.codehackcontest.benchmark;
+
+import com.crio.codehackcontest.model.Badges;
+import com.crio.codehackcontest.utils.DetermineBadges;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DetermineBadges#determineBadges(int)}, called on every score update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BadgeBenchmark {
+    private int score;
+
+    @Benchmark
+    public HashSet<Badges> determineBadges() {
+        score = score == 100 ? 0 : score + 1;
+        return DetermineBadges.determineBadges(score);
+    }
+}
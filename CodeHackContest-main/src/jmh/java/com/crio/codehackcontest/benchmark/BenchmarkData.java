@@ -0,0 +1,103 @@
+package com.crio.codehackcontest.benchmark;
+
+import com.crio.codehackcontest.entity.Contest;
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.repository.ContestRepository;
+import com.crio.codehackcontest.repository.UserRepository;
+import com.crio.codehackcontest.utils.DetermineBadges;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * The BenchmarkData class builds deterministic fixtures and in-memory repository fakes for the benchmarks.
+ *
+ * <p>The repository fakes only answer the calls made on the leaderboard path ({@code findById} and
+ * {@code findAllById}); any other call fails loudly so a benchmark never measures an unexpected path.</p>
+ */
+final class BenchmarkData {
+    static final String CONTEST_ID = "benchmark-contest";
+    // Epoch milliseconds of the earliest generated score change
+    private static final long FIRST_SCORE_TIME = 1_700_000_000_000L;
+    private static final long WEEK_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates users with uniformly distributed scores, their matching badges and score times spread over a week.
+     *
+     * @param count the number of users
+     * @return the generated users
+     */
+    static List<User> users(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int score = random.nextInt(101);
+            long lastImproved = FIRST_SCORE_TIME + random.nextLong(WEEK_MS);
+            users.add(new User("user-" + i, "User " + i, score, DetermineBadges.determineBadges(score), lastImproved));
+        }
+        return users;
+    }
+
+    /**
+     * Creates a ContestRepository fake holding a single contest with the given participants.
+     *
+     * @param users the contest participants
+     * @return the repository fake
+     */
+    static ContestRepository contestRepository(List<User> users) {
+        List<String> participants = new ArrayList<>(users.size());
+        users.forEach(user -> participants.add(user.getUserid()));
+        Contest contest = new Contest(CONTEST_ID, "benchmark", participants);
+        return fake(ContestRepository.class, (method, args) -> switch (method) {
+            case "findById" -> CONTEST_ID.equals(args[0]) ? Optional.of(contest) : Optional.empty();
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Creates a UserRepository fake backed by a map, returning a fresh list per query like a real driver.
+     *
+     * @param users the stored users
+     * @return the repository fake
+     */
+    static UserRepository userRepository(List<User> users) {
+        Map<String, User> byId = new HashMap<>(users.size() * 2);
+        users.forEach(user -> byId.put(user.getUserid(), user));
+        return fake(UserRepository.class, (method, args) -> switch (method) {
+            case "findById" -> Optional.ofNullable(byId.get((String) args[0]));
+            case "findAllById" -> {
+                List<User> found = new ArrayList<>();
+                for (Object id : (Iterable<?>) args[0]) {
+                    User user = byId.get((String) id);
+                    if (user != null) {
+                        found.add(user);
+                    }
+                }
+                yield found;
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    private static <T> T fake(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName() + "Fake";
+                    default -> handler.handle(method.getName(), args);
+                }));
+    }
+}
@@ -0,0 +1,61 @@
+package com.crio.codehackcontest.benchmark;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.exchange.GenericResponse;
+import com.crio.codehackcontest.model.LeaderBoard;
+import com.crio.codehackcontest.model.LeaderBoardColumns;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encode cost and wire size of the {@code /leaderboard/{id}} response body across the
+ * negotiable encodings (JSON, CBOR, Smile) and both layouts (one object per user, one array per field).
+ *
+ * <p>The encoded size of every combination is printed once per trial, since JMH only reports time.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class EncodingBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int participants;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"rows", "columnar"})
+    public String layout;
+
+    private ObjectMapper objectMapper;
+    private Object response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        objectMapper = switch (format) {
+            case "cbor" -> new ObjectMapper(new CBORFactory());
+            case "smile" -> new ObjectMapper(new SmileFactory());
+            default -> new ObjectMapper();
+        };
+        List<User> users = BenchmarkData.users(participants);
+        LeaderBoard leaderBoard = new LeaderBoard("lb_for_contest_id_" + BenchmarkData.CONTEST_ID, "LeaderBoard: benchmark", users);
+        response = "columnar".equals(layout)
+                ? new GenericResponse<>(LeaderBoardColumns.of(leaderBoard))
+                : new GenericResponse<>(leaderBoard);
+        System.out.printf("%nwire size: participants=%d format=%s layout=%s bytes=%d%n",
+                participants, format, layout, objectMapper.writeValueAsBytes(response).length);
+    }
+
+    @Benchmark
+    public byte[] encodeLeaderBoard() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
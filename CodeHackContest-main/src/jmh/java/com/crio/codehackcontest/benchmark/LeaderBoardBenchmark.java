@@ -0,0 +1,37 @@
+package com.crio.codehackcontest.benchmark;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.model.LeaderBoard;
+import com.crio.codehackcontest.service.implementation.ContestServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ContestServiceImpl#checkLeaderBoard(String)} against in-memory repositories,
+ * i.e. the participant join and sort without any MongoDB latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class LeaderBoardBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int participants;
+
+    private ContestServiceImpl contestService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> users = BenchmarkData.users(participants);
+        contestService = new ContestServiceImpl(BenchmarkData.userRepository(users), BenchmarkData.contestRepository(users));
+    }
+
+    @Benchmark
+    public LeaderBoard checkLeaderBoard() {
+        return contestService.checkLeaderBoard(BenchmarkData.CONTEST_ID);
+    }
+}
@@ -0,0 +1,49 @@
+package com.crio.codehackcontest.benchmark;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.utils.ParallelRanker;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full leaderboard rebuild: sorting {@code User} objects with the policy's comparator
+ * against the {@link ParallelRanker}, which sorts packed primitive keys across all cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class ParallelRankingBenchmark {
+    @Param({"100000", "1000000", "10000000"})
+    public int participants;
+
+    @Param({"earliest", "score"})
+    public String policy;
+
+    private List<User> users;
+    private RankingPolicy rankingPolicy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        users = BenchmarkData.users(participants);
+        rankingPolicy = RankingPolicy.parse(policy);
+    }
+
+    @Benchmark
+    public List<User> comparatorSort() {
+        List<User> copy = new ArrayList<>(users);
+        copy.sort(rankingPolicy.comparator());
+        return copy;
+    }
+
+    @Benchmark
+    public List<User> parallelPrimitiveSort() {
+        return ParallelRanker.rank(users, rankingPolicy);
+    }
+}
@@ -0,0 +1,37 @@
+package com.crio.codehackcontest.benchmark;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.utils.UserScoreComparator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sorting participants with {@link UserScoreComparator}, the ranking step of every leaderboard.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class RankingBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int participants;
+
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        users = BenchmarkData.users(participants);
+    }
+
+    @Benchmark
+    public List<User> sortByScore() {
+        List<User> copy = new ArrayList<>(users);
+        copy.sort(new UserScoreComparator());
+        return copy;
+    }
+}
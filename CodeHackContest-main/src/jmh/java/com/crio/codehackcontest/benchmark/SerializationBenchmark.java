@@ -0,0 +1,39 @@
+package com.crio.codehackcontest.benchmark;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.exchange.GenericResponse;
+import com.crio.codehackcontest.model.LeaderBoard;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson serialization of the {@code /leaderboard/{id}} response body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class SerializationBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int participants;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private GenericResponse<LeaderBoard> response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> users = BenchmarkData.users(participants);
+        response = new GenericResponse<>(new LeaderBoard("lb_for_contest_id_" + BenchmarkData.CONTEST_ID, "LeaderBoard: benchmark", users));
+    }
+
+    @Benchmark
+    public byte[] serializeLeaderBoard() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
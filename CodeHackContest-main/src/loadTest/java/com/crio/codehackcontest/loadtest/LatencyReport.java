@@ -0,0 +1,85 @@
+package com.crio.codehackcontest.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyReport class collects per-operation latency histograms and status counts.
+ *
+ * <p>Latencies are recorded in microseconds from the <em>intended</em> start of each request, not from
+ * the moment it was actually sent. When the server stalls, requests that should have been sent during
+ * the stall are charged for the time they waited, which corrects for coordinated omission.</p>
+ */
+class LatencyReport {
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> rejected = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new LongAdder());
+            rejected.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Records a finished request.
+     *
+     * @param operation      the operation performed
+     * @param intendedNanos  the time the request was scheduled to start
+     * @param completedNanos the time the response was received
+     * @param status         the HTTP status, or -1 if the request failed without a response
+     */
+    void record(Operation operation, long intendedNanos, long completedNanos, int status) {
+        histograms.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(0, completedNanos - intendedNanos)));
+        if (status == 429) {
+            rejected.get(operation).increment();
+        } else if (status < 200 || status >= 300) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * Prints a percentile summary per operation and writes full HdrHistogram distributions to the directory.
+     *
+     * @param out             where the summary is printed
+     * @param reportDirectory where the {@code .hgrm} files are written
+     * @param elapsedSeconds  the wall-clock duration of the run
+     * @throws IOException if a distribution file cannot be written
+     */
+    void print(PrintStream out, Path reportDirectory, double elapsedSeconds) throws IOException {
+        Files.createDirectories(reportDirectory);
+        out.printf("%-15s %8s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "req/s", "errors", "429s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            out.printf("%-15s %8d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation, histogram.getTotalCount(), histogram.getTotalCount() / elapsedSeconds,
+                    errors.get(operation).sum(), rejected.get(operation).sum(),
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0);
+            Path file = reportDirectory.resolve(operation.name().toLowerCase() + ".hgrm");
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        out.println("Percentile distributions (ms) written to " + reportDirectory);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
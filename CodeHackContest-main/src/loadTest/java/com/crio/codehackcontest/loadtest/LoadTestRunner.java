@@ -0,0 +1,248 @@
+package com.crio.codehackcontest.loadtest;
+
+import com.crio.codehackcontest.CodeHackContestApplication;
+import com.crio.codehackcontest.utils.GlobalDataConstants;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The LoadTestRunner class drives open-model load against the REST API on a single machine.
+ *
+ * <p>It starts an in-process, wire-compatible MongoDB stand-in, boots the application against it,
+ * seeds users, and then issues requests at a fixed arrival rate regardless of how fast the server
+ * answers. Requests are dispatched asynchronously at their scheduled time, so a slow server builds
+ * up a backlog instead of slowing the generator down. All requests come from one address, so the
+ * per-client write rate limit is raised to the offered rate.</p>
+ *
+ * <p>Arguments are {@code key=value} pairs: {@code rate} (requests per second), {@code duration}
+ * (seconds), {@code seed} (users created before the run),
+ * {@code mix} (create:update:leaderboard:delete:contest-create:contest-join:contest-leave weights;
+ * missing trailing weights are 0) and {@code report} (output directory).</p>
+ *
+ * <p>Contest traffic creates new contests with a few seeded users, and adds seeded users to and
+ * removes them from the single contest, so the contest write paths are loaded alongside the user ones.</p>
+ */
+public class LoadTestRunner {
+    private static final String CREATED_USER_HEADER = "X-Load-Test-User";
+    // Number of seeded users in every contest the load test creates
+    private static final int CONTEST_SIZE = 10;
+
+    private final Map<String, String> options;
+    private final HttpClient httpClient;
+    private final LatencyReport report = new LatencyReport();
+    private final ConcurrentLinkedDeque<String> createdUsers = new ConcurrentLinkedDeque<>();
+    private final AtomicLong nextUser = new AtomicLong();
+    private final AtomicLong nextContest = new AtomicLong();
+    private String baseUrl;
+    private String contestId;
+
+    LoadTestRunner(Map<String, String> options, ExecutorService executor) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder().executor(executor).connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "rate", "200", "duration", "30", "seed", "1000",
+                "mix", "10:55:25:5:1:2:2", "report", "build/reports/loadtest"));
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongoServer.bind();
+        ConfigurableApplicationContext context = null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            context = new SpringApplicationBuilder(CodeHackContestApplication.class)
+                    .run("--server.port=0",
+                            "--spring.data.mongodb.uri=mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/loadtest",
+                            "--logging.level.web=INFO",
+                            "--codehack.admission.client.rate-per-second=" + options.get("rate"),
+                            "--codehack.admission.client.burst=" + options.get("rate"),
+                            "--spring.devtools.restart.enabled=false");
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            LoadTestRunner runner = new LoadTestRunner(options, executor);
+            runner.baseUrl = "http://localhost:" + port;
+            runner.contestId = awaitContestId();
+            runner.seed(Integer.parseInt(options.get("seed")));
+            runner.run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            mongoServer.shutdownNow();
+        }
+        // Driver event loops may linger after the context closes; the run is over, so exit explicitly.
+        System.exit(0);
+    }
+
+    private static String awaitContestId() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (GlobalDataConstants.contestId == null) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Contest was not initialized within 30 seconds");
+            }
+            Thread.sleep(50);
+        }
+        return GlobalDataConstants.contestId;
+    }
+
+    private void seed(int users) throws Exception {
+        for (int i = 0; i < users; i++) {
+            HttpRequest request = withTimeout(createRequest("seed-" + i, i));
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding user seed-" + i + " failed with status " + response.statusCode());
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        int rate = Integer.parseInt(options.get("rate"));
+        int seeded = Integer.parseInt(options.get("seed"));
+        long total = (long) rate * Integer.parseInt(options.get("duration"));
+        int[] weights = parseMix(options.get("mix"));
+        SplittableRandom random = new SplittableRandom(7);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * interval;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(weights, random);
+            HttpRequest request = buildRequest(operation, seeded, random);
+            Operation recorded = request.method().equals("GET") ? Operation.LEADERBOARD : operation;
+            pending.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        int status = error != null ? -1 : response.statusCode();
+                        report.record(recorded, intended, System.nanoTime(), status);
+                        if (recorded == Operation.CREATE && status == 200) {
+                            createdUsers.add(createdUser(request));
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        report.print(System.out, Path.of(options.get("report")), elapsed);
+    }
+
+    private HttpRequest buildRequest(Operation operation, int seeded, SplittableRandom random) {
+        switch (operation) {
+            case CREATE:
+                long id = nextUser.getAndIncrement();
+                return withTimeout(createRequest("lt-" + id, id));
+            case UPDATE:
+                if (seeded > 0) {
+                    String body = "{\"score\":" + random.nextInt(101) + "}";
+                    return withTimeout(HttpRequest.newBuilder(URI.create(baseUrl + "/users/seed-" + random.nextInt(seeded)))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(body)));
+                }
+                break;
+            case DELETE:
+                String victim = createdUsers.poll();
+                if (victim != null) {
+                    return withTimeout(HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + victim)).DELETE());
+                }
+                break;
+            case CONTEST_CREATE:
+                if (seeded > 0) {
+                    String name = "lt-contest-" + nextContest.getAndIncrement();
+                    return withTimeout(HttpRequest.newBuilder(URI.create(baseUrl + "/contests"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(contestBody(name, seeded, random, CONTEST_SIZE))));
+                }
+                break;
+            case CONTEST_JOIN:
+            case CONTEST_LEAVE:
+                if (seeded > 0) {
+                    String path = operation == Operation.CONTEST_JOIN ? "/contests/add/" : "/contests/remove/";
+                    return withTimeout(HttpRequest.newBuilder(URI.create(baseUrl + path + contestId))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(contestBody("loadtest", seeded, random, 1))));
+                }
+                break;
+            default:
+                break;
+        }
+        return withTimeout(HttpRequest.newBuilder(URI.create(baseUrl + "/leaderboard/" + contestId)).GET());
+    }
+
+    private HttpRequest.Builder createRequest(String userid, long n) {
+        String body = "{\"userid\":\"" + userid + "\",\"username\":\"Load User " + n + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/users"))
+                .header("Content-Type", "application/json")
+                .header(CREATED_USER_HEADER, userid)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static String contestBody(String name, int seeded, SplittableRandom random, int participants) {
+        StringBuilder body = new StringBuilder("{\"name\":\"").append(name).append("\",\"participants\":[");
+        for (int i = 0; i < participants; i++) {
+            body.append(i == 0 ? "\"" : ",\"").append("seed-").append(random.nextInt(seeded)).append('"');
+        }
+        return body.append("]}").toString();
+    }
+
+    private static String createdUser(HttpRequest request) {
+        return request.headers().firstValue(CREATED_USER_HEADER).orElse("");
+    }
+
+    private static HttpRequest withTimeout(HttpRequest.Builder builder) {
+        return builder.timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private static int[] parseMix(String mix) {
+        String[] parts = mix.split(":");
+        int[] weights = new int[Operation.values().length];
+        for (int i = 0; i < weights.length && i < parts.length; i++) {
+            weights[i] = Integer.parseInt(parts[i]);
+        }
+        return weights;
+    }
+
+    private static Operation pick(int[] weights, SplittableRandom random) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return Operation.values()[i];
+            }
+        }
+        return Operation.LEADERBOARD;
+    }
+}
@@ -0,0 +1,14 @@
+package com.crio.codehackcontest.loadtest;
+
+/**
+ * The Operation enum lists the API calls issued by the load test.
+ */
+enum Operation {
+    CREATE,
+    UPDATE,
+    LEADERBOARD,
+    DELETE,
+    CONTEST_CREATE,
+    CONTEST_JOIN,
+    CONTEST_LEAVE
+}
@@ -2,8 +2,10 @@ package com.crio.codehackcontest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
 
 @SpringBootApplication
+@EnableAsync
 public class CodeHackContestApplication {
     public static void main(String[] args) {
         SpringApplication.run(CodeHackContestApplication.class, args);
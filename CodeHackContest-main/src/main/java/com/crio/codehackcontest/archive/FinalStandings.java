@@ -0,0 +1,321 @@
+package com.crio.codehackcontest.archive;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.model.Badges;
+import com.crio.codehackcontest.model.ScoreStats;
+import com.crio.codehackcontest.model.SubsetStanding;
+import com.crio.codehackcontest.utils.RankingPolicy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The FinalStandings class reads the immutable final standings of a contest from a memory-mapped file.
+ *
+ * <p>The file starts with a header holding the contest name, the number of participants and a
+ * sparse index with the offset of every {@value #INDEX_STRIDE}th entry. The entries follow in rank
+ * order: the rank, the score and the badges as a bit set, then the user ID and username. A trailing
+ * CRC covers everything before it. A page is read by looking up the nearest indexed entry and
+ * skipping at most {@value #INDEX_STRIDE} entries, so reads cost the same on every page.</p>
+ *
+ * <p>Instances are immutable and thread safe; every read works on its own view of the mapping.</p>
+ */
+public class FinalStandings {
+    static final int MAGIC = 0x43484653;
+    static final int VERSION = 1;
+    static final int INDEX_STRIDE = 64;
+
+    private final String contestId;
+    private final String name;
+    private final int size;
+    private final int[] index;
+    private final ByteBuffer entries;
+    private volatile ScoreStats stats;
+    private volatile Map<String, Integer> positions;
+
+    private FinalStandings(String contestId, String name, int size, int[] index, ByteBuffer entries) {
+        this.contestId = contestId;
+        this.name = name;
+        this.size = size;
+        this.index = index;
+        this.entries = entries;
+    }
+
+    public String getContestId() {
+        return contestId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the final standings of a contest.
+     *
+     * <p>Participants tied under the ranking policy share a rank, and the next rank skips the tied places.</p>
+     *
+     * @param out    the stream to write to, not closed by this method
+     * @param name   the name of the contest
+     * @param users  the participants in leaderboard order
+     * @param policy the policy the participants were ordered by
+     * @throws IOException if writing fails
+     */
+    static void write(OutputStream out, String name, List<User> users, RankingPolicy policy) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(out, crc), 1 << 16));
+        List<byte[]> encoded = new ArrayList<>(users.size());
+        int[] index = new int[(users.size() + INDEX_STRIDE - 1) / INDEX_STRIDE];
+        int offset = 0;
+        int rank = 0;
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (i == 0 || policy.key(user) != policy.key(users.get(i - 1))) {
+                rank = i + 1;
+            }
+            if (i % INDEX_STRIDE == 0) {
+                index[i / INDEX_STRIDE] = offset;
+            }
+            byte[] entry = encode(rank, user);
+            encoded.add(entry);
+            offset += entry.length;
+        }
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        writeString(data, name);
+        data.writeInt(users.size());
+        data.writeInt(index.length);
+        for (int position : index) {
+            data.writeInt(position);
+        }
+        for (byte[] entry : encoded) {
+            data.write(entry);
+        }
+        data.flush();
+        new DataOutputStream(out).writeLong(crc.getValue());
+    }
+
+    /**
+     * Opens final standings from the mapped contents of a file written by {@link #write(OutputStream, String, List, RankingPolicy)}.
+     *
+     * @param contestId the ID of the contest
+     * @param mapped    the contents of the file
+     * @return the final standings
+     * @throws IllegalArgumentException if the contents are not valid final standings
+     */
+    static FinalStandings open(String contestId, ByteBuffer mapped) {
+        ByteBuffer buffer = mapped.duplicate();
+        if (buffer.remaining() < Integer.BYTES + Short.BYTES + Long.BYTES) {
+            throw new IllegalArgumentException("Standings file is truncated");
+        }
+        int end = buffer.limit() - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(end));
+        if (crc.getValue() != buffer.getLong(end)) {
+            throw new IllegalArgumentException("Standings file checksum mismatch");
+        }
+        buffer.limit(end);
+        if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+            throw new IllegalArgumentException("Not a standings file");
+        }
+        String name = readString(buffer);
+        int size = buffer.getInt();
+        int[] index = new int[buffer.getInt()];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = buffer.getInt();
+        }
+        return new FinalStandings(contestId, name, size, index, buffer.slice());
+    }
+
+    /**
+     * Reads a page of the standings.
+     *
+     * @param offset the rank order position of the first participant, starting at 0
+     * @param limit  the maximum number of participants
+     * @return the participants, empty if the offset is past the end
+     */
+    public List<User> page(int offset, int limit) {
+        int count = Math.max(0, Math.min(limit, size - offset));
+        List<User> users = new ArrayList<>(count);
+        if (count == 0) {
+            return users;
+        }
+        ByteBuffer buffer = seek(offset);
+        for (int i = 0; i < count; i++) {
+            users.add(readUser(buffer));
+        }
+        return users;
+    }
+
+    /**
+     * Reads the stored ranks of a page of the standings, without decoding the participants.
+     *
+     * <p>Tied participants share a rank, so the rank of a participant can be lower than its position
+     * plus one, also on the first entry of a page.</p>
+     *
+     * @param offset the rank order position of the first participant, starting at 0
+     * @param limit  the maximum number of participants
+     * @return the rank of each participant of the page, empty if the offset is past the end
+     */
+    public List<Integer> ranks(int offset, int limit) {
+        int count = Math.max(0, Math.min(limit, size - offset));
+        List<Integer> ranks = new ArrayList<>(count);
+        if (count == 0) {
+            return ranks;
+        }
+        ByteBuffer buffer = seek(offset);
+        for (int i = 0; i < count; i++) {
+            ranks.add(buffer.getInt(buffer.position()));
+            skipEntry(buffer);
+        }
+        return ranks;
+    }
+
+    /**
+     * Streams all participants in rank order, decoding each one as it is consumed.
+     *
+     * @return a stream of the participants
+     */
+    public Stream<User> stream() {
+        ByteBuffer buffer = entries.duplicate();
+        Spliterator<User> spliterator = new Spliterators.AbstractSpliterator<>(size, Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL) {
+            private int read;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super User> action) {
+                if (read == size) {
+                    return false;
+                }
+                read++;
+                action.accept(readUser(buffer));
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Returns the score distribution of the standings, counted on first use and kept afterwards.
+     *
+     * @return the ScoreStats {@link com.crio.codehackcontest.model.ScoreStats} of the contest
+     */
+    public ScoreStats stats() {
+        ScoreStats computed = stats;
+        if (computed == null) {
+            try (Stream<User> users = stream()) {
+                computed = ScoreStats.of(contestId, name, users::iterator);
+            }
+            stats = computed;
+        }
+        return computed;
+    }
+
+    /**
+     * Looks up several participants with their rank, indexing the user IDs on first use and keeping the index afterwards.
+     *
+     * @param userIds the IDs of the users
+     * @return the participants among the users, with their global rank set and their subset rank left at 0
+     */
+    public List<SubsetStanding> standings(Collection<String> userIds) {
+        Map<String, Integer> index = positions;
+        if (index == null) {
+            index = new HashMap<>(size * 4 / 3 + 1);
+            ByteBuffer buffer = entries.duplicate();
+            for (int i = 0; i < size; i++) {
+                index.put(readUser(buffer).getUserid(), i);
+            }
+            positions = index;
+        }
+        List<SubsetStanding> standings = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            Integer position = index.get(userId);
+            if (position != null) {
+                ByteBuffer buffer = seek(position);
+                int rank = buffer.getInt(buffer.position());
+                User user = readUser(buffer);
+                standings.add(new SubsetStanding(user.getUserid(), user.getUsername(), user.getScore(), user.getBadges(), 0, rank));
+            }
+        }
+        return standings;
+    }
+
+    private ByteBuffer seek(int offset) {
+        ByteBuffer buffer = entries.duplicate();
+        buffer.position(index[offset / INDEX_STRIDE]);
+        for (int skip = offset % INDEX_STRIDE; skip > 0; skip--) {
+            skipEntry(buffer);
+        }
+        return buffer;
+    }
+
+    private static void skipEntry(ByteBuffer buffer) {
+        buffer.position(buffer.position() + Integer.BYTES + 2);
+        int useridLength = Short.toUnsignedInt(buffer.getShort());
+        buffer.position(buffer.position() + useridLength);
+        int usernameLength = Short.toUnsignedInt(buffer.getShort());
+        buffer.position(buffer.position() + usernameLength);
+    }
+
+    private static User readUser(ByteBuffer buffer) {
+        buffer.getInt(); // rank, read separately by ranks() and standings()
+        int score = buffer.get();
+        int badgeBits = buffer.get();
+        String userid = readString(buffer);
+        String username = readString(buffer);
+        HashSet<Badges> badges = new HashSet<>();
+        for (Badges badge : Badges.values()) {
+            if ((badgeBits & (1 << badge.ordinal())) != 0) {
+                badges.add(badge);
+            }
+        }
+        return new User(userid, username, score, badges);
+    }
+
+    private static byte[] encode(int rank, User user) {
+        byte[] userid = user.getUserid().getBytes(StandardCharsets.UTF_8);
+        byte[] username = user.getUsername() == null ? new byte[0] : user.getUsername().getBytes(StandardCharsets.UTF_8);
+        int badgeBits = 0;
+        if (user.getBadges() != null) {
+            for (Badges badge : user.getBadges()) {
+                badgeBits |= 1 << badge.ordinal();
+            }
+        }
+        ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + 2 + Short.BYTES + userid.length + Short.BYTES + username.length);
+        entry.putInt(rank).put((byte) user.getScore()).put((byte) badgeBits);
+        entry.putShort((short) userid.length).put(userid);
+        entry.putShort((short) username.length).put(username);
+        return entry.array();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
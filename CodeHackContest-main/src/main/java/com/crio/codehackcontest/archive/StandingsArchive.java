@@ -0,0 +1,190 @@
+package com.crio.codehackcontest.archive;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The StandingsArchive class keeps the final standings of finalized contests as immutable files.
+ *
+ * <p>Finalizing a contest writes its leaderboard to {@code standings-<contestId>.bin} in the archive
+ * directory, through a temporary file and an atomic rename, and maps it into memory. The files in
+ * the directory are mapped again on startup, so finalized leaderboards are served without reading
+ * the database.</p>
+ */
+@Component
+public class StandingsArchive {
+    private static final Logger log = LoggerFactory.getLogger(StandingsArchive.class);
+    private static final Pattern STANDINGS_FILE = Pattern.compile("standings-([A-Za-z0-9_-]+)\\.bin");
+    private static final Pattern CONTEST_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final Path dir;
+    private final Map<String, FinalStandings> standings = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a StandingsArchive from the configured properties.
+     *
+     * @param enabled whether contests can be finalized
+     * @param dir     the directory holding the standings files
+     */
+    @Autowired
+    public StandingsArchive(@Value("${codehack.archive.enabled:true}") boolean enabled,
+                            @Value("${codehack.archive.dir:data/archive}") Path dir) {
+        this(enabled ? dir : null);
+    }
+
+    /**
+     * Constructs a StandingsArchive and maps the standings files found in its directory.
+     *
+     * @param dir the directory holding the standings files, or null to archive nothing
+     */
+    public StandingsArchive(Path dir) {
+        this.dir = dir;
+        if (dir != null) {
+            try {
+                load();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Opening the standings archive in " + dir + " failed", e);
+            }
+        }
+    }
+
+    /**
+     * Returns a StandingsArchive that archives nothing, for callers without an archive directory.
+     *
+     * @return a disabled archive
+     */
+    public static StandingsArchive disabled() {
+        return new StandingsArchive(null);
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    /**
+     * Returns the final standings of a contest.
+     *
+     * @param contestId the ID of the contest
+     * @return the final standings, or empty if the contest is not finalized
+     */
+    public Optional<FinalStandings> get(String contestId) {
+        return Optional.ofNullable(standings.get(contestId));
+    }
+
+    /**
+     * Writes and maps the final standings of a contest.
+     *
+     * @param contestId the ID of the contest
+     * @param name      the name of the contest
+     * @param users     the participants in leaderboard order
+     * @return the final standings
+     * @throws ResponseStatusException with status 409 if the contest is already finalized
+     */
+    public FinalStandings archive(String contestId, String name, List<User> users) {
+        return archive(contestId, name, users, RankingPolicy.DEFAULT);
+    }
+
+    /**
+     * Writes and maps the final standings of a contest.
+     *
+     * @param contestId the ID of the contest
+     * @param name      the name of the contest
+     * @param users     the participants in leaderboard order
+     * @param policy    the policy the participants were ordered by, deciding which of them share a rank
+     * @return the final standings
+     * @throws ResponseStatusException with status 409 if the contest is already finalized
+     */
+    public synchronized FinalStandings archive(String contestId, String name, List<User> users, RankingPolicy policy) {
+        if (!isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Contest archive is disabled");
+        }
+        if (!CONTEST_ID.matcher(contestId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Contest ID cannot be archived: " + contestId);
+        }
+        if (standings.containsKey(contestId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Contest is already finalized");
+        }
+        Path file = file(contestId);
+        Path tmp = dir.resolve(file.getFileName() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+                FinalStandings.write(out, name, users, policy);
+                out.getFD().sync();
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            FinalStandings finalStandings = map(contestId, file);
+            standings.put(contestId, finalStandings);
+            log.info("Contest {} finalized with {} participants", contestId, users.size());
+            return finalStandings;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing the standings of contest " + contestId + " failed", e);
+        }
+    }
+
+    /**
+     * Removes the final standings of a contest, if there are any.
+     *
+     * @param contestId the ID of the contest
+     */
+    public synchronized void remove(String contestId) {
+        if (standings.remove(contestId) != null) {
+            try {
+                Files.deleteIfExists(file(contestId));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Deleting the standings of contest " + contestId + " failed", e);
+            }
+        }
+    }
+
+    private Path file(String contestId) {
+        return dir.resolve("standings-" + contestId + ".bin");
+    }
+
+    private static FinalStandings map(String contestId, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return FinalStandings.open(contestId, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = STANDINGS_FILE.matcher(file.getFileName().toString());
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (matcher.matches()) {
+                    try {
+                        standings.put(matcher.group(1), map(matcher.group(1), file));
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Ignoring standings file {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        }
+        log.info("Standings archive opened in {}: {} finalized contests", dir, standings.size());
+    }
+}
@@ -0,0 +1,250 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.exception.TooManyRequestsException;
+import com.crio.codehackcontest.utils.AimdLimiter;
+import com.crio.codehackcontest.utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AdmissionControlInterceptor class sheds load before it reaches the controllers.
+ *
+ * <p>Reads and writes are kept in separate bulkheads so a burst of writes cannot starve leaderboard reads.
+ * A read is a GET request or a request to a handler marked {@link ReadOnlyEndpoint}, such as a subset
+ * leaderboard posted as a body. Reads are bounded by a fixed number of concurrent requests. Writes first pass a per-client
+ * {@link TokenBucket}, then an adaptive {@link AimdLimiter} that shrinks when write latency rises.
+ * A client is the authenticated principal or, for anonymous requests, the remote address; a header the
+ * client chooses itself would let it bypass its limit. Behind a reverse proxy every request comes from
+ * the proxy's address, so the addresses of {@code codehack.admission.client.trusted-proxies} are looked
+ * through: for requests they forward, the client is the address they put into {@code Forwarded} or
+ * {@code X-Forwarded-For}. With no trusted proxy configured, all requests through a proxy share one
+ * bucket. A token taken by a write the limiter then rejects
+ * is given back, so rejected requests do not use up the client's quota.
+ * Rejected requests fail immediately with HTTP 429 and a {@code Retry-After} header.</p>
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+    private static final String WRITE_START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".writeStart";
+    private static final String READ_SLOT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".readSlot";
+
+    private final boolean enabled;
+    private final double clientRatePerSecond;
+    private final int clientBurst;
+    private final int maxTrackedClients;
+    private final Set<String> trustedProxies;
+    private final AimdLimiter writeLimiter;
+    private final Semaphore readBulkhead;
+    private final ConcurrentHashMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Counter readRejected;
+    private final Counter writeRejected;
+    private final Counter rateRejected;
+
+    /**
+     * Constructs an AdmissionControlInterceptor from the {@code codehack.admission.*} properties.
+     *
+     * @param meterRegistry              the registry the limiter state is published to
+     * @param enabled                    whether admission control is active
+     * @param readMaxConcurrent          the maximum number of concurrent reads
+     * @param writeInitialLimit          the starting concurrency limit for writes
+     * @param writeMinLimit              the lowest concurrency limit for writes
+     * @param writeMaxLimit              the highest concurrency limit for writes
+     * @param writeBackoffRatio          the factor applied to the write limit on overload
+     * @param writeLatencyThresholdMs    write latency above this is treated as overload
+     * @param clientRatePerSecond        the sustained write rate allowed per client
+     * @param clientBurst                the write burst allowed per client
+     * @param maxTrackedClients          the number of client buckets kept before idle ones are dropped
+     * @param trustedProxies             comma separated addresses of the reverse proxies whose forwarded headers are trusted
+     */
+    public AdmissionControlInterceptor(MeterRegistry meterRegistry,
+                                       @Value("${codehack.admission.enabled:true}") boolean enabled,
+                                       @Value("${codehack.admission.read.max-concurrent:200}") int readMaxConcurrent,
+                                       @Value("${codehack.admission.write.initial-limit:20}") int writeInitialLimit,
+                                       @Value("${codehack.admission.write.min-limit:4}") int writeMinLimit,
+                                       @Value("${codehack.admission.write.max-limit:200}") int writeMaxLimit,
+                                       @Value("${codehack.admission.write.backoff-ratio:0.9}") double writeBackoffRatio,
+                                       @Value("${codehack.admission.write.latency-threshold-ms:250}") long writeLatencyThresholdMs,
+                                       @Value("${codehack.admission.client.rate-per-second:50}") double clientRatePerSecond,
+                                       @Value("${codehack.admission.client.burst:100}") int clientBurst,
+                                       @Value("${codehack.admission.client.max-tracked:10000}") int maxTrackedClients,
+                                       @Value("${codehack.admission.client.trusted-proxies:}") String trustedProxies) {
+        this.enabled = enabled;
+        this.clientRatePerSecond = clientRatePerSecond;
+        this.clientBurst = clientBurst;
+        this.maxTrackedClients = maxTrackedClients;
+        this.trustedProxies = trustedProxies.isBlank() ? Set.of() : Set.copyOf(List.of(trustedProxies.trim().split("\\s*,\\s*")));
+        this.readBulkhead = new Semaphore(readMaxConcurrent);
+        this.writeLimiter = new AimdLimiter(writeInitialLimit, writeMinLimit, writeMaxLimit, writeBackoffRatio,
+                TimeUnit.MILLISECONDS.toNanos(writeLatencyThresholdMs));
+
+        Gauge.builder("codehack.admission.limit", writeLimiter, AimdLimiter::getLimit).tag("bulkhead", "write").register(meterRegistry);
+        Gauge.builder("codehack.admission.inflight", writeLimiter, AimdLimiter::getInFlight).tag("bulkhead", "write").register(meterRegistry);
+        Gauge.builder("codehack.admission.limit", () -> readMaxConcurrent).tag("bulkhead", "read").register(meterRegistry);
+        Gauge.builder("codehack.admission.inflight", readBulkhead, bulkhead -> readMaxConcurrent - bulkhead.availablePermits()).tag("bulkhead", "read").register(meterRegistry);
+        Gauge.builder("codehack.admission.clients", clientBuckets, ConcurrentHashMap::size).register(meterRegistry);
+        this.readRejected = Counter.builder("codehack.admission.rejected").tags("bulkhead", "read", "reason", "concurrency").register(meterRegistry);
+        this.writeRejected = Counter.builder("codehack.admission.rejected").tags("bulkhead", "write", "reason", "concurrency").register(meterRegistry);
+        this.rateRejected = Counter.builder("codehack.admission.rejected").tags("bulkhead", "write", "reason", "client-rate").register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // A streamed response is dispatched again once it completes; its slot was taken on the first dispatch
+        if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        if (isRead(request, handler)) {
+            if (!readBulkhead.tryAcquire()) {
+                readRejected.increment();
+                throw new TooManyRequestsException("Too many concurrent reads, retry later", 1);
+            }
+            request.setAttribute(READ_SLOT_ATTRIBUTE, Boolean.TRUE);
+            return true;
+        }
+
+        TokenBucket bucket = bucketFor(clientKey(request));
+        long waitNanos = bucket.tryConsume();
+        if (waitNanos > 0) {
+            rateRejected.increment();
+            throw new TooManyRequestsException("Client write rate exceeded, retry later", TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        }
+        if (!writeLimiter.tryAcquire()) {
+            bucket.refund();
+            writeRejected.increment();
+            throw new TooManyRequestsException("Too many concurrent writes, retry later", 1);
+        }
+        request.setAttribute(WRITE_START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(READ_SLOT_ATTRIBUTE) != null) {
+            request.removeAttribute(READ_SLOT_ATTRIBUTE);
+            readBulkhead.release();
+        }
+        if (request.getAttribute(WRITE_START_ATTRIBUTE) instanceof Long start) {
+            request.removeAttribute(WRITE_START_ATTRIBUTE);
+            boolean failed = ex != null || response.getStatus() >= 500;
+            writeLimiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "principal:" + principal.getName() : "address:" + clientAddress(request);
+    }
+
+    /**
+     * Helper method to tell whether a request is admitted as a read.
+     *
+     * @param request the request
+     * @param handler the handler chosen for the request
+     * @return true for GET requests and requests to handlers marked {@link ReadOnlyEndpoint}
+     */
+    private static boolean isRead(HttpServletRequest request, Object handler) {
+        return HttpMethod.GET.matches(request.getMethod())
+                || handler instanceof HandlerMethod method && method.hasMethodAnnotation(ReadOnlyEndpoint.class);
+    }
+
+    /**
+     * Helper method to find the address of the client, looking through the trusted proxies in front of the application.
+     *
+     * <p>Every proxy appends the address it received the request from, so the forwarded addresses are
+     * read from right to left and the first one that is not a trusted proxy is the client. The headers
+     * are ignored on requests that do not come from a trusted proxy, since the client could set them.</p>
+     *
+     * @param request the request
+     * @return the address of the client
+     */
+    private String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+        List<String> hops = forwardedFor(request);
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            address = hops.get(i);
+            if (!trustedProxies.contains(address)) {
+                return address;
+            }
+        }
+        return address;
+    }
+
+    /**
+     * Helper method to read the forwarded client addresses, from {@code Forwarded} or else from {@code X-Forwarded-For}.
+     *
+     * @param request the request
+     * @return the addresses in the order the proxies added them
+     */
+    private static List<String> forwardedFor(HttpServletRequest request) {
+        List<String> hops = new ArrayList<>();
+        Enumeration<String> forwarded = request.getHeaders("Forwarded");
+        while (forwarded != null && forwarded.hasMoreElements()) {
+            for (String element : forwarded.nextElement().split(",")) {
+                for (String pair : element.split(";")) {
+                    String[] parts = pair.trim().split("=", 2);
+                    if (parts.length == 2 && parts[0].toLowerCase(Locale.ROOT).equals("for")) {
+                        hops.add(hostOf(parts[1]));
+                    }
+                }
+            }
+        }
+        if (hops.isEmpty()) {
+            Enumeration<String> forwardedFor = request.getHeaders("X-Forwarded-For");
+            while (forwardedFor != null && forwardedFor.hasMoreElements()) {
+                for (String hop : forwardedFor.nextElement().split(",")) {
+                    if (!hop.isBlank()) {
+                        hops.add(hostOf(hop));
+                    }
+                }
+            }
+        }
+        return hops;
+    }
+
+    /**
+     * Helper method to strip the quotes, IPv6 brackets and port from a forwarded address.
+     *
+     * @param node the forwarded address, e.g. {@code "[2001:db8::1]:4711"} or {@code 192.0.2.60:8080}
+     * @return the address alone
+     */
+    private static String hostOf(String node) {
+        String host = node.trim();
+        if (host.length() > 1 && host.startsWith("\"") && host.endsWith("\"")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        if (host.startsWith("[")) {
+            int end = host.indexOf(']');
+            return end > 0 ? host.substring(1, end) : host;
+        }
+        int colon = host.indexOf(':');
+        return colon >= 0 && colon == host.lastIndexOf(':') ? host.substring(0, colon) : host;
+    }
+
+    private TokenBucket bucketFor(String client) {
+        if (clientBuckets.size() > maxTrackedClients) {
+            clientBuckets.values().removeIf(TokenBucket::isFull);
+        }
+        return clientBuckets.computeIfAbsent(client, key -> new TokenBucket(clientRatePerSecond, clientBurst));
+    }
+}
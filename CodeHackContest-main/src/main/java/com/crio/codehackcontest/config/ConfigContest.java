@@ -1,10 +1,18 @@
 package com.crio.codehackcontest.config;
 
 import com.crio.codehackcontest.entity.Contest;
+import com.crio.codehackcontest.jfr.BulkOperationEvent;
 import com.crio.codehackcontest.repository.ContestRepository;
 import com.crio.codehackcontest.utils.GlobalDataConstants;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -15,43 +23,98 @@ import java.util.Optional;
  *
  * <p>This component ensures that the application is configured with the necessary contest data
  * based on the configuration constants provided in {@link com.crio.codehackcontest.utils.GlobalDataConstants}.</p>
+ *
+ * <p>The bootstrap runs asynchronously once the application has started, so a slow or unreachable
+ * MongoDB no longer delays boot. Until it has finished, {@link ContestBootstrapHealthIndicator} keeps
+ * the application out of the readiness group. Failed attempts are retried with exponential backoff.</p>
  */
 @Component
 public class ConfigContest {
+    private static final Logger log = LoggerFactory.getLogger(ConfigContest.class);
+
     private final ContestRepository contestRepository;
+    private final long maxBackoffMs;
+    private volatile boolean stopped;
 
     /**
      * Constructs a ConfigContest with the given ContestRepository.
      *
      * @param contestRepository the repository for contest data access
+     * @param maxBackoffMs      the longest pause between two failed bootstrap attempts, in milliseconds
      */
     @Autowired
-    public ConfigContest(ContestRepository contestRepository) {
+    public ConfigContest(ContestRepository contestRepository,
+                         @Value("${codehack.contest.bootstrap.max-backoff-ms:30000}") long maxBackoffMs) {
         this.contestRepository = contestRepository;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * Marks the bootstrap as pending before the application can receive requests.
+     */
+    @PostConstruct
+    public void markBootstrapPending() {
+        if (GlobalDataConstants.singleContestSupport) {
+            GlobalDataConstants.contestBootstrapStarted();
+        }
+    }
+
+    /**
+     * Runs the contest bootstrap in the background, retrying until it succeeds or the application stops.
+     */
+    @Async
+    @EventListener(ApplicationStartedEvent.class)
+    public void bootstrapContest() {
+        long backoffMs = 100;
+        while (!stopped && GlobalDataConstants.singleContestSupport) {
+            try {
+                initializeContest();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Contest bootstrap failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoffMs = Math.min(maxBackoffMs, backoffMs * 2);
+        }
     }
 
     /**
-     * Initializes the contest configuration on application startup.
+     * Initializes the contest configuration.
      *
      * <p>This method checks if a contest with the specified name exists in the database.
      * If not, it creates a new contest. If more than one contest exists, it deletes all contests
-     * except the specified single contest. If exactly one contest exists, it retrieves its ID
-     * and stores it in {@link com.crio.codehackcontest.utils.GlobalDataConstants#contestId}.</p>
+     * except the specified single contest. It then stores the ID of the single contest in
+     * {@link com.crio.codehackcontest.utils.GlobalDataConstants#contestId}.</p>
      */
-    @PostConstruct
     public void initializeContest() {
         if (GlobalDataConstants.singleContestSupport) {
-            Optional<Contest> contest = Optional.empty();
-            Contest createContestData = new Contest(GlobalDataConstants.contestName, new ArrayList<>());
             long count = contestRepository.count();
-            if (count == 0) {
-                contest = Optional.of(contestRepository.save(createContestData));
-            } else if (count > 1) {
+            if (count > 1) {
+                BulkOperationEvent event = new BulkOperationEvent();
+                event.begin();
                 contestRepository.deleteAllExceptSingleContest(GlobalDataConstants.contestName);
-            } else {
-                contest = contestRepository.findContestByName(GlobalDataConstants.contestName);
+                event.operation = "deleteAllExceptSingleContest";
+                event.items = (int) count - 1;
+                event.commit();
             }
-            contest.ifPresent(value -> GlobalDataConstants.contestId = value.getId());
+            Optional<Contest> contest = count == 0 ? Optional.empty() : contestRepository.findContestByName(GlobalDataConstants.contestName);
+            if (contest.isEmpty()) {
+                contest = Optional.of(contestRepository.save(new Contest(GlobalDataConstants.contestName, new ArrayList<>())));
+            }
+            GlobalDataConstants.contestBootstrapFinished(contest.get().getId());
         }
     }
+
+    /**
+     * Stops retrying the bootstrap when the application shuts down.
+     */
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+    }
 }
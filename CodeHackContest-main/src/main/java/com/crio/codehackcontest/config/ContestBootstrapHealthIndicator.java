@@ -0,0 +1,29 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.utils.GlobalDataConstants;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ContestBootstrapHealthIndicator class reports whether the contest bootstrap of {@link ConfigContest} has finished.
+ *
+ * <p>It is registered as {@code contestBootstrap} and included in the readiness health group, so the
+ * application does not receive traffic before the single contest is available.</p>
+ */
+@Component
+public class ContestBootstrapHealthIndicator implements HealthIndicator {
+
+    /**
+     * Reports the state of the contest bootstrap.
+     *
+     * @return UP once the contest is available, OUT_OF_SERVICE while it is still being initialized
+     */
+    @Override
+    public Health health() {
+        if (!GlobalDataConstants.singleContestSupport || GlobalDataConstants.contestId != null) {
+            return Health.up().build();
+        }
+        return Health.outOfService().withDetail("contest", "initializing").build();
+    }
+}
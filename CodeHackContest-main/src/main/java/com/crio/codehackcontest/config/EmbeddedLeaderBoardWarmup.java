@@ -0,0 +1,130 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.entity.Contest;
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.exchange.UserFields;
+import com.crio.codehackcontest.index.ContestRanking;
+import com.crio.codehackcontest.index.LeaderBoardIndex;
+import com.crio.codehackcontest.index.UsernameTrie;
+import com.crio.codehackcontest.repository.ContestRepository;
+import com.crio.codehackcontest.repository.UserRepository;
+import com.crio.codehackcontest.utils.GlobalDataConstants;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The EmbeddedLeaderBoardWarmup class loads the {@link LeaderBoardIndex} from the embedded storage on application startup.
+ *
+ * <p>The embedded storage already holds everything in memory, so the rankings are built with plain
+ * repository lookups instead of the parallel range scans {@link LeaderBoardWarmup} runs against
+ * MongoDB. The index is installed the same way and reported by the same health indicator and metrics.</p>
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedLeaderBoardWarmup {
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedLeaderBoardWarmup.class);
+    // The user fields loaded to build the username search index
+    private static final UserFields USERNAME_FIELDS = UserFields.parse("userid,username");
+
+    private final ContestRepository contestRepository;
+    private final UserRepository userRepository;
+    private final LeaderBoardIndex leaderBoardIndex;
+    private final boolean enabled;
+    private final long maxBackoffMs;
+    private final Timer duration;
+
+    /**
+     * Constructs an EmbeddedLeaderBoardWarmup.
+     *
+     * @param contestRepository the repository the contests are read from
+     * @param userRepository    the repository the participants are read from
+     * @param leaderBoardIndex  the index to load
+     * @param enabled           whether the index is loaded at all
+     * @param maxBackoffMs      how long to wait for the contest bootstrap, in milliseconds
+     * @param meterRegistry     the registry the warm-up is reported to
+     */
+    public EmbeddedLeaderBoardWarmup(ContestRepository contestRepository, UserRepository userRepository,
+                                     LeaderBoardIndex leaderBoardIndex,
+                                     @Value("${codehack.index.warmup.enabled:true}") boolean enabled,
+                                     @Value("${codehack.index.warmup.max-backoff-ms:30000}") long maxBackoffMs,
+                                     MeterRegistry meterRegistry) {
+        this.contestRepository = contestRepository;
+        this.userRepository = userRepository;
+        this.leaderBoardIndex = leaderBoardIndex;
+        this.enabled = enabled;
+        this.maxBackoffMs = maxBackoffMs;
+        Gauge.builder("codehack.index.ready", leaderBoardIndex, index -> index.isReady() ? 1 : 0).register(meterRegistry);
+        this.duration = meterRegistry.timer("codehack.index.warmup.duration");
+    }
+
+    /**
+     * Starts journaling index changes before the application can receive requests.
+     */
+    @PostConstruct
+    public void markWarmupPending() {
+        if (enabled) {
+            leaderBoardIndex.beginWarmup();
+        }
+    }
+
+    /**
+     * Loads the index in the background once the contest bootstrap has settled.
+     */
+    @Async
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmup() {
+        if (!enabled) {
+            return;
+        }
+        // The bootstrap may still delete surplus contests, so wait for it to settle first
+        while (GlobalDataConstants.singleContestSupport && GlobalDataConstants.awaitContestId(maxBackoffMs) == null) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+        loadIndex();
+    }
+
+    /**
+     * Builds the ranking of every contest and installs them in the index.
+     */
+    public void loadIndex() {
+        long start = System.nanoTime();
+        Map<String, ContestRanking> rankings = new HashMap<>();
+        long users = 0;
+        for (Contest contest : contestRepository.findAll()) {
+            ContestRanking ranking = leaderBoardIndex.newRanking(contest.getId(), contest.getName());
+            if (contest.getParticipantsId() != null && !contest.getParticipantsId().isEmpty()) {
+                List<User> participants = userRepository.findAllById(contest.getParticipantsId());
+                ranking.putAll(participants);
+                users += participants.size();
+            }
+            rankings.put(contest.getId(), ranking);
+        }
+        UsernameTrie usernames = new UsernameTrie();
+        for (User user : userRepository.findAllWithFields(USERNAME_FIELDS.projection())) {
+            usernames.put(user.getUsername(), user.getUserid());
+        }
+        leaderBoardIndex.install(rankings, usernames);
+
+        long elapsed = System.nanoTime() - start;
+        duration.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Leaderboard index warmed up from the embedded storage: {} contests, {} participants, {} ms",
+                rankings.size(), users, elapsed / 1_000_000);
+    }
+}
@@ -0,0 +1,39 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.exchange.UserFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The JacksonConfig class prepares the application's Jackson mappers for sparse fieldsets.
+ *
+ * <p>{@link User} is bound to the {@link UserFields#FILTER} property filter through a mix-in, so the
+ * entity itself stays free of Jackson annotations. Without a per-response filter every field in
+ * {@link UserFields#NAMES} is written. {@code lastImproved} is only stored and used for ranking, so the
+ * mix-in keeps it out of every response.</p>
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Registers the user fields filter on every mapper built by Spring Boot.
+     *
+     * @return the customizer applying the filter
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer userFieldsFilter() {
+        return builder -> builder
+                .mixIn(User.class, UserFieldsMixin.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    @JsonFilter(UserFields.FILTER)
+    @JsonIgnoreProperties("lastImproved")
+    interface UserFieldsMixin {
+    }
+}
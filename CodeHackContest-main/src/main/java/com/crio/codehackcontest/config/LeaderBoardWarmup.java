@@ -0,0 +1,285 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.entity.Contest;
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.index.ContestRanking;
+import com.crio.codehackcontest.index.LeaderBoardIndex;
+import com.crio.codehackcontest.index.UsernameTrie;
+import com.crio.codehackcontest.utils.GlobalDataConstants;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * The LeaderBoardWarmup class loads the {@link LeaderBoardIndex} from MongoDB on application startup.
+ *
+ * <p>The {@code user} collection is split into {@code _id} ranges using split points taken from a
+ * random sample, and the ranges are scanned with parallel cursors. Each scan keeps the users taking
+ * part in a contest; the results are then merged into one {@link ContestRanking} per contest, the
+ * contests in parallel and each bulk loaded with a single sort per score bucket, and installed in
+ * the index. Until that has happened {@link LeaderBoardWarmupHealthIndicator} keeps the
+ * application out of the readiness group.</p>
+ *
+ * <p>Progress is exposed through the {@code codehack.index.warmup.users} and
+ * {@code codehack.index.warmup.ranges.completed} gauges, the total time through the
+ * {@code codehack.index.warmup.duration} timer. Failed attempts are retried with exponential backoff.</p>
+ *
+ * <p>With the {@code embedded} storage profile {@link EmbeddedLeaderBoardWarmup} is used instead.</p>
+ */
+@Component
+@Profile("!embedded")
+public class LeaderBoardWarmup {
+    private static final Logger log = LoggerFactory.getLogger(LeaderBoardWarmup.class);
+    // Number of sampled IDs per range used to pick the split points
+    private static final int SAMPLES_PER_RANGE = 32;
+
+    private final MongoTemplate mongoTemplate;
+    private final LeaderBoardIndex leaderBoardIndex;
+    private final boolean enabled;
+    private final int parallelism;
+    private final int batchSize;
+    private final long maxBackoffMs;
+    private final AtomicLong usersScanned = new AtomicLong();
+    private final AtomicInteger rangesCompleted = new AtomicInteger();
+    private final AtomicInteger rangesTotal = new AtomicInteger();
+    private final Timer duration;
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a LeaderBoardWarmup.
+     *
+     * @param mongoTemplate    the template used to sample and scan the collections
+     * @param leaderBoardIndex the index to load
+     * @param enabled          whether the index is loaded at all
+     * @param parallelism      the number of {@code _id} ranges scanned in parallel, 0 for one per processor
+     * @param batchSize        the cursor batch size of each scan
+     * @param maxBackoffMs     the longest pause between two failed warm-up attempts, in milliseconds
+     * @param meterRegistry    the registry the warm-up progress is reported to
+     */
+    @Autowired
+    public LeaderBoardWarmup(MongoTemplate mongoTemplate, LeaderBoardIndex leaderBoardIndex,
+                             @Value("${codehack.index.warmup.enabled:true}") boolean enabled,
+                             @Value("${codehack.index.warmup.parallelism:0}") int parallelism,
+                             @Value("${codehack.index.warmup.batch-size:5000}") int batchSize,
+                             @Value("${codehack.index.warmup.max-backoff-ms:30000}") long maxBackoffMs,
+                             MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaderBoardIndex = leaderBoardIndex;
+        this.enabled = enabled;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+        this.maxBackoffMs = maxBackoffMs;
+        Gauge.builder("codehack.index.warmup.users", usersScanned, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("codehack.index.warmup.ranges.completed", rangesCompleted, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("codehack.index.warmup.ranges.total", rangesTotal, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("codehack.index.ready", leaderBoardIndex, index -> index.isReady() ? 1 : 0).register(meterRegistry);
+        this.duration = meterRegistry.timer("codehack.index.warmup.duration");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts journaling index changes before the application can receive requests.
+     */
+    @PostConstruct
+    public void markWarmupPending() {
+        if (enabled) {
+            leaderBoardIndex.beginWarmup();
+        }
+    }
+
+    /**
+     * Runs the warm-up in the background, retrying until it succeeds or the application stops.
+     */
+    @Async
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmup() {
+        long backoffMs = 100;
+        while (!stopped && enabled) {
+            try {
+                // The bootstrap may still delete surplus contests, so wait for it to settle first
+                if (GlobalDataConstants.singleContestSupport && GlobalDataConstants.awaitContestId(maxBackoffMs) == null) {
+                    continue;
+                }
+                loadIndex();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Leaderboard warm-up failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoffMs = Math.min(maxBackoffMs, backoffMs * 2);
+        }
+    }
+
+    /**
+     * Scans the contests and users and installs the resulting rankings in the index.
+     *
+     * @throws InterruptedException if the warm-up is interrupted while waiting for the scans
+     */
+    public void loadIndex() throws InterruptedException {
+        long start = System.nanoTime();
+        usersScanned.set(0);
+        rangesCompleted.set(0);
+
+        Map<String, Contest> contests = new HashMap<>();
+        Map<String, Set<String>> participants = new HashMap<>();
+        for (Contest contest : mongoTemplate.findAll(Contest.class)) {
+            contests.put(contest.getId(), contest);
+            participants.put(contest.getId(), contest.getParticipantsId() != null ? new HashSet<>(contest.getParticipantsId()) : Set.of());
+        }
+
+        UsernameTrie usernames = new UsernameTrie();
+        List<Query> ranges = splitRanges();
+        rangesTotal.set(ranges.size());
+        List<Map<String, List<User>>> scans = new ArrayList<>(ranges.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, ranges.size()));
+        try {
+            List<Future<Map<String, List<User>>>> futures = new ArrayList<>(ranges.size());
+            for (Query range : ranges) {
+                futures.add(executor.submit(() -> scanRange(range, participants, usernames)));
+            }
+            for (Future<Map<String, List<User>>> future : futures) {
+                scans.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scanning the user collection failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Each contest is merged from the scans and bulk loaded on its own, so the contests are ranked in parallel
+        Map<String, ContestRanking> rankings = new ConcurrentHashMap<>();
+        contests.values().parallelStream().forEach(contest -> {
+            List<User> users = new ArrayList<>();
+            for (Map<String, List<User>> scan : scans) {
+                users.addAll(scan.getOrDefault(contest.getId(), List.of()));
+            }
+            ContestRanking ranking = leaderBoardIndex.newRanking(contest.getId(), contest.getName());
+            ranking.putAll(users);
+            rankings.put(contest.getId(), ranking);
+        });
+        leaderBoardIndex.install(rankings, usernames);
+
+        long elapsed = System.nanoTime() - start;
+        duration.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Leaderboard index warmed up: {} contests, {} users in {} ranges, {} ms",
+                rankings.size(), usersScanned.get(), ranges.size(), elapsed / 1_000_000);
+    }
+
+    /**
+     * Stops retrying the warm-up when the application shuts down.
+     */
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Helper method to split the {@code user} collection into {@code _id} ranges of similar size.
+     *
+     * @return one query per range, together covering the whole collection
+     */
+    private List<Query> splitRanges() {
+        List<String> splitPoints = new ArrayList<>();
+        if (parallelism > 1) {
+            Aggregation sample = Aggregation.newAggregation(
+                    Aggregation.sample((long) parallelism * SAMPLES_PER_RANGE),
+                    Aggregation.project("_id"));
+            TreeSet<String> sampled = new TreeSet<>();
+            for (Document document : mongoTemplate.aggregate(sample, "user", Document.class).getMappedResults()) {
+                sampled.add(String.valueOf(document.get("_id")));
+            }
+            List<String> ordered = new ArrayList<>(sampled);
+            for (int i = 1; i < parallelism && !ordered.isEmpty(); i++) {
+                String point = ordered.get(i * ordered.size() / parallelism);
+                if (splitPoints.isEmpty() || !splitPoints.get(splitPoints.size() - 1).equals(point)) {
+                    splitPoints.add(point);
+                }
+            }
+        }
+
+        List<Query> ranges = new ArrayList<>(splitPoints.size() + 1);
+        String lower = null;
+        for (int i = 0; i <= splitPoints.size(); i++) {
+            String upper = i < splitPoints.size() ? splitPoints.get(i) : null;
+            Criteria criteria = Criteria.where("_id");
+            if (lower != null) {
+                criteria = criteria.gte(lower);
+            }
+            if (upper != null) {
+                criteria = criteria.lt(upper);
+            }
+            ranges.add((lower == null && upper == null ? new Query() : new Query(criteria)).cursorBatchSize(batchSize));
+            lower = upper;
+        }
+        return ranges;
+    }
+
+    /**
+     * Helper method to scan one {@code _id} range and group the users taking part in a contest.
+     *
+     * @param range        the query selecting the range
+     * @param participants the participant IDs of every contest, by contest ID
+     * @param usernames    receives the username of every user in the range
+     * @return the users of the range, grouped by contest ID
+     */
+    private Map<String, List<User>> scanRange(Query range, Map<String, Set<String>> participants, UsernameTrie usernames) {
+        Map<String, List<User>> usersByContest = new HashMap<>();
+        try (Stream<User> users = mongoTemplate.stream(range, User.class)) {
+            users.forEach(user -> {
+                usersScanned.incrementAndGet();
+                usernames.put(user.getUsername(), user.getUserid());
+                participants.forEach((contestId, ids) -> {
+                    if (ids.contains(user.getUserid())) {
+                        usersByContest.computeIfAbsent(contestId, id -> new ArrayList<>()).add(user);
+                    }
+                });
+            });
+        }
+        rangesCompleted.incrementAndGet();
+        return usersByContest;
+    }
+}
@@ -0,0 +1,40 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.index.LeaderBoardIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * The LeaderBoardWarmupHealthIndicator class reports whether the leaderboard index has been loaded.
+ *
+ * <p>It is registered as {@code leaderBoardWarmup} and included in the readiness health group, so a
+ * cold node does not receive traffic before its in-memory rankings are complete. The index is loaded
+ * by {@link LeaderBoardWarmup} from MongoDB or by {@link EmbeddedLeaderBoardWarmup} from the embedded
+ * storage.</p>
+ */
+@Component
+public class LeaderBoardWarmupHealthIndicator implements HealthIndicator {
+    private final boolean warmupEnabled;
+    private final LeaderBoardIndex leaderBoardIndex;
+
+    public LeaderBoardWarmupHealthIndicator(@Value("${codehack.index.warmup.enabled:true}") boolean warmupEnabled,
+                                            LeaderBoardIndex leaderBoardIndex) {
+        this.warmupEnabled = warmupEnabled;
+        this.leaderBoardIndex = leaderBoardIndex;
+    }
+
+    /**
+     * Reports the state of the warm-up.
+     *
+     * @return UP once the index is loaded or the warm-up is disabled, OUT_OF_SERVICE while it is still loading
+     */
+    @Override
+    public Health health() {
+        if (!warmupEnabled || leaderBoardIndex.isReady()) {
+            return Health.up().withDetail("contests", leaderBoardIndex.contestCount()).build();
+        }
+        return Health.outOfService().withDetail("index", "warming up").build();
+    }
+}
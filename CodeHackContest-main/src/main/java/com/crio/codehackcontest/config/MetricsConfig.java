@@ -0,0 +1,29 @@
+package com.crio.codehackcontest.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The MetricsConfig class enables the Micrometer timing of the service layer.
+ *
+ * <p>Service implementations annotated with {@link io.micrometer.core.annotation.Timed} are timed per method
+ * under the {@code codehack.service} metric, tagged with the class and method name. MongoDB command latency
+ * per command and collection is recorded by Spring Boot as {@code mongodb.driver.commands}. Everything is
+ * published on {@code /actuator/prometheus}.</p>
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Registers the aspect that records {@link io.micrometer.core.annotation.Timed} methods.
+     *
+     * @param meterRegistry the registry the timers are recorded in
+     * @return the TimedAspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,67 @@
+package com.crio.codehackcontest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MongoConfig class tunes the MongoDB driver connection pool and registers its command listeners.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true} every request runs on its own virtual thread, so
+ * the number of in-flight requests is no longer capped by the Tomcat thread pool. The Mongo connection
+ * pool becomes the real concurrency limit, and it is sized here through the {@code codehack.mongodb.pool.*}
+ * properties. A bounded wait time makes requests fail fast instead of queueing forever for a connection.</p>
+ */
+@Configuration
+@Profile("!embedded")
+public class MongoConfig {
+    private final int maxSize;
+    private final int minSize;
+    private final int maxConnecting;
+    private final long maxWaitMs;
+    private final MongoRoundTripListener roundTripListener;
+
+    /**
+     * Constructs a MongoConfig with the configured pool settings.
+     *
+     * @param maxSize           the maximum number of pooled connections
+     * @param minSize           the number of connections kept open while idle
+     * @param maxConnecting     the maximum number of connections being established concurrently
+     * @param maxWaitMs         how long a request may wait for a free connection, in milliseconds
+     * @param roundTripListener the listener charging MongoDB commands to the current request
+     */
+    public MongoConfig(@Value("${codehack.mongodb.pool.max-size:100}") int maxSize,
+                       @Value("${codehack.mongodb.pool.min-size:10}") int minSize,
+                       @Value("${codehack.mongodb.pool.max-connecting:4}") int maxConnecting,
+                       @Value("${codehack.mongodb.pool.max-wait-ms:2000}") long maxWaitMs,
+                       MongoRoundTripListener roundTripListener) {
+        this.maxSize = maxSize;
+        this.minSize = minSize;
+        this.maxConnecting = maxConnecting;
+        this.maxWaitMs = maxWaitMs;
+        this.roundTripListener = roundTripListener;
+    }
+
+    /**
+     * Applies the pool settings and the round-trip listener to the auto-configured MongoClient.
+     *
+     * <p>The settings are applied exactly as configured in both threading modes. In virtual-thread mode
+     * bursts are no longer throttled upstream, so raise {@code codehack.mongodb.pool.max-connecting} there
+     * if connection setup becomes the bottleneck.</p>
+     *
+     * @return the customizer applied to the MongoClient settings
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer() {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS))
+                .addCommandListener(roundTripListener);
+    }
+}
@@ -0,0 +1,106 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.utils.MongoRequestStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The MongoRoundTripFilter class binds {@link MongoRequestStats} to each request and writes the access log.
+ *
+ * <p>Every request produces one structured line on the {@code codehack.access} logger with its status,
+ * duration and MongoDB commands, documents and driver time. Requests that issue more commands than
+ * {@code codehack.mongo.round-trip-budget} are logged at WARN and counted, which makes N+1 query
+ * patterns visible in production. The {@code Server-Timing} header is added by {@link MongoServerTimingAdvice}.</p>
+ *
+ * <p>Streamed responses are written on an async thread after the filter chain has returned; their line
+ * is written once the async request completes, so it includes the cursor reads of the stream.</p>
+ */
+@Component
+public class MongoRoundTripFilter extends OncePerRequestFilter {
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("codehack.access");
+
+    private final int roundTripBudget;
+    private final Counter budgetExceeded;
+
+    /**
+     * Constructs a MongoRoundTripFilter.
+     *
+     * @param meterRegistry   the registry counting requests over budget
+     * @param roundTripBudget the number of MongoDB commands a request may issue before it is flagged
+     */
+    public MongoRoundTripFilter(MeterRegistry meterRegistry,
+                                @Value("${codehack.mongo.round-trip-budget:10}") int roundTripBudget) {
+        this.roundTripBudget = roundTripBudget;
+        this.budgetExceeded = Counter.builder("codehack.mongo.budget.exceeded").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        MongoRequestStats stats = MongoRequestStats.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MongoRequestStats.clear();
+            if (request.isAsyncStarted()) {
+                // Streamed responses keep reading on an async thread, so log once they are complete
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response, start, stats);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request, response, start, stats);
+            }
+        }
+    }
+
+    /**
+     * Helper method to write the access log line of a finished request.
+     *
+     * @param request  the request
+     * @param response the response
+     * @param start    the time the request started, from {@link System#nanoTime()}
+     * @param stats    the MongoDB work of the request
+     */
+    private void log(HttpServletRequest request, HttpServletResponse response, long start, MongoRequestStats stats) {
+        boolean overBudget = stats.getCommands() > roundTripBudget;
+        String line = String.format(Locale.ROOT, "method=%s path=%s status=%d durationMs=%.3f mongoCommands=%d mongoDocuments=%d mongoMs=%.3f overBudget=%s",
+                request.getMethod(), request.getRequestURI(), response.getStatus(), (System.nanoTime() - start) / 1_000_000.0,
+                stats.getCommands(), stats.getDocuments(), stats.getDriverMillis(), overBudget);
+        if (overBudget) {
+            budgetExceeded.increment();
+            ACCESS_LOG.warn(line);
+        } else {
+            ACCESS_LOG.info(line);
+        }
+    }
+}
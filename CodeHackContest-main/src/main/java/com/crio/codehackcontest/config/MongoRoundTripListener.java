@@ -0,0 +1,50 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.utils.MongoRequestStats;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MongoRoundTripListener class charges every MongoDB command to the request that issued it.
+ *
+ * <p>It is registered on the MongoClient by {@link MongoConfig} and records into the
+ * {@link MongoRequestStats} bound to the calling thread.</p>
+ */
+@Component
+public class MongoRoundTripListener implements CommandListener {
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        MongoRequestStats stats = MongoRequestStats.current();
+        if (stats != null) {
+            stats.record(event.getElapsedTime(TimeUnit.NANOSECONDS), documentsReturned(event.getResponse()));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        MongoRequestStats stats = MongoRequestStats.current();
+        if (stats != null) {
+            stats.record(event.getElapsedTime(TimeUnit.NANOSECONDS), 0);
+        }
+    }
+
+    private static int documentsReturned(BsonDocument response) {
+        if (response == null || !response.isDocument("cursor")) {
+            return 0;
+        }
+        BsonDocument cursor = response.getDocument("cursor");
+        if (cursor.isArray("firstBatch")) {
+            return cursor.getArray("firstBatch").size();
+        }
+        if (cursor.isArray("nextBatch")) {
+            return cursor.getArray("nextBatch").size();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.utils.MongoRequestStats;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * The MongoServerTimingAdvice class adds the MongoDB work of the request as a {@code Server-Timing} header.
+ *
+ * <p>The header has to be set before the body is written, so it is added here rather than in
+ * {@link MongoRoundTripFilter}. Every MongoDB call a controller makes has finished by this point.</p>
+ */
+@RestControllerAdvice
+public class MongoServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        MongoRequestStats stats = MongoRequestStats.current();
+        if (stats != null) {
+            response.getHeaders().add("Server-Timing", stats.toServerTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,27 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.utils.RankingPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The RankingConfig class selects how participants with the same score are ordered.
+ *
+ * <p>{@code codehack.ranking.policy} is {@code earliest} to rank the participant who reached a score
+ * first higher, or {@code score} to keep equal scores tied. Either way ties are listed by user ID.</p>
+ */
+@Configuration
+public class RankingConfig {
+
+    /**
+     * Parses the configured ranking policy.
+     *
+     * @param policy the name of the policy
+     * @return the RankingPolicy used by every leaderboard
+     */
+    @Bean
+    public RankingPolicy rankingPolicy(@Value("${codehack.ranking.policy:earliest}") String policy) {
+        return RankingPolicy.parse(policy);
+    }
+}
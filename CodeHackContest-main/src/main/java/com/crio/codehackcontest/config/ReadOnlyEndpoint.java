@@ -0,0 +1,21 @@
+package com.crio.codehackcontest.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The ReadOnlyEndpoint annotation marks a handler method that only reads, although it is not mapped to GET.
+ *
+ * <p>{@link AdmissionControlInterceptor} admits GET requests and requests to marked handlers through
+ * the read bulkhead, so they neither use the client's write tokens nor count towards the adaptive
+ * write limit. Typical examples are queries whose parameters are too large for a URL and are posted
+ * as a request body instead.</p>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyEndpoint {
+}
@@ -0,0 +1,63 @@
+package com.crio.codehackcontest.config;
+
+import com.crio.codehackcontest.utils.GlobalDataConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The SingleContest class resolves the ID of the single contest for the services that need it.
+ *
+ * <p>The application bean reads the ID published by the asynchronous bootstrap of {@link ConfigContest}
+ * and waits a bounded time for it while the bootstrap is still running. Callers that manage the contest
+ * themselves, such as tests with a mocked contest service, use {@link #of(String)} instead.</p>
+ */
+@Component
+public class SingleContest {
+    // The ID returned without consulting the bootstrap, or null to follow the bootstrap
+    private final String fixedId;
+    private final long waitMs;
+
+    /**
+     * Constructs a SingleContest that follows the contest bootstrap.
+     *
+     * @param waitMs how long a request waits for the contest bootstrap before giving up, in milliseconds
+     */
+    @Autowired
+    public SingleContest(@Value("${codehack.contest.bootstrap.request-wait-ms:5000}") long waitMs) {
+        this(null, waitMs);
+    }
+
+    private SingleContest(String fixedId, long waitMs) {
+        this.fixedId = fixedId;
+        this.waitMs = waitMs;
+    }
+
+    /**
+     * Returns a SingleContest that always resolves to the given ID.
+     *
+     * @param id the ID of the single contest
+     * @return a SingleContest with a fixed ID
+     */
+    public static SingleContest of(String id) {
+        return new SingleContest(id, 0);
+    }
+
+    /**
+     * Returns the ID of the single contest without waiting.
+     *
+     * @return the ID, or null while the contest bootstrap is still running
+     */
+    public String currentId() {
+        return fixedId != null ? fixedId : GlobalDataConstants.contestId;
+    }
+
+    /**
+     * Returns the ID of the single contest, waiting up to the configured time for the contest bootstrap.
+     *
+     * @return the ID, or null if the bootstrap has not finished in time
+     */
+    public String awaitId() {
+        return fixedId != null ? fixedId : GlobalDataConstants.awaitContestId(waitMs);
+    }
+}
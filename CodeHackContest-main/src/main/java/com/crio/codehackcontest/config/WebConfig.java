@@ -0,0 +1,55 @@
+package com.crio.codehackcontest.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * The WebConfig class registers the request interceptors and message converters for the REST API.
+ *
+ * <p>Besides JSON, responses can be encoded as CBOR and Smile. Both are binary Jackson formats, so
+ * they reuse the existing models and the application's Jackson configuration.</p>
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    /**
+     * Constructs a WebConfig with the given interceptors.
+     *
+     * @param admissionControlInterceptor the interceptor shedding load on the API endpoints
+     * @param objectMapperBuilder         the builder carrying the application's Jackson configuration
+     */
+    public WebConfig(AdmissionControlInterceptor admissionControlInterceptor, Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.admissionControlInterceptor = admissionControlInterceptor;
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/users/**", "/contests/**", "/leaderboard/**");
+    }
+
+    /**
+     * Registers the binary converters after the JSON converter, so clients accepting any media type still get JSON.
+     *
+     * @param converters the converters configured so far
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.factory(new SmileFactory()).build()));
+    }
+}
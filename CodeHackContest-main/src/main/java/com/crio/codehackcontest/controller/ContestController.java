@@ -3,9 +3,14 @@ package com.crio.codehackcontest.controller;
 import com.crio.codehackcontest.entity.Contest;
 import com.crio.codehackcontest.exchange.ContestRequest;
 import com.crio.codehackcontest.exchange.GenericResponse;
+import com.crio.codehackcontest.exchange.StreamingGenericResponse;
+import com.crio.codehackcontest.model.LeaderBoard;
 import com.crio.codehackcontest.service.ContestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -19,14 +24,17 @@ import java.util.List;
 @RequestMapping("/contests")
 public class ContestController {
     private final ContestService contestService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructs a ContestController with the given ContestService.
      *
      * @param contestService the service to manage contest operations
+     * @param objectMapper   the mapper used for streamed responses
      */
-    public ContestController(ContestService contestService) {
+    public ContestController(ContestService contestService, ObjectMapper objectMapper) {
         this.contestService = contestService;
+        this.objectMapper = objectMapper;
     }
 
     // ----------------------------- CONTEST -----------------------------
@@ -56,6 +64,17 @@ public class ContestController {
         return ResponseEntity.ok().body(data);
     }
 
+    /**
+     * Retrieves all contests as JSON written while they are read from the database.
+     *
+     * @return a ResponseEntity streaming a list of all contests
+     */
+    @GetMapping(value = "", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllContest() {
+        StreamingGenericResponse body = StreamingGenericResponse.list(objectMapper.writer(), contestService.streamContests());
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     /**
      * Retrieves a contest by its ID.
      *
@@ -97,6 +116,19 @@ public class ContestController {
         return ResponseEntity.ok().body(data);
     }
 
+    /**
+     * Finalizes a contest, freezing its leaderboard into an immutable standings file.
+     *
+     * @param id the ID of the contest
+     * @return a ResponseEntity containing the final leaderboard
+     */
+    @PutMapping("/finalize/{id}")
+    public ResponseEntity<?> finalizeContest(@PathVariable String id) {
+        LeaderBoard leaderBoard = contestService.finalizeContest(id);
+        GenericResponse<LeaderBoard> data = new GenericResponse<>(leaderBoard, "Contest finalized with " + leaderBoard.getUser().size() + " participants");
+        return ResponseEntity.ok().body(data);
+    }
+
     /**
      * Deletes a contest by its ID.
      *
@@ -1,43 +1,240 @@
 package com.crio.codehackcontest.controller;
 
+import com.crio.codehackcontest.config.ReadOnlyEndpoint;
 import com.crio.codehackcontest.exchange.GenericResponse;
+import com.crio.codehackcontest.exchange.StreamingGenericResponse;
+import com.crio.codehackcontest.exchange.SubsetRequest;
+import com.crio.codehackcontest.exchange.UserFields;
+import com.crio.codehackcontest.model.Badges;
 import com.crio.codehackcontest.model.LeaderBoard;
+import com.crio.codehackcontest.model.LeaderBoardColumns;
+import com.crio.codehackcontest.model.ScoreStats;
+import com.crio.codehackcontest.model.StreamingLeaderBoard;
+import com.crio.codehackcontest.model.SubsetLeaderBoard;
 import com.crio.codehackcontest.service.ContestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * The LeaderBoardController class handles HTTP requests for retrieving leaderboards.
  *
- * <p>This controller provides an endpoint for fetching the leaderboard for a specific contest.</p>
+ * <p>This controller provides an endpoint for fetching the leaderboard for a specific contest.
+ * Besides JSON, responses are available as CBOR ({@code application/cbor}) and Smile
+ * ({@code application/x-jackson-smile}) through the {@code Accept} header. With {@code asOf} the
+ * leaderboard is rebuilt as it was at that time from the score event log. Finalized contests are
+ * served from their standings file, one page at a time with {@code page} and {@code size}. A
+ * subset leaderboard ranks a posted group of users without reading the rest of the contest.</p>
  */
 @RestController
 @RequestMapping("/leaderboard")
 public class LeaderBoardController {
+    // Largest page the paged leaderboard returns
+    static final int MAX_PAGE_SIZE = 1000;
+    // Largest group a subset leaderboard ranks
+    static final int MAX_SUBSET_SIZE = 5000;
+
     private final ContestService contestService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructs a LeaderBoardController with the given ContestService.
      *
      * @param contestService the service to manage contest operations
+     * @param objectMapper   the mapper used for streamed responses
      */
-    public LeaderBoardController(ContestService contestService) {
+    public LeaderBoardController(ContestService contestService, ObjectMapper objectMapper) {
         this.contestService = contestService;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Retrieves the leaderboard for a specific contest by its ID.
      *
-     * @param id the ID of the contest
+     * @param id     the ID of the contest
+     * @param layout {@code columnar} to return one array per user field instead of one object per user
+     * @param fields comma separated user fields to return, e.g. {@code userid,score}; all fields if omitted
+     * @param page   the page to return, starting at 0; the whole leaderboard if omitted
+     * @param size   the number of participants per page
+     * @param badge  only return participants holding this badge, e.g. {@code CODEMASTER}
      * @return a ResponseEntity containing the leaderboard
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getLeaderBoardByContestId(@PathVariable String id) {
-        LeaderBoard leaderBoard = contestService.checkLeaderBoard(id);
-        GenericResponse<LeaderBoard> data = new GenericResponse<>(leaderBoard);
+    public ResponseEntity<?> getLeaderBoardByContestId(@PathVariable String id,
+                                                       @RequestParam(defaultValue = "rows") String layout,
+                                                       @RequestParam(required = false) String fields,
+                                                       @RequestParam(required = false) Integer page,
+                                                       @RequestParam(defaultValue = "100") int size,
+                                                       @RequestParam(required = false) String badge) {
+        UserFields userFields = UserFields.parse(fields);
+        Badges badgeFilter = parseBadge(badge);
+        if (page == null) {
+            LeaderBoard leaderBoard = badgeFilter == null
+                    ? contestService.checkLeaderBoard(id, userFields)
+                    : contestService.checkLeaderBoard(id, userFields, badgeFilter);
+            return render(leaderBoard, layout, userFields);
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must be at least 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) page * size);
+        LeaderBoard leaderBoard = badgeFilter == null
+                ? contestService.checkLeaderBoard(id, userFields, offset, size)
+                : contestService.checkLeaderBoard(id, userFields, badgeFilter).page(offset, size);
+        return render(leaderBoard, layout, userFields);
+    }
+
+    /**
+     * Retrieves the score distribution of a contest: histogram, percentiles, mean and badge counts.
+     *
+     * @param id the ID of the contest
+     * @return a ResponseEntity containing the statistics
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<?> getScoreStats(@PathVariable String id) {
+        GenericResponse<ScoreStats> data = new GenericResponse<>(contestService.getScoreStats(id));
+        return ResponseEntity.ok().body(data);
+    }
+
+    /**
+     * Ranks a group of users, such as a team or friends, within a contest.
+     *
+     * <p>The IDs are posted as a body, but the request only reads, so it is admitted as a read.</p>
+     *
+     * @param id      the ID of the contest
+     * @param request the IDs of the members, at most {@value #MAX_SUBSET_SIZE}
+     * @return a ResponseEntity containing the members with their rank in the group and in the contest
+     */
+    @ReadOnlyEndpoint
+    @PostMapping("/{id}/subset")
+    public ResponseEntity<?> getSubsetLeaderBoard(@PathVariable String id, @RequestBody SubsetRequest request) {
+        List<String> userIds = request.getUserIds();
+        if (userIds == null || userIds.isEmpty() || userIds.size() > MAX_SUBSET_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userIds must hold between 1 and " + MAX_SUBSET_SIZE + " user IDs");
+        }
+        GenericResponse<SubsetLeaderBoard> data = new GenericResponse<>(contestService.checkSubsetLeaderBoard(id, userIds));
         return ResponseEntity.ok().body(data);
     }
+
+    /**
+     * Retrieves the leaderboard for a specific contest as it was at a point in time.
+     *
+     * @param id     the ID of the contest
+     * @param asOf   the point in time, as an ISO-8601 instant such as {@code 2024-05-01T14:32:07Z} or in epoch milliseconds
+     * @param stream must not be true, a past leaderboard is always rebuilt in memory
+     * @param layout {@code columnar} to return one array per user field instead of one object per user
+     * @param fields comma separated user fields to return, e.g. {@code userid,score}; all fields if omitted
+     * @param badge  only return participants holding this badge at that time, e.g. {@code CODEMASTER}
+     * @return a ResponseEntity containing the leaderboard as of that time
+     */
+    @GetMapping(value = "/{id}", params = "asOf")
+    public ResponseEntity<?> getLeaderBoardAsOf(@PathVariable String id,
+                                                @RequestParam String asOf,
+                                                @RequestParam(defaultValue = "false") boolean stream,
+                                                @RequestParam(defaultValue = "rows") String layout,
+                                                @RequestParam(required = false) String fields,
+                                                @RequestParam(required = false) String badge) {
+        if (stream) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "asOf cannot be combined with stream=true");
+        }
+        UserFields userFields = UserFields.parse(fields);
+        Badges badgeFilter = parseBadge(badge);
+        long time = parseInstant("asOf", asOf);
+        LeaderBoard leaderBoard = badgeFilter == null
+                ? contestService.checkLeaderBoardAsOf(id, time)
+                : contestService.checkLeaderBoardAsOf(id, time, badgeFilter);
+        return render(leaderBoard, layout, userFields);
+    }
+
+    /**
+     * Retrieves the leaderboard for a specific contest as JSON written while the participants are read.
+     *
+     * @param id     the ID of the contest
+     * @param layout must not be {@code columnar}, which needs every participant before the first byte is written
+     * @param fields comma separated user fields to return, e.g. {@code userid,score}; all fields if omitted
+     * @param badge  only return participants holding this badge, e.g. {@code CODEMASTER}
+     * @return a ResponseEntity streaming the leaderboard
+     */
+    @GetMapping(value = "/{id}", params = {"stream=true", "!asOf"})
+    public ResponseEntity<StreamingResponseBody> streamLeaderBoardByContestId(@PathVariable String id,
+                                                                              @RequestParam(defaultValue = "rows") String layout,
+                                                                              @RequestParam(required = false) String fields,
+                                                                              @RequestParam(required = false) String badge) {
+        UserController.requireRowLayout(layout);
+        UserFields userFields = UserFields.parse(fields);
+        Badges badgeFilter = parseBadge(badge);
+        StreamingLeaderBoard leaderBoard = badgeFilter == null
+                ? contestService.streamLeaderBoard(id, userFields)
+                : contestService.streamLeaderBoard(id, userFields, badgeFilter);
+        Map<String, Object> dataFields = new LinkedHashMap<>();
+        dataFields.put("id", leaderBoard.getId());
+        dataFields.put("name", leaderBoard.getName());
+        StreamingGenericResponse body = StreamingGenericResponse.object(userFields.writer(objectMapper), dataFields, "user", leaderBoard.getUser());
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Helper method to wrap a leaderboard in the requested layout and fields.
+     *
+     * @param leaderBoard the leaderboard
+     * @param layout      {@code columnar} or {@code rows}
+     * @param fields      the user fields to return
+     * @return a ResponseEntity containing the leaderboard
+     */
+    private static ResponseEntity<?> render(LeaderBoard leaderBoard, String layout, UserFields fields) {
+        if (UserController.COLUMNAR.equalsIgnoreCase(layout)) {
+            return ResponseEntity.ok().body(new GenericResponse<>(LeaderBoardColumns.of(leaderBoard, fields)));
+        }
+        GenericResponse<LeaderBoard> data = new GenericResponse<>(leaderBoard);
+        return ResponseEntity.ok().body(fields.view(data));
+    }
+
+    /**
+     * Helper method to parse the {@code badge} request parameter.
+     *
+     * @param value the badge name, case-insensitive, or null
+     * @return the badge, or null if no badge was requested
+     */
+    private static Badges parseBadge(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Badges.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown badge: " + value);
+        }
+    }
+
+    /**
+     * Helper method to parse a point in time given as an ISO-8601 instant or in epoch milliseconds.
+     *
+     * @param name  the name of the request parameter, for the error message
+     * @param value the request parameter
+     * @return the point in time, in epoch milliseconds
+     */
+    static long parseInstant(String name, String value) {
+        try {
+            return value.chars().allMatch(Character::isDigit) ? Long.parseLong(value) : Instant.parse(value).toEpochMilli();
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name + ": " + value);
+        }
+    }
 }
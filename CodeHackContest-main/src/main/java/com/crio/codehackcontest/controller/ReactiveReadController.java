@@ -0,0 +1,56 @@
+package com.crio.codehackcontest.controller;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.service.ReactiveReadService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * The ReactiveReadController class serves the streaming variants of the user and leaderboard read APIs.
+ *
+ * <p>It is only active with the {@code reactive} profile so it can be A/B tested against
+ * {@link UserController} and {@link LeaderBoardController}. Results are written as newline-delimited
+ * JSON, one User per line, and the next document is requested from MongoDB only after the previous
+ * one has been written.</p>
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/reactive")
+public class ReactiveReadController {
+    private final ReactiveReadService reactiveReadService;
+
+    /**
+     * Constructs a ReactiveReadController with the given ReactiveReadService.
+     *
+     * @param reactiveReadService the service streaming users and leaderboards
+     */
+    public ReactiveReadController(ReactiveReadService reactiveReadService) {
+        this.reactiveReadService = reactiveReadService;
+    }
+
+    /**
+     * Streams all users sorted by score.
+     *
+     * @return a Flux of users written as newline-delimited JSON
+     */
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> streamUsers() {
+        return reactiveReadService.streamUsers();
+    }
+
+    /**
+     * Streams the leaderboard for a specific contest by its ID.
+     *
+     * @param id the ID of the contest
+     * @return a Flux of users in rank order written as newline-delimited JSON
+     */
+    @GetMapping(value = "/leaderboard/{id}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> streamLeaderBoard(@PathVariable String id) {
+        return reactiveReadService.streamLeaderBoard(id);
+    }
+}
@@ -2,11 +2,22 @@ package com.crio.codehackcontest.controller;
 
 import com.crio.codehackcontest.entity.User;
 import com.crio.codehackcontest.exchange.GenericResponse;
+import com.crio.codehackcontest.exchange.StreamingGenericResponse;
 import com.crio.codehackcontest.exchange.UpdateUserRequest;
+import com.crio.codehackcontest.exchange.UserFields;
 import com.crio.codehackcontest.exchange.UserRequest;
+import com.crio.codehackcontest.history.Resolution;
+import com.crio.codehackcontest.model.UserColumns;
+import com.crio.codehackcontest.model.UserScoreHistory;
+import com.crio.codehackcontest.model.UserSearchResult;
 import com.crio.codehackcontest.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -14,20 +25,30 @@ import java.util.List;
 /**
  * The UserController class handles HTTP requests for managing users.
  *
- * <p>This controller provides endpoints for creating, retrieving, updating, and deleting users.</p>
+ * <p>This controller provides endpoints for creating, retrieving, updating, and deleting users.
+ * Besides JSON, responses are available as CBOR ({@code application/cbor}) and Smile
+ * ({@code application/x-jackson-smile}) through the {@code Accept} header.</p>
  */
 @RestController
 @RequestMapping("/users")
 public class UserController {
+    // Value of the layout request parameter selecting the columnar form of a user list
+    static final String COLUMNAR = "columnar";
+    // Largest number of users a username search returns
+    static final int MAX_SEARCH_LIMIT = 1000;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructs a UserController with the given UserService.
      *
-     * @param userService the service to manage user operations
+     * @param userService  the service to manage user operations
+     * @param objectMapper the mapper used for streamed responses
      */
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     // ----------------------------- USER -----------------------------
@@ -45,6 +66,22 @@ public class UserController {
         return ResponseEntity.ok().body(data);
     }
 
+    /**
+     * Finds users whose username starts with a prefix.
+     *
+     * @param prefix the prefix, matched case-insensitively
+     * @param limit  the maximum number of users to return, at most {@value #MAX_SEARCH_LIMIT}
+     * @return a ResponseEntity containing the matching users with their score and current rank
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUsers(@RequestParam String prefix, @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        GenericResponse<List<UserSearchResult>> data = new GenericResponse<>(userService.searchUsers(prefix, limit));
+        return ResponseEntity.ok().body(data);
+    }
+
     /**
      * Retrieves a user by its ID.
      *
@@ -61,12 +98,67 @@ public class UserController {
     /**
      * Retrieves all users.
      *
+     * @param layout {@code columnar} to return one array per user field instead of one object per user
+     * @param fields comma separated user fields to return, e.g. {@code userid,score}; all fields if omitted
      * @return a ResponseEntity containing a list of all users
      */
     @GetMapping("")
-    public ResponseEntity<?> getUsers() {
-        List<User> users = userService.getUsers();
+    public ResponseEntity<?> getUsers(@RequestParam(defaultValue = "rows") String layout,
+                                      @RequestParam(required = false) String fields) {
+        UserFields userFields = UserFields.parse(fields);
+        List<User> users = userService.getUsers(userFields);
+        if (COLUMNAR.equalsIgnoreCase(layout)) {
+            return ResponseEntity.ok().body(new GenericResponse<>(UserColumns.of(users, userFields)));
+        }
         GenericResponse<List<User>> data = new GenericResponse<>(users);
+        return ResponseEntity.ok().body(userFields.view(data));
+    }
+
+    /**
+     * Retrieves all users as JSON written while they are read from the database.
+     *
+     * @param layout must not be {@code columnar}, which needs every user before the first byte is written
+     * @param fields comma separated user fields to return, e.g. {@code userid,score}; all fields if omitted
+     * @return a ResponseEntity streaming a list of all users
+     */
+    @GetMapping(value = "", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(defaultValue = "rows") String layout,
+                                                             @RequestParam(required = false) String fields) {
+        requireRowLayout(layout);
+        UserFields userFields = UserFields.parse(fields);
+        StreamingGenericResponse body = StreamingGenericResponse.list(userFields.writer(objectMapper), userService.streamUsers(userFields));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Helper method to reject layouts that cannot be streamed.
+     *
+     * @param layout the requested layout
+     */
+    static void requireRowLayout(String layout) {
+        if (COLUMNAR.equalsIgnoreCase(layout)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The columnar layout cannot be streamed");
+        }
+    }
+
+    /**
+     * Retrieves the score progression of a user.
+     *
+     * @param id         the ID of the user
+     * @param resolution one of {@code raw}, {@code 1s}, {@code 1m} or {@code 1h}
+     * @param from       the start of the range as an ISO-8601 instant or in epoch milliseconds; the beginning if omitted
+     * @param to         the end of the range as an ISO-8601 instant or in epoch milliseconds; now if omitted
+     * @return a ResponseEntity containing the score history of the user
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<?> getScoreHistory(@PathVariable String id,
+                                             @RequestParam(defaultValue = "raw") String resolution,
+                                             @RequestParam(required = false) String from,
+                                             @RequestParam(required = false) String to) {
+        long fromTime = from == null ? 0 : LeaderBoardController.parseInstant("from", from);
+        long toTime = to == null ? Long.MAX_VALUE : LeaderBoardController.parseInstant("to", to);
+        UserScoreHistory history = userService.getScoreHistory(id, Resolution.parse(resolution), fromTime, toTime);
+        GenericResponse<UserScoreHistory> data = new GenericResponse<>(history);
         return ResponseEntity.ok().body(data);
     }
 
@@ -15,7 +15,9 @@ import java.util.HashSet;
 /**
  * The User class represents a user entity stored in MongoDB.
  *
- * <p>It includes fields for the user's ID, username, score, and badges.</p>
+ * <p>It includes fields for the user's ID, username, score, and badges. {@code lastImproved} is the
+ * time the user reached the current score, in epoch milliseconds, or 0 if it is unknown; the
+ * {@link com.crio.codehackcontest.utils.RankingPolicy} may use it to order equal scores.</p>
  */
 @Data
 @Document(collection = "user")
@@ -33,4 +35,18 @@ public class User {
     private int score = 0;
 
     private HashSet<Badges> badges;
+
+    private long lastImproved;
+
+    /**
+     * Constructs a User whose time of reaching the score is unknown.
+     *
+     * @param userid   the ID of the user
+     * @param username the username of the user
+     * @param score    the score of the user
+     * @param badges   the badges of the user
+     */
+    public User(String userid, @NonNull String username, int score, HashSet<Badges> badges) {
+        this(userid, username, score, badges, 0);
+    }
 }
@@ -0,0 +1,80 @@
+package com.crio.codehackcontest.events;
+
+/**
+ * The ScoreChange class is one slot of the {@link ScoreEventBus} ring buffer.
+ *
+ * <p>Slots are allocated once and overwritten as the buffer wraps, so a consumer may only read a
+ * ScoreChange while it is being delivered and must copy whatever it keeps.</p>
+ */
+public final class ScoreChange {
+
+    /**
+     * The Type enum lists the changes published on the {@link ScoreEventBus}.
+     */
+    public enum Type {
+        CREATED,
+        SCORED,
+        DELETED,
+        JOINED,
+        LEFT
+    }
+
+    /**
+     * The score of a user that does not exist before or after the change.
+     */
+    public static final int ABSENT = -1;
+
+    private long sequence;
+    private long timestamp;
+    private Type type;
+    private String userId;
+    private String contestId;
+    private int oldScore;
+    private int newScore;
+
+    ScoreChange() {
+    }
+
+    void set(long sequence, long timestamp, Type type, String userId, String contestId, int oldScore, int newScore) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.userId = userId;
+        this.contestId = contestId;
+        this.oldScore = oldScore;
+        this.newScore = newScore;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Returns the contest of a membership change.
+     *
+     * @return the ID of the contest, or null for changes of the user itself
+     */
+    public String getContestId() {
+        return contestId;
+    }
+
+    public int getOldScore() {
+        return oldScore;
+    }
+
+    public int getNewScore() {
+        return newScore;
+    }
+}
@@ -0,0 +1,16 @@
+package com.crio.codehackcontest.events;
+
+/**
+ * The ScoreChangeConsumer interface receives the changes published on a {@link ScoreEventBus}.
+ */
+@FunctionalInterface
+public interface ScoreChangeConsumer {
+
+    /**
+     * Called for every change, in publication order, on the consumer's own thread.
+     *
+     * @param change     the change, valid only for the duration of the call
+     * @param endOfBatch true for the last change currently available, a good moment to flush buffered work
+     */
+    void onChange(ScoreChange change, boolean endOfBatch);
+}
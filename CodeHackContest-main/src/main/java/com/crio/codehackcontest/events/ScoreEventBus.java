@@ -0,0 +1,442 @@
+package com.crio.codehackcontest.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The ScoreEventBus class hands score and membership changes to consumers on their own threads.
+ *
+ * <p>Changes are written into a ring buffer of preallocated {@link ScoreChange} slots, so publishing
+ * allocates nothing. Publishers take turns under a lock, which makes the publishing thread the single
+ * writer of the slots and of the cursor, the sequence of the last published change. Writing the
+ * cursor publishes the slot; consumers never take the lock.</p>
+ *
+ * <p>Every registered consumer runs on a dedicated thread with its own sequence. It delivers all the
+ * changes published since its last run as one batch, up to {@value #MAX_BATCH} at a time, and parks
+ * when it has caught up. A slot is reused only after every consumer has moved past it: when the
+ * slowest consumer is a full buffer behind, publishers wait for it, without holding the lock. Changes
+ * are published after the write they describe has been committed, so a publisher never fails: after
+ * waiting {@code publishWaitMs} it drops the change and counts it. Those waits and drops, the lag of
+ * every consumer and the batch sizes are published as metrics.</p>
+ *
+ * <p>A consumer registered as durable must see every change. All consumers share the buffer, so while
+ * one is registered publishers wait for a free slot as long as it takes and drop nothing.</p>
+ */
+@Component
+public class ScoreEventBus {
+    private static final Logger log = LoggerFactory.getLogger(ScoreEventBus.class);
+    // The most changes a consumer delivers before it publishes its progress
+    private static final int MAX_BATCH = 1024;
+    // How long a publisher parks between checks while the buffer is full
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    // How long a publisher waits for a free slot by default before dropping the change
+    static final long DEFAULT_PUBLISH_WAIT_MS = 50;
+
+    private final ScoreChange[] slots;
+    private final int mask;
+    private final long publishWaitNanos;
+    private final MeterRegistry meterRegistry;
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private final Counter published;
+    private final Counter stalls;
+    private final Counter dropped;
+    private final Timer stallTime;
+    private volatile long cursor = -1;
+    // Whether a durable consumer is registered, which makes publishers wait instead of dropping
+    private volatile boolean durable;
+    // The timestamp of the last published change; written under the publish lock
+    private long lastTimestamp;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a ScoreEventBus from the configured properties.
+     *
+     * @param enabled       whether changes are published at all
+     * @param bufferSize    the number of slots, rounded up to a power of two
+     * @param publishWaitMs how long a publisher waits for a free slot before dropping the change, in milliseconds
+     * @param meterRegistry the registry the pipeline metrics are published to
+     */
+    @Autowired
+    public ScoreEventBus(@Value("${codehack.events.enabled:true}") boolean enabled,
+                         @Value("${codehack.events.buffer-size:65536}") int bufferSize,
+                         @Value("${codehack.events.publish-wait-ms:50}") long publishWaitMs,
+                         MeterRegistry meterRegistry) {
+        this(enabled ? bufferSize : 0, publishWaitMs, meterRegistry);
+    }
+
+    public ScoreEventBus(int bufferSize, MeterRegistry meterRegistry) {
+        this(bufferSize, DEFAULT_PUBLISH_WAIT_MS, meterRegistry);
+    }
+
+    /**
+     * Constructs a ScoreEventBus.
+     *
+     * @param bufferSize    the number of slots, rounded up to a power of two, or 0 to publish nothing
+     * @param publishWaitMs how long a publisher waits for a free slot before dropping the change, in milliseconds
+     * @param meterRegistry the registry the pipeline metrics are published to; unused when nothing is published
+     */
+    public ScoreEventBus(int bufferSize, long publishWaitMs, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.publishWaitNanos = TimeUnit.MILLISECONDS.toNanos(publishWaitMs);
+        if (bufferSize <= 0) {
+            this.slots = null;
+            this.mask = 0;
+            this.published = null;
+            this.stalls = null;
+            this.dropped = null;
+            this.stallTime = null;
+            return;
+        }
+        int capacity = bufferSize == 1 ? 1 : Integer.highestOneBit(bufferSize - 1) << 1;
+        this.slots = new ScoreChange[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ScoreChange();
+        }
+        this.mask = capacity - 1;
+        this.published = Counter.builder("codehack.events.published").register(meterRegistry);
+        this.stalls = Counter.builder("codehack.events.backpressure.stalls").register(meterRegistry);
+        this.dropped = Counter.builder("codehack.events.dropped").register(meterRegistry);
+        this.stallTime = Timer.builder("codehack.events.backpressure.wait").register(meterRegistry);
+    }
+
+    /**
+     * Publishes the size and the free slots of the buffer as gauges.
+     */
+    @PostConstruct
+    public void registerGauges() {
+        if (slots == null) {
+            return;
+        }
+        Gauge.builder("codehack.events.capacity", this, ScoreEventBus::capacity).register(meterRegistry);
+        Gauge.builder("codehack.events.remaining", this, ScoreEventBus::remaining).register(meterRegistry);
+    }
+
+    /**
+     * Returns a ScoreEventBus that publishes nothing, for callers without consumers.
+     *
+     * @return a disabled bus
+     */
+    public static ScoreEventBus disabled() {
+        return new ScoreEventBus(0, null);
+    }
+
+    public boolean isEnabled() {
+        return slots != null;
+    }
+
+    public int capacity() {
+        return slots == null ? 0 : slots.length;
+    }
+
+    /**
+     * Returns the sequence of the last published change.
+     *
+     * @return the sequence, -1 before the first change
+     */
+    public long cursor() {
+        return cursor;
+    }
+
+    /**
+     * Returns the number of slots that can be published before publishers have to wait for consumers.
+     *
+     * @return the free slots
+     */
+    public long remaining() {
+        return slots == null ? 0 : slots.length - (cursor - minimumSequence(cursor));
+    }
+
+    /**
+     * Publishes a change of a user.
+     *
+     * <p>Waits up to {@code publishWaitMs} while the buffer is full, then drops the change, unless a
+     * durable consumer is registered.</p>
+     *
+     * @param type     the kind of change
+     * @param userId   the ID of the user
+     * @param oldScore the score before the change, or {@link ScoreChange#ABSENT} if the user was created
+     * @param newScore the score after the change, or {@link ScoreChange#ABSENT} if the user was deleted
+     */
+    public void publish(ScoreChange.Type type, String userId, int oldScore, int newScore) {
+        if (slots == null || closed) {
+            return;
+        }
+        Stall stall = null;
+        while (true) {
+            publishLock.lock();
+            try {
+                if (remaining() > 0) {
+                    write(cursor + 1, type, userId, null, oldScore, newScore);
+                    break;
+                }
+            } finally {
+                publishLock.unlock();
+            }
+            if (stall == null) {
+                stall = new Stall();
+            }
+            if (!stall.await()) {
+                drop(1, type);
+                return;
+            }
+        }
+        if (stall != null) {
+            stall.end();
+        }
+        wakeWorkers();
+    }
+
+    /**
+     * Publishes a membership change of several users, under a single lock acquisition while the buffer has room.
+     *
+     * <p>Waits up to {@code publishWaitMs} while the buffer is full, then drops the changes not yet
+     * published, unless a durable consumer is registered.</p>
+     *
+     * @param type      {@link ScoreChange.Type#JOINED} or {@link ScoreChange.Type#LEFT}
+     * @param contestId the ID of the contest
+     * @param userIds   the IDs of the users
+     */
+    public void publishMembership(ScoreChange.Type type, String contestId, Collection<String> userIds) {
+        if (slots == null || closed || userIds.isEmpty()) {
+            return;
+        }
+        Iterator<String> pending = userIds.iterator();
+        int written = 0;
+        Stall stall = null;
+        while (true) {
+            publishLock.lock();
+            try {
+                for (long free = remaining(); free > 0 && pending.hasNext(); free--) {
+                    write(cursor + 1, type, pending.next(), contestId, ScoreChange.ABSENT, ScoreChange.ABSENT);
+                    written++;
+                }
+            } finally {
+                publishLock.unlock();
+            }
+            if (!pending.hasNext()) {
+                break;
+            }
+            if (stall == null) {
+                stall = new Stall();
+            }
+            if (!stall.await()) {
+                drop(userIds.size() - written, type);
+                return;
+            }
+        }
+        if (stall != null) {
+            stall.end();
+        }
+        wakeWorkers();
+    }
+
+    /**
+     * Registers a consumer and starts its thread.
+     *
+     * <p>The consumer receives every change published after registration. Exceptions it throws are
+     * logged and counted, and do not stop later changes from being delivered.</p>
+     *
+     * @param name     the name of the consumer, used for its thread and metrics
+     * @param consumer the consumer
+     */
+    public void register(String name, ScoreChangeConsumer consumer) {
+        register(name, consumer, false);
+    }
+
+    /**
+     * Registers a consumer and starts its thread.
+     *
+     * <p>A durable consumer receives every change published after registration: from then on publishers
+     * wait for a free slot instead of dropping changes, for this and every other consumer.</p>
+     *
+     * @param name     the name of the consumer, used for its thread and metrics
+     * @param consumer the consumer
+     * @param durable  whether the consumer must not miss changes
+     */
+    public void register(String name, ScoreChangeConsumer consumer, boolean durable) {
+        if (slots == null) {
+            return;
+        }
+        publishLock.lock();
+        try {
+            Worker worker = new Worker(name, consumer, cursor);
+            workers.add(worker);
+            this.durable |= durable;
+            worker.thread.start();
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting changes, lets every consumer deliver what was already published and stops the consumer threads.
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        for (Worker worker : workers) {
+            worker.running = false;
+            LockSupport.unpark(worker.thread);
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method to fill the next slot, which every consumer has already moved past.
+     *
+     * <p>Called with the publish lock held, after checking that a slot is free. Timestamps are taken
+     * here, so they never decrease along the sequence.</p>
+     *
+     * @param sequence  the sequence of the change, one more than the cursor
+     * @param type      the kind of change
+     * @param userId    the ID of the user
+     * @param contestId the ID of the contest of a membership change, otherwise null
+     * @param oldScore  the score before the change
+     * @param newScore  the score after the change
+     */
+    private void write(long sequence, ScoreChange.Type type, String userId, String contestId, int oldScore, int newScore) {
+        lastTimestamp = Math.max(lastTimestamp, System.currentTimeMillis());
+        slots[(int) sequence & mask].set(sequence, lastTimestamp, type, userId, contestId, oldScore, newScore);
+        cursor = sequence;
+        published.increment();
+    }
+
+    private void drop(int count, ScoreChange.Type type) {
+        dropped.increment(count);
+        log.warn("Dropped {} {} change(s): the slowest consumer did not free a slot within {} ms",
+                count, type, TimeUnit.NANOSECONDS.toMillis(publishWaitNanos));
+    }
+
+    private long minimumSequence(long fallback) {
+        long minimum = fallback;
+        for (Worker worker : workers) {
+            minimum = Math.min(minimum, worker.sequence);
+        }
+        return minimum;
+    }
+
+    private void wakeWorkers() {
+        for (Worker worker : workers) {
+            if (worker.sleeping) {
+                LockSupport.unpark(worker.thread);
+            }
+        }
+    }
+
+    /**
+     * The Stall class times one publisher's wait for a free slot, which happens without the publish lock.
+     */
+    private final class Stall {
+        private final long start = System.nanoTime();
+
+        Stall() {
+            stalls.increment();
+        }
+
+        /**
+         * Waits briefly for the consumers to move on.
+         *
+         * @return true to check for a free slot again, false once the publisher has waited long enough
+         *         or the bus has been closed
+         */
+        boolean await() {
+            // Without a durable consumer the wait is bounded; once the bus is closed the consumers are gone
+            if (closed || !durable && System.nanoTime() - start >= publishWaitNanos) {
+                end();
+                return false;
+            }
+            wakeWorkers();
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+            return true;
+        }
+
+        void end() {
+            stallTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The Worker class delivers the changes to one consumer on a dedicated thread.
+     */
+    private final class Worker implements Runnable {
+        private final String name;
+        private final ScoreChangeConsumer consumer;
+        private final Thread thread;
+        private final DistributionSummary batchSizes;
+        private final Counter errors;
+        // The sequence of the last change delivered to the consumer
+        private volatile long sequence;
+        private volatile boolean sleeping;
+        private volatile boolean running = true;
+
+        Worker(String name, ScoreChangeConsumer consumer, long sequence) {
+            this.name = name;
+            this.consumer = consumer;
+            this.sequence = sequence;
+            this.batchSizes = DistributionSummary.builder("codehack.events.batch.size").tag("consumer", name).register(meterRegistry);
+            this.errors = Counter.builder("codehack.events.errors").tag("consumer", name).register(meterRegistry);
+            Gauge.builder("codehack.events.lag", this, worker -> cursor - worker.sequence).tag("consumer", name).register(meterRegistry);
+            this.thread = new Thread(this, "score-events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long next = sequence + 1;
+            while (true) {
+                long available = cursor;
+                if (available < next) {
+                    if (!running) {
+                        return;
+                    }
+                    // Announce the park before checking again, so a publisher either sees the flag or we see its change
+                    sleeping = true;
+                    if (cursor < next && running) {
+                        LockSupport.park(this);
+                    }
+                    sleeping = false;
+                    continue;
+                }
+                long end = Math.min(available, next + MAX_BATCH - 1);
+                for (long s = next; s <= end; s++) {
+                    ScoreChange change = slots[(int) s & mask];
+                    try {
+                        consumer.onChange(change, s == end);
+                    } catch (RuntimeException e) {
+                        errors.increment();
+                        log.warn("Score event consumer {} failed on change {}: {}", name, s, e.getMessage());
+                    }
+                }
+                batchSizes.record(end - next + 1);
+                sequence = end;
+                next = end + 1;
+            }
+        }
+    }
+}
@@ -41,13 +41,13 @@ public class GlobalExceptionHandler {
      * Handles ResponseStatusException.
      *
      * @param ex the ResponseStatusException object
-     * @return a ResponseEntity with an error message map and the corresponding HTTP status
+     * @return a ResponseEntity with an error message map, the corresponding HTTP status and any headers of the exception
      */
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<Map<String, String>> handleResponseStatusExceptions(ResponseStatusException ex) {
         Map<String, String> error = new HashMap<>();
         error.put("error", ex.getReason());
-        return ResponseEntity.status(ex.getStatusCode()).body(error);
+        return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(error);
     }
 
     /**
@@ -0,0 +1,109 @@
+package com.crio.codehackcontest.exchange;
+
+import com.crio.codehackcontest.utils.MongoRequestStats;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The StreamingGenericResponse class writes a {@link GenericResponse} whose list is produced by a stream.
+ *
+ * <p>The envelope is written field by field and every element is serialized as soon as the stream
+ * yields it, so the response has the same JSON shape as {@code GenericResponse<List<T>>} while only
+ * the current element, the generator buffer and the cursor batch behind the stream are held in
+ * memory. The stream is closed once the response is written or the client goes away.</p>
+ *
+ * <p>The response is written on an async thread, so the {@link MongoRequestStats} of the request that
+ * created it are bound there while the stream is consumed, and the cursor reads are charged to it.</p>
+ *
+ * <pre>{@code
+ * {"data":[...],"msg":null}                               // list(...)
+ * {"data":{"id":...,"name":...,"user":[...]},"msg":null}  // object(...)
+ * }</pre>
+ */
+public class StreamingGenericResponse implements StreamingResponseBody {
+    private final ObjectWriter writer;
+    private final Map<String, ?> dataFields;
+    private final String listField;
+    private final Stream<?> items;
+    private final MongoRequestStats stats;
+
+    private StreamingGenericResponse(ObjectWriter writer, Map<String, ?> dataFields, String listField, Stream<?> items) {
+        // Flushing after every element would turn each one into its own write to the client
+        this.writer = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.dataFields = dataFields;
+        this.listField = listField;
+        this.items = items;
+        this.stats = MongoRequestStats.current();
+    }
+
+    /**
+     * Creates a response whose data is the streamed list.
+     *
+     * @param writer the writer used for every element
+     * @param items  the elements of the list
+     * @return the streaming response body
+     */
+    public static StreamingGenericResponse list(ObjectWriter writer, Stream<?> items) {
+        return new StreamingGenericResponse(writer, null, null, items);
+    }
+
+    /**
+     * Creates a response whose data is an object holding the given fields followed by the streamed list.
+     *
+     * @param writer     the writer used for every field and element
+     * @param dataFields the fields written before the list, in order
+     * @param listField  the name of the list field
+     * @param items      the elements of the list
+     * @return the streaming response body
+     */
+    public static StreamingGenericResponse object(ObjectWriter writer, Map<String, ?> dataFields, String listField, Stream<?> items) {
+        return new StreamingGenericResponse(writer, new LinkedHashMap<>(dataFields), listField, items);
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        MongoRequestStats previous = MongoRequestStats.bind(stats);
+        try {
+            write(outputStream);
+        } finally {
+            MongoRequestStats.bind(previous);
+        }
+    }
+
+    private void write(OutputStream outputStream) throws IOException {
+        try (Stream<?> stream = items;
+             JsonGenerator generator = writer.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName("data");
+            if (dataFields != null) {
+                generator.writeStartObject();
+                for (Map.Entry<String, ?> field : dataFields.entrySet()) {
+                    generator.writeFieldName(field.getKey());
+                    writer.writeValue(generator, field.getValue());
+                }
+                generator.writeFieldName(listField);
+            }
+            generator.writeStartArray();
+            Iterator<?> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+            }
+            generator.writeEndArray();
+            if (dataFields != null) {
+                generator.writeEndObject();
+            }
+            generator.writeNullField("msg");
+            generator.writeEndObject();
+        }
+    }
+}
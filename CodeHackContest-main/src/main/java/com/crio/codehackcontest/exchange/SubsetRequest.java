@@ -0,0 +1,30 @@
+package com.crio.codehackcontest.exchange;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * The SubsetRequest class represents a request to rank a group of users within a contest.
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *   <li>{@code List<String> userIds} - The IDs of the members of the group, such as a team or friends.</li>
+ * </ul>
+ *
+ * <p><b>Usage:</b></p>
+ *
+ * <pre>{@code
+ * SubsetRequest subsetRequest = new SubsetRequest(List.of("alice", "bob"));
+ * }</pre>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubsetRequest {
+    private List<String> userIds = new ArrayList<>();
+}
@@ -0,0 +1,131 @@
+package com.crio.codehackcontest.exchange;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The UserFields class is the sparse fieldset requested through the {@code fields} query parameter.
+ *
+ * <p>It is used twice: as a MongoDB projection, so unrequested user fields are neither read nor
+ * allocated, and as a Jackson serialization view, so they are not written to the response.</p>
+ */
+public final class UserFields {
+    /**
+     * The ID of the Jackson filter applied to {@link com.crio.codehackcontest.entity.User}.
+     */
+    public static final String FILTER = "userFields";
+    /**
+     * The user fields that can be requested, in response order.
+     */
+    public static final List<String> NAMES = List.of("userid", "username", "score", "badges");
+    /**
+     * The fieldset containing every user field.
+     */
+    public static final UserFields ALL = new UserFields(new LinkedHashSet<>(NAMES));
+
+    private final Set<String> names;
+
+    private UserFields(Set<String> names) {
+        this.names = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Parses the value of the {@code fields} query parameter.
+     *
+     * @param fields comma separated field names, or null or blank for all fields
+     * @return the requested fieldset
+     * @throws ResponseStatusException with status 400 if a field name is unknown
+     */
+    public static UserFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!NAMES.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + name);
+            }
+            names.add(name);
+        }
+        return names.size() == NAMES.size() ? ALL : new UserFields(names);
+    }
+
+    public boolean isAll() {
+        return names.size() == NAMES.size();
+    }
+
+    public boolean includes(String name) {
+        return names.contains(name);
+    }
+
+    /**
+     * Returns the user properties to load from MongoDB. The score is always loaded, since it
+     * determines the order of the result; the ID is always returned by MongoDB.
+     *
+     * @return the names of the properties to project
+     */
+    public List<String> projection() {
+        List<String> projection = new ArrayList<>(names);
+        projection.remove("userid");
+        if (!projection.contains("score")) {
+            projection.add("score");
+        }
+        return projection;
+    }
+
+    /**
+     * Returns the user properties to load from MongoDB for a result in leaderboard order: the
+     * {@link #projection()} plus the time each score was reached, which may break ties.
+     *
+     * @return the names of the properties to project
+     */
+    public List<String> rankedProjection() {
+        List<String> projection = projection();
+        projection.add("lastImproved");
+        return projection;
+    }
+
+    /**
+     * Wraps a response body so only the requested user fields are serialized.
+     *
+     * @param body the response body
+     * @return the body with the matching serialization filter
+     */
+    public MappingJacksonValue view(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filters());
+        return value;
+    }
+
+    /**
+     * Creates a writer that serializes only the requested user fields.
+     *
+     * @param objectMapper the mapper carrying the application's Jackson configuration
+     * @return the writer with the matching serialization filter
+     */
+    public ObjectWriter writer(ObjectMapper objectMapper) {
+        return objectMapper.writer(filters());
+    }
+
+    private FilterProvider filters() {
+        return new SimpleFilterProvider().addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", names);
+    }
+}
@@ -0,0 +1,46 @@
+package com.crio.codehackcontest.history;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * The Resolution enum lists the granularities at which {@link ScoreHistory} keeps the score of every user.
+ */
+public enum Resolution {
+    RAW("raw", 1),
+    SECOND("1s", 1000),
+    MINUTE("1m", 60_000),
+    HOUR("1h", 3_600_000);
+
+    private final String label;
+    private final long millis;
+
+    Resolution(String label, long millis) {
+        this.label = label;
+        this.millis = millis;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * Parses the {@code resolution} request parameter.
+     *
+     * @param value one of {@code raw}, {@code 1s}, {@code 1m} or {@code 1h}
+     * @return the matching resolution
+     * @throws ResponseStatusException with status 400 if the value is unknown
+     */
+    public static Resolution parse(String value) {
+        for (Resolution resolution : values()) {
+            if (resolution.label.equalsIgnoreCase(value)) {
+                return resolution;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown resolution: " + value);
+    }
+}
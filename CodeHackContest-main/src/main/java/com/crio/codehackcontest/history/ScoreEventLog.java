@@ -0,0 +1,731 @@
+package com.crio.codehackcontest.history;
+
+import com.crio.codehackcontest.utils.StringIntHashMap;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The ScoreEventLog class records every score change in a memory-mapped, append-only log.
+ *
+ * <p>An event is 16 bytes: the timestamp in epoch milliseconds, the user's ordinal, the old score and
+ * the new score. User IDs are mapped to ordinals once, in the {@code users.dict} file. Events are
+ * written into fixed-size segment files mapped into memory, with the timestamp written last, so an
+ * event whose timestamp is still zero was never completed. Timestamps never decrease.</p>
+ *
+ * <p>Every {@code checkpointInterval} events the scores of all users, and the time each score was
+ * reached, are written to a checkpoint file. {@link #standingsAsOf(long, List)} binary-searches the
+ * event at the requested time, copies the nearest earlier checkpoint into a {@code short[]} and a
+ * {@code long[]} and replays the events after it straight from the mapped segments, without creating
+ * an object per event.</p>
+ *
+ * <p>Contest membership changes are rare and are kept apart from the score events, in the
+ * {@code members.log} file and in memory, so {@link #membersAsOf(String, long)} can tell who took part in a
+ * contest at any point in time, including users that have left it or have been deleted since. Both kinds of
+ * change share one clock, so they are ordered the same way as the writes that caused them.</p>
+ *
+ * <p>Writes reach the page cache immediately and survive a crash of the application; they are
+ * forced to disk when a segment fills up and on shutdown.</p>
+ */
+@Component
+public class ScoreEventLog {
+    private static final Logger log = LoggerFactory.getLogger(ScoreEventLog.class);
+    private static final Pattern DATA_FILE = Pattern.compile("(segment|checkpoint)-(\\d+)\\.(log|bin)");
+
+    /**
+     * The score reported for a user that did not exist at the requested time.
+     */
+    public static final int ABSENT = -1;
+
+    /**
+     * The score reported for a user whose score was never changed while the log was recording.
+     */
+    public static final int NO_HISTORY = -2;
+
+    static final int EVENT_BYTES = 16;
+    private static final int USER_OFFSET = 8;
+    private static final int OLD_SCORE_OFFSET = 12;
+    private static final int NEW_SCORE_OFFSET = 14;
+
+    private final Path dir;
+    private final int checkpointInterval;
+    private final LongSupplier clock;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentSkipListMap<Long, Path> checkpoints = new ConcurrentSkipListMap<>();
+
+    private int segmentEvents;
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private volatile long eventCount;
+    private long lastTimestamp;
+
+    private final StringIntHashMap ordinals = new StringIntHashMap();
+    private String[] userIds = new String[16];
+    private short[] firstOldScores = new short[16];
+    private short[] currentScores = new short[16];
+    // The time each current score was reached, as kept in User#lastImproved; 0 if it predates the log
+    private long[] currentImproved = new long[16];
+    private int userCount;
+    private FileChannel dictionary;
+    private final Map<String, List<MembershipChange>> memberships = new HashMap<>();
+    private FileChannel membershipFile;
+
+    /**
+     * Constructs a ScoreEventLog from the configured properties.
+     *
+     * @param enabled            whether score changes are recorded at all
+     * @param dir                the directory holding the segments, checkpoints and user dictionary; it must be
+     *                           an absolute path, since every node of a deployment keeps its own log
+     * @param segmentEvents      the number of events per segment file, used when the log is created
+     * @param checkpointInterval the number of events between two checkpoints
+     */
+    @Autowired
+    public ScoreEventLog(@Value("${codehack.score-log.enabled:false}") boolean enabled,
+                         @Value("${codehack.score-log.dir:}") String dir,
+                         @Value("${codehack.score-log.segment-events:1048576}") int segmentEvents,
+                         @Value("${codehack.score-log.checkpoint-interval:262144}") int checkpointInterval) {
+        this(enabled ? requireAbsolute(dir) : null, segmentEvents, checkpointInterval, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs a ScoreEventLog and recovers the events found in its directory.
+     *
+     * @param dir                the directory holding the log, or null to record nothing
+     * @param segmentEvents      the number of events per segment file, used when the log is created
+     * @param checkpointInterval the number of events between two checkpoints
+     * @param clock              the source of event timestamps, in epoch milliseconds
+     */
+    public ScoreEventLog(Path dir, int segmentEvents, int checkpointInterval, LongSupplier clock) {
+        this.dir = dir;
+        this.segmentEvents = segmentEvents;
+        this.checkpointInterval = checkpointInterval;
+        this.clock = clock;
+        if (dir != null) {
+            try {
+                recover();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Opening the score event log in " + dir + " failed", e);
+            }
+        }
+    }
+
+    /**
+     * Returns a ScoreEventLog that records nothing.
+     *
+     * @return a disabled log
+     */
+    public static ScoreEventLog disabled() {
+        return new ScoreEventLog(null, 1, 1, System::currentTimeMillis);
+    }
+
+    /**
+     * Helper method to check that the configured log directory is an absolute path.
+     *
+     * @param dir the configured directory
+     * @return the directory
+     */
+    private static Path requireAbsolute(String dir) {
+        if (dir == null || dir.isBlank() || !Path.of(dir).isAbsolute()) {
+            throw new IllegalStateException("codehack.score-log.dir must be an absolute path when the score log is enabled, but is '" + dir + "'");
+        }
+        return Path.of(dir);
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    public long eventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Appends a score change.
+     *
+     * @param userId   the ID of the user
+     * @param oldScore the score before the change, or {@link ScoreEventLog#ABSENT} if the user was created
+     * @param newScore the score after the change, or {@link ScoreEventLog#ABSENT} if the user was deleted
+     */
+    public void record(String userId, int oldScore, int newScore) {
+        if (dir == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinals.get(userId);
+            if (ordinal == StringIntHashMap.NO_VALUE) {
+                ordinal = addUser(userId, oldScore);
+            }
+            long index = eventCount;
+            int segment = (int) (index / segmentEvents);
+            if (segment == segments.length) {
+                if (segment > 0) {
+                    segments[segment - 1].force();
+                }
+                mapSegment(segment);
+            }
+            MappedByteBuffer buffer = segments[segment];
+            int base = (int) (index % segmentEvents) * EVENT_BYTES;
+            lastTimestamp = Math.max(lastTimestamp, clock.getAsLong());
+            buffer.putInt(base + USER_OFFSET, ordinal);
+            buffer.putShort(base + OLD_SCORE_OFFSET, (short) oldScore);
+            buffer.putShort(base + NEW_SCORE_OFFSET, (short) newScore);
+            buffer.putLong(base, lastTimestamp);
+            currentScores[ordinal] = (short) newScore;
+            if (improves(oldScore, newScore)) {
+                currentImproved[ordinal] = lastTimestamp;
+            }
+            eventCount = index + 1;
+            if (eventCount % checkpointInterval == 0) {
+                writeCheckpoint(eventCount);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing the score event log failed", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the joining of users to a contest.
+     *
+     * @param contestId the ID of the contest
+     * @param usernames the name of every user that joined, by user ID
+     */
+    public void recordJoined(String contestId, Map<String, String> usernames) {
+        recordMembership(contestId, usernames, true);
+    }
+
+    /**
+     * Appends the leaving of users from a contest.
+     *
+     * @param contestId the ID of the contest
+     * @param userIds   the IDs of the users that left
+     */
+    public void recordLeft(String contestId, Collection<String> userIds) {
+        Map<String, String> usernames = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            usernames.put(userId, "");
+        }
+        recordMembership(contestId, usernames, false);
+    }
+
+    /**
+     * Returns the participants of a contest at a point in time.
+     *
+     * @param contestId the ID of the contest
+     * @param timestamp the point in time, in epoch milliseconds; changes at exactly this time are included
+     * @return the participants at that time, and the users the log has any membership change for
+     */
+    public Members membersAsOf(String contestId, long timestamp) {
+        Map<String, String> members = new LinkedHashMap<>();
+        Set<String> tracked = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (MembershipChange change : memberships.getOrDefault(contestId, List.of())) {
+                tracked.add(change.userId());
+                if (change.timestamp() > timestamp) {
+                    continue;
+                }
+                if (change.joined()) {
+                    members.put(change.userId(), change.username());
+                } else {
+                    members.remove(change.userId());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Members(members, tracked);
+    }
+
+    /**
+     * Replays every event already in the log, in order.
+     *
+     * <p>Events appended later are not delivered; live changes are published on the
+     * {@link com.crio.codehackcontest.events.ScoreEventBus}. Exceptions the listener throws are logged
+     * and do not stop the replay.</p>
+     *
+     * @param listener the listener
+     */
+    public void replay(Listener listener) {
+        if (dir == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            MappedByteBuffer[] mapped = segments;
+            for (long index = 0; index < eventCount; index++) {
+                MappedByteBuffer buffer = mapped[(int) (index / segmentEvents)];
+                int base = (int) (index % segmentEvents) * EVENT_BYTES;
+                int ordinal = buffer.getInt(base + USER_OFFSET);
+                if (ordinal < userCount) {
+                    notify(listener, buffer.getLong(base), userIds[ordinal],
+                            buffer.getShort(base + OLD_SCORE_OFFSET), buffer.getShort(base + NEW_SCORE_OFFSET));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstructs the scores of some users at a point in time.
+     *
+     * @param timestamp the point in time, in epoch milliseconds; events at exactly this time are included
+     * @param userIds   the IDs of the users
+     * @return the score of each user at that time, {@link #ABSENT} if the user did not exist yet or had been
+     *         deleted, or {@link #NO_HISTORY} if the log has no event for the user at all
+     */
+    public int[] scoresAsOf(long timestamp, List<String> userIds) {
+        return standingsAsOf(timestamp, userIds).scores();
+    }
+
+    /**
+     * Reconstructs the scores of some users at a point in time, with the time each score was reached.
+     *
+     * @param timestamp the point in time, in epoch milliseconds; events at exactly this time are included
+     * @param userIds   the IDs of the users
+     * @return the scores as returned by {@link #scoresAsOf(long, List)}, and the time each score was reached
+     */
+    public Standings standingsAsOf(long timestamp, List<String> userIds) {
+        int[] result = new int[userIds.size()];
+        long[] improved = new long[userIds.size()];
+        int[] userOrdinals = new int[userIds.size()];
+        short[] firstOld;
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < userIds.size(); i++) {
+                userOrdinals[i] = dir == null ? StringIntHashMap.NO_VALUE : ordinals.get(userIds.get(i));
+            }
+            firstOld = Arrays.copyOf(firstOldScores, userCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // The event count is read before the segments, so every counted event lies in a mapped segment
+        long count = eventCount;
+        MappedByteBuffer[] mapped = segments;
+        State state = replay(firstEventAfter(timestamp, count, mapped), firstOld.length, mapped);
+        for (int i = 0; i < result.length; i++) {
+            int ordinal = userOrdinals[i];
+            if (ordinal == StringIntHashMap.NO_VALUE) {
+                result[i] = NO_HISTORY;
+            } else {
+                // A user whose first event comes later still had the score that event started from
+                result[i] = state.scores()[ordinal] == NO_HISTORY ? firstOld[ordinal] : state.scores()[ordinal];
+                improved[i] = state.improved()[ordinal];
+            }
+        }
+        return new Standings(result, improved);
+    }
+
+    /**
+     * Forces the mapped segments to disk and closes the user dictionary.
+     */
+    @PreDestroy
+    public void close() {
+        if (dir == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            dictionary.close();
+            membershipFile.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Helper method to find the index of the first event recorded after a point in time.
+     *
+     * @param timestamp the point in time, in epoch milliseconds
+     * @param count     the number of events to search
+     * @param mapped    the segments holding those events
+     * @return the number of events recorded at or before that time
+     */
+    private long firstEventAfter(long timestamp, long count, MappedByteBuffer[] mapped) {
+        long low = 0;
+        long high = count;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            long eventTime = mapped[(int) (mid / segmentEvents)].getLong((int) (mid % segmentEvents) * EVENT_BYTES);
+            if (eventTime <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method to compute the score of every user after a number of events.
+     *
+     * @param end    the number of events to apply
+     * @param users  the number of users to track
+     * @param mapped the segments holding those events
+     * @return the score of each user by ordinal, {@link #NO_HISTORY} for users without an event yet,
+     *         and the time each score was reached, 0 if no event set it
+     */
+    private State replay(long end, int users, MappedByteBuffer[] mapped) {
+        short[] state = new short[users];
+        long[] improved = new long[users];
+        Arrays.fill(state, (short) NO_HISTORY);
+        long start = 0;
+        Map.Entry<Long, Path> checkpoint = checkpoints.floorEntry(end);
+        while (checkpoint != null && !readCheckpoint(checkpoint.getValue(), state, improved)) {
+            Arrays.fill(state, (short) NO_HISTORY);
+            Arrays.fill(improved, 0);
+            checkpoint = checkpoints.lowerEntry(checkpoint.getKey());
+        }
+        if (checkpoint != null) {
+            start = checkpoint.getKey();
+        }
+
+        for (long index = start; index < end; ) {
+            int segment = (int) (index / segmentEvents);
+            MappedByteBuffer buffer = mapped[segment];
+            int last = (int) Math.min(end - (long) segment * segmentEvents, segmentEvents);
+            for (int slot = (int) (index % segmentEvents); slot < last; slot++) {
+                int base = slot * EVENT_BYTES;
+                int ordinal = buffer.getInt(base + USER_OFFSET);
+                if (ordinal < users) {
+                    short newScore = buffer.getShort(base + NEW_SCORE_OFFSET);
+                    state[ordinal] = newScore;
+                    if (improves(buffer.getShort(base + OLD_SCORE_OFFSET), newScore)) {
+                        improved[ordinal] = buffer.getLong(base);
+                    }
+                }
+            }
+            index = (long) segment * segmentEvents + last;
+        }
+        return new State(state, improved);
+    }
+
+    /**
+     * Helper method to load the scores and times of a checkpoint.
+     *
+     * @param file     the checkpoint file
+     * @param state    receives the score of each user by ordinal
+     * @param improved receives the time each score was reached
+     * @return false if the checkpoint is unreadable or predates the times being kept, so an earlier one must be used
+     */
+    private static boolean readCheckpoint(Path file, short[] state, long[] improved) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int stored = data.getInt();
+            if (data.remaining() < stored * (Short.BYTES + Long.BYTES)) {
+                return false;
+            }
+            int count = Math.min(stored, state.length);
+            data.asShortBuffer().get(state, 0, count);
+            data.position(data.position() + stored * Short.BYTES);
+            data.asLongBuffer().get(improved, 0, count);
+            return true;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable checkpoint {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Helper method to check whether an event sets the time a score was reached, the way a score update
+     * sets {@code User#lastImproved}: a changed score of an existing user.
+     *
+     * @param oldScore the score before the event
+     * @param newScore the score after the event
+     * @return true if the event changed the score of an existing user
+     */
+    private static boolean improves(int oldScore, int newScore) {
+        return oldScore != newScore && oldScore != ABSENT && newScore != ABSENT;
+    }
+
+    private static void notify(Listener listener, long timestamp, String userId, int oldScore, int newScore) {
+        try {
+            listener.onScoreChange(timestamp, userId, oldScore, newScore);
+        } catch (RuntimeException e) {
+            log.warn("Score event listener failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method to append membership changes of several users with a single write.
+     *
+     * @param contestId the ID of the contest
+     * @param usernames the name of every user, by user ID
+     * @param joined    whether the users joined or left the contest
+     */
+    private void recordMembership(String contestId, Map<String, String> usernames, boolean joined) {
+        if (dir == null || usernames.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            lastTimestamp = Math.max(lastTimestamp, clock.getAsLong());
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            List<MembershipChange> changes = new ArrayList<>(usernames.size());
+            for (Map.Entry<String, String> user : usernames.entrySet()) {
+                MembershipChange change = new MembershipChange(lastTimestamp, contestId, user.getKey(), user.getValue(), joined);
+                change.writeTo(out);
+                changes.add(change);
+            }
+            ByteBuffer entries = ByteBuffer.wrap(bytes.toByteArray());
+            while (entries.hasRemaining()) {
+                membershipFile.write(entries);
+            }
+            memberships.computeIfAbsent(contestId, key -> new ArrayList<>()).addAll(changes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Writing the contest membership log failed", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int addUser(String userId, int firstOldScore) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(userId);
+        out.writeShort(firstOldScore);
+        ByteBuffer entry = ByteBuffer.wrap(bytes.toByteArray());
+        while (entry.hasRemaining()) {
+            dictionary.write(entry);
+        }
+        return putUser(userId, (short) firstOldScore);
+    }
+
+    private int putUser(String userId, short firstOldScore) {
+        int ordinal = userCount++;
+        if (ordinal == firstOldScores.length) {
+            userIds = Arrays.copyOf(userIds, ordinal * 2);
+            firstOldScores = Arrays.copyOf(firstOldScores, ordinal * 2);
+            currentScores = Arrays.copyOf(currentScores, ordinal * 2);
+            currentImproved = Arrays.copyOf(currentImproved, ordinal * 2);
+        }
+        ordinals.put(userId, ordinal);
+        userIds[ordinal] = userId;
+        firstOldScores[ordinal] = firstOldScore;
+        currentScores[ordinal] = firstOldScore;
+        return ordinal;
+    }
+
+    private void writeCheckpoint(long index) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(Integer.BYTES + userCount * (Short.BYTES + Long.BYTES));
+        data.putInt(userCount);
+        data.asShortBuffer().put(currentScores, 0, userCount);
+        data.position(data.position() + userCount * Short.BYTES);
+        data.asLongBuffer().put(currentImproved, 0, userCount);
+        data.rewind();
+        Path tmp = dir.resolve(String.format("checkpoint-%016d.tmp", index));
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        }
+        Path file = dir.resolve(String.format("checkpoint-%016d.bin", index));
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        checkpoints.put(index, file);
+    }
+
+    private void mapSegment(int segment) throws IOException {
+        Path file = dir.resolve(String.format("segment-%016d.log", segment));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer[] grown = Arrays.copyOf(segments, segment + 1);
+            grown[segment] = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentEvents * EVENT_BYTES);
+            segments = grown;
+        }
+    }
+
+    // ---- Recovery ----
+
+    private void recover() throws IOException {
+        Files.createDirectories(dir);
+        Path dictionaryFile = dir.resolve("users.dict");
+        byte[] entries = Files.exists(dictionaryFile) ? Files.readAllBytes(dictionaryFile) : new byte[0];
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(entries));
+        int valid = 0;
+        try {
+            while (in.available() > 0) {
+                putUser(in.readUTF(), in.readShort());
+                valid = entries.length - in.available();
+            }
+        } catch (EOFException e) {
+            log.warn("Discarding a torn entry at the end of {}", dictionaryFile);
+        }
+        dictionary = FileChannel.open(dictionaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        dictionary.truncate(valid);
+        dictionary.position(valid);
+
+        Path membershipPath = dir.resolve("members.log");
+        entries = Files.exists(membershipPath) ? Files.readAllBytes(membershipPath) : new byte[0];
+        in = new DataInputStream(new ByteArrayInputStream(entries));
+        valid = 0;
+        try {
+            while (in.available() > 0) {
+                MembershipChange change = MembershipChange.readFrom(in);
+                memberships.computeIfAbsent(change.contestId(), key -> new ArrayList<>()).add(change);
+                lastTimestamp = Math.max(lastTimestamp, change.timestamp());
+                valid = entries.length - in.available();
+            }
+        } catch (EOFException e) {
+            log.warn("Discarding a torn entry at the end of {}", membershipPath);
+        }
+        membershipFile = FileChannel.open(membershipPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        membershipFile.truncate(valid);
+        membershipFile.position(valid);
+
+        DataFiles files = listDataFiles();
+        if (!files.segments.isEmpty()) {
+            segmentEvents = (int) (Files.size(files.segments.firstEntry().getValue()) / EVENT_BYTES);
+            for (int segment = 0; segment < files.segments.size(); segment++) {
+                mapSegment(segment);
+            }
+            // Only the last segment can be partly filled; find its first incomplete event
+            MappedByteBuffer tail = segments[segments.length - 1];
+            int low = 0;
+            int high = segmentEvents;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (tail.getLong(mid * EVENT_BYTES) != 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            eventCount = (long) (segments.length - 1) * segmentEvents + low;
+            if (eventCount > 0) {
+                long last = eventCount - 1;
+                lastTimestamp = Math.max(lastTimestamp, segments[(int) (last / segmentEvents)].getLong((int) (last % segmentEvents) * EVENT_BYTES));
+            }
+        }
+        files.checkpoints.forEach((index, file) -> {
+            if (index <= eventCount) {
+                checkpoints.put(index, file);
+            }
+        });
+
+        State state = replay(eventCount, userCount, segments);
+        for (int ordinal = 0; ordinal < userCount; ordinal++) {
+            currentScores[ordinal] = state.scores()[ordinal] == NO_HISTORY ? firstOldScores[ordinal] : state.scores()[ordinal];
+            currentImproved[ordinal] = state.improved()[ordinal];
+        }
+        log.info("Score event log opened in {}: {} events, {} users, {} checkpoints", dir, eventCount, userCount, checkpoints.size());
+    }
+
+    /**
+     * The Listener interface receives the score changes replayed from a {@link ScoreEventLog}.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called for every score change.
+         *
+         * @param timestamp the time of the change, in epoch milliseconds
+         * @param userId    the ID of the user
+         * @param oldScore  the score before the change, or {@link ScoreEventLog#ABSENT} if the user was created
+         * @param newScore  the score after the change, or {@link ScoreEventLog#ABSENT} if the user was deleted
+         */
+        void onScoreChange(long timestamp, String userId, int oldScore, int newScore);
+    }
+
+    /**
+     * The participants of a contest at a point in time.
+     *
+     * @param members the name of every participant at that time, by user ID
+     * @param tracked the IDs of all users with a membership change in the log; the membership of other
+     *                users predates the log and is not known
+     */
+    public record Members(Map<String, String> members, Set<String> tracked) {
+    }
+
+    /**
+     * The scores of some users at a point in time.
+     *
+     * @param scores   the score of each user, as returned by {@link #scoresAsOf(long, List)}
+     * @param improved the time each score was reached, in epoch milliseconds; 0 if the log has no score
+     *                 change of the user up to that time
+     */
+    public record Standings(int[] scores, long[] improved) {
+    }
+
+    private record State(short[] scores, long[] improved) {
+    }
+
+    private record MembershipChange(long timestamp, String contestId, String userId, String username, boolean joined) {
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(timestamp);
+            out.writeUTF(contestId);
+            out.writeUTF(userId);
+            out.writeUTF(username == null ? "" : username);
+            out.writeBoolean(joined);
+        }
+
+        static MembershipChange readFrom(DataInputStream in) throws IOException {
+            return new MembershipChange(in.readLong(), in.readUTF(), in.readUTF(), in.readUTF(), in.readBoolean());
+        }
+    }
+
+    private record DataFiles(TreeMap<Long, Path> segments, TreeMap<Long, Path> checkpoints) {
+    }
+
+    private DataFiles listDataFiles() throws IOException {
+        DataFiles found = new DataFiles(new TreeMap<>(), new TreeMap<>());
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                Matcher matcher = DATA_FILE.matcher(name);
+                if (matcher.matches()) {
+                    (matcher.group(1).equals("segment") ? found.segments() : found.checkpoints()).put(Long.parseLong(matcher.group(2)), file);
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,131 @@
+package com.crio.codehackcontest.history;
+
+import com.crio.codehackcontest.events.ScoreChange;
+import com.crio.codehackcontest.events.ScoreEventBus;
+import com.crio.codehackcontest.model.ScorePoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ScoreHistory class keeps the score progression of every user as compact time series.
+ *
+ * <p>It is rebuilt from the {@link ScoreEventLog} on startup and then follows the score changes as a
+ * consumer of the {@link ScoreEventBus}, off the request path. The replay runs while the application
+ * starts, before any request can change a score. It is a durable consumer, so the bus makes
+ * publishers wait rather than drop a change the charts would miss. Each user has one
+ * {@link ScoreSeries} per {@link Resolution}; the rollups keep the lowest, highest and last score of
+ * every second, minute and hour. Deleting a user drops the series.</p>
+ */
+@Component
+public class ScoreHistory {
+    private final ScoreEventLog scoreEventLog;
+    private final Map<String, ScoreSeries[]> series = new ConcurrentHashMap<>();
+
+    public ScoreHistory(ScoreEventLog scoreEventLog) {
+        this(scoreEventLog, ScoreEventBus.disabled());
+    }
+
+    /**
+     * Constructs a ScoreHistory, replays the events already in the log and registers for later changes.
+     *
+     * <p>Nothing is kept while the log is disabled, since the history could not be rebuilt after a restart.</p>
+     *
+     * @param scoreEventLog the log the score changes are replayed from
+     * @param scoreEventBus the bus later score changes are consumed from
+     */
+    @Autowired
+    public ScoreHistory(ScoreEventLog scoreEventLog, ScoreEventBus scoreEventBus) {
+        this.scoreEventLog = scoreEventLog;
+        if (scoreEventLog.isEnabled()) {
+            scoreEventLog.replay(this::onScoreChange);
+            scoreEventBus.register("score-history", this::onChange, true);
+        }
+    }
+
+    /**
+     * Returns a ScoreHistory that records nothing, for callers without a score event log.
+     *
+     * @return a disabled history
+     */
+    public static ScoreHistory disabled() {
+        return new ScoreHistory(ScoreEventLog.disabled());
+    }
+
+    public boolean isEnabled() {
+        return scoreEventLog.isEnabled();
+    }
+
+    /**
+     * Returns the score progression of a user within a time range.
+     *
+     * @param userId     the ID of the user
+     * @param resolution the resolution of the points
+     * @param from       the start of the range, in epoch milliseconds, inclusive
+     * @param to         the end of the range, in epoch milliseconds, inclusive
+     * @return the points in time order, empty if the user has no recorded score changes
+     */
+    public List<ScorePoint> range(String userId, Resolution resolution, long from, long to) {
+        ScoreSeries[] userSeries = series.get(userId);
+        if (userSeries == null) {
+            return List.of();
+        }
+        synchronized (userSeries) {
+            return userSeries[resolution.ordinal()].range(from, to);
+        }
+    }
+
+    /**
+     * Returns the number of bytes the sealed chunks of a user occupy, across all resolutions.
+     *
+     * @param userId the ID of the user
+     * @return the encoded size, 0 if the user has no recorded score changes
+     */
+    public int encodedBytes(String userId) {
+        ScoreSeries[] userSeries = series.get(userId);
+        if (userSeries == null) {
+            return 0;
+        }
+        synchronized (userSeries) {
+            int bytes = 0;
+            for (ScoreSeries resolutionSeries : userSeries) {
+                bytes += resolutionSeries.encodedBytes();
+            }
+            return bytes;
+        }
+    }
+
+    private void onChange(ScoreChange change, boolean endOfBatch) {
+        switch (change.getType()) {
+            case CREATED, SCORED, DELETED -> onScoreChange(change.getTimestamp(), change.getUserId(), change.getOldScore(), change.getNewScore());
+            default -> {
+                // Membership changes do not change a score
+            }
+        }
+    }
+
+    private void onScoreChange(long timestamp, String userId, int oldScore, int newScore) {
+        if (newScore == ScoreEventLog.ABSENT) {
+            series.remove(userId);
+            return;
+        }
+        ScoreSeries[] userSeries = series.computeIfAbsent(userId, id -> newSeries());
+        synchronized (userSeries) {
+            for (ScoreSeries resolutionSeries : userSeries) {
+                resolutionSeries.add(timestamp, newScore);
+            }
+        }
+    }
+
+    private static ScoreSeries[] newSeries() {
+        Resolution[] resolutions = Resolution.values();
+        ScoreSeries[] userSeries = new ScoreSeries[resolutions.length];
+        for (Resolution resolution : resolutions) {
+            userSeries[resolution.ordinal()] = new ScoreSeries(resolution);
+        }
+        return userSeries;
+    }
+}
@@ -0,0 +1,196 @@
+package com.crio.codehackcontest.history;
+
+import com.crio.codehackcontest.model.ScorePoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ScoreSeries class stores the score of one user over time at one {@link Resolution}.
+ *
+ * <p>Time is counted in buckets of the resolution; the raw resolution uses one-millisecond buckets.
+ * Each bucket holds the lowest, highest and last score seen in it. The most recent bucket stays
+ * open and is updated in place; once a later bucket starts it is encoded into a chunk as the
+ * varint-encoded distance to the previous bucket followed by the scores as single bytes (only the
+ * last score for the raw resolution, where a bucket rarely sees more than one change).</p>
+ *
+ * <p>Chunks hold up to {@value #CHUNK_ENTRIES} buckets and remember their first and last bucket, so
+ * a range query decodes only the chunks overlapping the range. The class is not thread safe.</p>
+ */
+class ScoreSeries {
+    static final int CHUNK_ENTRIES = 128;
+
+    private final Resolution resolution;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private boolean open;
+    private long openBucket;
+    private byte openMin;
+    private byte openMax;
+    private byte openLast;
+
+    ScoreSeries(Resolution resolution) {
+        this.resolution = resolution;
+    }
+
+    /**
+     * Adds a score at a point in time. Times before the open bucket are treated as part of it.
+     *
+     * @param timestamp the time of the score, in epoch milliseconds
+     * @param score     the score, 0 to 100
+     */
+    void add(long timestamp, int score) {
+        long bucket = Math.max(timestamp / resolution.getMillis(), open ? openBucket : Long.MIN_VALUE);
+        byte value = (byte) score;
+        if (open && bucket == openBucket) {
+            openMin = (byte) Math.min(openMin, value);
+            openMax = (byte) Math.max(openMax, value);
+            openLast = value;
+            return;
+        }
+        if (open) {
+            seal();
+        }
+        open = true;
+        openBucket = bucket;
+        openMin = value;
+        openMax = value;
+        openLast = value;
+    }
+
+    /**
+     * Returns the buckets overlapping a time range.
+     *
+     * @param from the start of the range, in epoch milliseconds, inclusive
+     * @param to   the end of the range, in epoch milliseconds, inclusive
+     * @return the buckets in time order
+     */
+    List<ScorePoint> range(long from, long to) {
+        long fromBucket = Math.floorDiv(from, resolution.getMillis());
+        long toBucket = Math.floorDiv(to, resolution.getMillis());
+        List<ScorePoint> points = new ArrayList<>();
+        int low = 0;
+        int high = chunks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chunks.get(mid).lastBucket < fromBucket) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < chunks.size() && chunks.get(i).firstBucket <= toBucket; i++) {
+            chunks.get(i).decode(fromBucket, toBucket, points);
+        }
+        if (open && openBucket >= fromBucket && openBucket <= toBucket) {
+            points.add(point(openBucket, openMin, openMax, openLast));
+        }
+        return points;
+    }
+
+    /**
+     * Returns the number of bytes the encoded chunks occupy.
+     *
+     * @return the encoded size
+     */
+    int encodedBytes() {
+        int bytes = 0;
+        for (Chunk chunk : chunks) {
+            bytes += chunk.length;
+        }
+        return bytes;
+    }
+
+    private void seal() {
+        Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.count == CHUNK_ENTRIES) {
+            if (chunk != null) {
+                chunk.trim();
+            }
+            chunk = new Chunk(openBucket);
+            chunks.add(chunk);
+        }
+        chunk.append(openBucket, openMin, openMax, openLast);
+    }
+
+    private ScorePoint point(long bucket, byte min, byte max, byte last) {
+        return new ScorePoint(bucket * resolution.getMillis(), last, min, max);
+    }
+
+    /**
+     * The Chunk class holds up to {@value #CHUNK_ENTRIES} encoded buckets.
+     */
+    private class Chunk {
+        private final long firstBucket;
+        private long lastBucket;
+        private int count;
+        private byte[] data = new byte[32];
+        private int length;
+
+        Chunk(long firstBucket) {
+            this.firstBucket = firstBucket;
+            this.lastBucket = firstBucket;
+        }
+
+        void append(long bucket, byte min, byte max, byte last) {
+            ensureCapacity(10 + 3);
+            long delta = bucket - lastBucket;
+            while ((delta & ~0x7FL) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            if (resolution != Resolution.RAW) {
+                data[length++] = min;
+                data[length++] = max;
+            }
+            data[length++] = last;
+            lastBucket = bucket;
+            count++;
+        }
+
+        void decode(long fromBucket, long toBucket, List<ScorePoint> points) {
+            long bucket = firstBucket;
+            int position = 0;
+            for (int entry = 0; entry < count; entry++) {
+                long delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    delta |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                bucket += delta;
+                byte min;
+                byte max;
+                byte last;
+                if (resolution != Resolution.RAW) {
+                    min = data[position++];
+                    max = data[position++];
+                    last = data[position++];
+                } else {
+                    last = data[position++];
+                    min = last;
+                    max = last;
+                }
+                if (bucket > toBucket) {
+                    return;
+                }
+                if (bucket >= fromBucket) {
+                    points.add(point(bucket, min, max, last));
+                }
+            }
+        }
+
+        void trim() {
+            data = Arrays.copyOf(data, length);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+    }
+}
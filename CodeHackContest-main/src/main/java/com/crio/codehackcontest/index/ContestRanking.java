@@ -0,0 +1,442 @@
+package com.crio.codehackcontest.index;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.model.Badges;
+import com.crio.codehackcontest.model.ScoreStats;
+import com.crio.codehackcontest.model.SubsetStanding;
+import com.crio.codehackcontest.utils.RankingPolicy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The ContestRanking class keeps the participants of one contest ranked in memory.
+ *
+ * <p>Scores are bounded to 0..100, so participants are kept in one bucket per score instead of a
+ * sorted list. Within a bucket participants are ordered by the rank key of the {@link RankingPolicy},
+ * then by user ID. Producing the leaderboard walks the buckets from the highest score down and never
+ * sorts; a score change moves a single user between two buckets.</p>
+ *
+ * <p>Every badge has its own set of score buckets holding only the participants with that badge,
+ * so a badge-filtered leaderboard walks those and never visits other participants. The bucket
+ * sizes double as a live score histogram and badge counters, so {@link #stats()} never looks at
+ * individual participants.</p>
+ *
+ * <p>All methods are thread safe. Readers share a read lock, mutations take the write lock.
+ * Participants are stored and returned as copies, so a caller changing a returned user neither
+ * changes the ranking nor sees later changes of it.</p>
+ */
+public class ContestRanking {
+    public static final int MIN_SCORE = 0;
+    public static final int MAX_SCORE = 100;
+
+    private final String contestId;
+    private final String name;
+    private final RankingPolicy policy;
+    private final HashMap<String, User> members = new HashMap<>();
+    private final RankBucket[] buckets = newBuckets();
+    private final EnumMap<Badges, RankBucket[]> badgeBuckets = new EnumMap<>(Badges.class);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructs an empty ContestRanking ordered by the default {@link RankingPolicy}.
+     *
+     * @param contestId the ID of the contest
+     * @param name      the name of the contest
+     */
+    public ContestRanking(String contestId, String name) {
+        this(contestId, name, RankingPolicy.DEFAULT);
+    }
+
+    /**
+     * Constructs an empty ContestRanking.
+     *
+     * @param contestId the ID of the contest
+     * @param name      the name of the contest
+     * @param policy    the policy ordering participants with the same score
+     */
+    public ContestRanking(String contestId, String name, RankingPolicy policy) {
+        this.contestId = contestId;
+        this.name = name;
+        this.policy = policy;
+        for (Badges badge : Badges.values()) {
+            badgeBuckets.put(badge, newBuckets());
+        }
+    }
+
+    public String getContestId() {
+        return contestId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RankingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Adds a participant or replaces its current state.
+     *
+     * @param user the participant; users without an ID are ignored
+     */
+    public void put(User user) {
+        if (user == null || user.getUserid() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            putLocked(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces several participants under a single lock acquisition.
+     *
+     * <p>The participants are appended to their buckets and every bucket is sorted once at the end,
+     * so loading a whole contest costs a sort per bucket rather than a move per participant.</p>
+     *
+     * @param users the participants; users without an ID are ignored
+     */
+    public void putAll(Collection<User> users) {
+        lock.writeLock().lock();
+        try {
+            // Replaced participants leave the buckets first, while every bucket is still in order
+            for (User user : users) {
+                if (user != null && user.getUserid() != null) {
+                    User previous = members.put(user.getUserid(), copyOf(user));
+                    if (previous != null) {
+                        unbucket(previous);
+                    }
+                }
+            }
+            // A user listed twice is appended twice with the same key; sorting drops the duplicate
+            for (User user : users) {
+                if (user != null && user.getUserid() != null) {
+                    User member = members.get(user.getUserid());
+                    int score = bucketOf(member.getScore());
+                    long key = policy.key(member);
+                    buckets[score].append(key, member.getUserid());
+                    if (member.getBadges() != null) {
+                        for (Badges badge : member.getBadges()) {
+                            badgeBuckets.get(badge)[score].append(key, member.getUserid());
+                        }
+                    }
+                }
+            }
+            for (RankBucket bucket : buckets) {
+                bucket.sortAppended();
+            }
+            for (RankBucket[] scoreBuckets : badgeBuckets.values()) {
+                for (RankBucket bucket : scoreBuckets) {
+                    bucket.sortAppended();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the state of a participant, leaving the ranking untouched if the user does not take part.
+     *
+     * @param user the new state of the user
+     * @return true if the user takes part in this contest
+     */
+    public boolean replace(User user) {
+        if (user == null || user.getUserid() == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!members.containsKey(user.getUserid())) {
+                return false;
+            }
+            putLocked(user);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a participant.
+     *
+     * @param userId the ID of the user to remove
+     * @return true if the user took part in this contest
+     */
+    public boolean remove(String userId) {
+        lock.writeLock().lock();
+        try {
+            User removed = members.remove(userId);
+            if (removed == null) {
+                return false;
+            }
+            unbucket(removed);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a user takes part in this contest.
+     *
+     * @param userId the ID of the user
+     * @return true if the user is a participant
+     */
+    public boolean contains(String userId) {
+        lock.readLock().lock();
+        try {
+            return members.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a participant.
+     *
+     * @param userId the ID of the user
+     * @return a copy of the participant, or null if the user does not take part
+     */
+    public User get(String userId) {
+        lock.readLock().lock();
+        try {
+            User user = members.get(userId);
+            return user == null ? null : copyOf(user);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the rank of a participant: one more than the number of participants ranked higher.
+     *
+     * @param userId the ID of the user
+     * @return the rank, starting at 1, or 0 if the user does not take part
+     */
+    public int rankOf(String userId) {
+        lock.readLock().lock();
+        try {
+            User user = members.get(userId);
+            if (user == null) {
+                return 0;
+            }
+            int score = bucketOf(user.getScore());
+            int rank = 1 + buckets[score].countBelow(policy.key(user));
+            for (int higher = MAX_SCORE; higher > score; higher--) {
+                rank += buckets[higher].size();
+            }
+            return rank;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up several participants with their global rank under a single lock acquisition.
+     *
+     * <p>The number of participants above every score is summed once, and the position within a
+     * score is a binary search, so a lookup barely grows with the number of participants.</p>
+     *
+     * @param userIds the IDs of the users
+     * @return the participants among the users, with their global rank set and their subset rank left at 0
+     */
+    public List<SubsetStanding> standings(Collection<String> userIds) {
+        List<SubsetStanding> standings = new ArrayList<>(userIds.size());
+        lock.readLock().lock();
+        try {
+            int[] above = new int[MAX_SCORE + 1];
+            for (int score = MAX_SCORE - 1; score >= MIN_SCORE; score--) {
+                above[score] = above[score + 1] + buckets[score + 1].size();
+            }
+            for (String userId : userIds) {
+                User user = members.get(userId);
+                if (user != null) {
+                    int score = bucketOf(user.getScore());
+                    int rank = above[score] + buckets[score].countBelow(policy.key(user)) + 1;
+                    standings.add(new SubsetStanding(userId, user.getUsername(), user.getScore(), badgesOf(user), 0, rank));
+                }
+            }
+            return standings;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of participants.
+     *
+     * @return the number of participants
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return members.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all participants in leaderboard order, highest score first.
+     *
+     * @return a new list with copies of the ranked participants
+     */
+    public List<User> ranked() {
+        return ranked(buckets);
+    }
+
+    /**
+     * Returns the participants holding a badge in leaderboard order, highest score first.
+     *
+     * @param badge the badge
+     * @return a new list with copies of the ranked participants holding the badge
+     */
+    public List<User> ranked(Badges badge) {
+        return ranked(badgeBuckets.get(badge));
+    }
+
+    /**
+     * Streams all participants in leaderboard order without copying the whole ranking.
+     *
+     * <p>Only one score bucket is copied at a time, under the read lock. The stream is weakly
+     * consistent: a user whose score changes while the stream is consumed may be returned at its
+     * old position, its new position, both or neither.</p>
+     *
+     * @return copies of the ranked participants
+     */
+    public Stream<User> stream() {
+        return stream(buckets);
+    }
+
+    /**
+     * Streams the participants holding a badge in leaderboard order, with the same consistency as {@link #stream()}.
+     *
+     * @param badge the badge
+     * @return the ranked participants holding the badge
+     */
+    public Stream<User> stream(Badges badge) {
+        return stream(badgeBuckets.get(badge));
+    }
+
+    /**
+     * Returns the score distribution of the participants, computed from the counters in constant time.
+     *
+     * @return the ScoreStats {@link com.crio.codehackcontest.model.ScoreStats} of the contest
+     */
+    public ScoreStats stats() {
+        int[] histogram = new int[MAX_SCORE + 1];
+        int[] badges = new int[Badges.values().length];
+        lock.readLock().lock();
+        try {
+            for (int score = MIN_SCORE; score <= MAX_SCORE; score++) {
+                histogram[score] = buckets[score].size();
+                for (Badges badge : Badges.values()) {
+                    badges[badge.ordinal()] += badgeBuckets.get(badge)[score].size();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ScoreStats.of(contestId, name, histogram, badges);
+    }
+
+    private List<User> ranked(RankBucket[] scoreBuckets) {
+        lock.readLock().lock();
+        try {
+            int size = 0;
+            for (RankBucket bucket : scoreBuckets) {
+                size += bucket.size();
+            }
+            List<User> ranked = new ArrayList<>(size);
+            for (int score = MAX_SCORE; score >= MIN_SCORE; score--) {
+                RankBucket bucket = scoreBuckets[score];
+                for (int i = 0; i < bucket.size(); i++) {
+                    ranked.add(copyOf(members.get(bucket.id(i))));
+                }
+            }
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Stream<User> stream(RankBucket[] scoreBuckets) {
+        return IntStream.rangeClosed(MIN_SCORE, MAX_SCORE)
+                .mapToObj(i -> MAX_SCORE - i)
+                .flatMap(score -> bucket(scoreBuckets, score).stream());
+    }
+
+    private List<User> bucket(RankBucket[] scoreBuckets, int score) {
+        lock.readLock().lock();
+        try {
+            RankBucket bucket = scoreBuckets[score];
+            List<User> users = new ArrayList<>(bucket.size());
+            for (int i = 0; i < bucket.size(); i++) {
+                users.add(copyOf(members.get(bucket.id(i))));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putLocked(User participant) {
+        User user = copyOf(participant);
+        User previous = members.put(user.getUserid(), user);
+        if (previous != null) {
+            unbucket(previous);
+        }
+        int score = bucketOf(user.getScore());
+        long key = policy.key(user);
+        buckets[score].add(key, user.getUserid());
+        if (user.getBadges() != null) {
+            for (Badges badge : user.getBadges()) {
+                badgeBuckets.get(badge)[score].add(key, user.getUserid());
+            }
+        }
+    }
+
+    private void unbucket(User user) {
+        int score = bucketOf(user.getScore());
+        long key = policy.key(user);
+        buckets[score].remove(key, user.getUserid());
+        if (user.getBadges() != null) {
+            for (Badges badge : user.getBadges()) {
+                badgeBuckets.get(badge)[score].remove(key, user.getUserid());
+            }
+        }
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getUserid(), user.getUsername(), user.getScore(), badgesOf(user), user.getLastImproved());
+    }
+
+    private static HashSet<Badges> badgesOf(User user) {
+        return user.getBadges() == null ? null : new HashSet<>(user.getBadges());
+    }
+
+    private static RankBucket[] newBuckets() {
+        RankBucket[] scoreBuckets = new RankBucket[MAX_SCORE + 1];
+        for (int score = MIN_SCORE; score <= MAX_SCORE; score++) {
+            scoreBuckets[score] = new RankBucket();
+        }
+        return scoreBuckets;
+    }
+
+    private static int bucketOf(int score) {
+        return Math.max(MIN_SCORE, Math.min(MAX_SCORE, score));
+    }
+}
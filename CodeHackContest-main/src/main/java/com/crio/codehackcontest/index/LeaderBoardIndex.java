@@ -0,0 +1,385 @@
+package com.crio.codehackcontest.index;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * The LeaderBoardIndex class holds the in-memory {@link ContestRanking} of every contest.
+ *
+ * <p>The services apply every change they write to MongoDB to the index as well. The index only
+ * answers reads once it is ready, i.e. after {@link com.crio.codehackcontest.config.LeaderBoardWarmup}
+ * has loaded the existing data. Until then callers fall back to MongoDB.</p>
+ *
+ * <p>Changes applied while the warm-up is running (see {@link #beginWarmup()}) are also recorded
+ * in a journal. When the warm-up installs the rankings it has built, the journal is replayed on
+ * top of them, so a change that raced with the scan is never lost.</p>
+ *
+ * <p>Alongside the rankings the index keeps a {@link UsernameTrie} over all users for prefix
+ * searches, loaded and journaled the same way.</p>
+ *
+ * <p>Changes are only applied once the warm-up has begun: an index that is disabled, not warming up
+ * yet or invalidated ignores them and keeps no state. Every change still bumps a write generation,
+ * so callers can tell whether a result computed earlier, also from MongoDB, may predate a write
+ * (see {@link #generation()}).</p>
+ *
+ * <p>The services write a user to MongoDB and apply the change to the index while holding the lock
+ * of that user (see {@link #withUserLocks(Collection, Supplier)}), so concurrent writes of one user
+ * reach the index in the order they reached MongoDB. If applying a change fails, the index can no
+ * longer be trusted: it stops answering reads and callers fall back to MongoDB.</p>
+ *
+ * <p>The index only sees the writes of this instance. It must not be used when several instances,
+ * or any other writer, share the database; disable it there with
+ * {@code codehack.index.warmup.enabled=false}.</p>
+ *
+ * <p>Every ranking orders equal scores by the configured {@link RankingPolicy}; rankings built
+ * elsewhere should come from {@link #newRanking(String, String)}.</p>
+ */
+@Component
+public class LeaderBoardIndex {
+    private static final Logger log = LoggerFactory.getLogger(LeaderBoardIndex.class);
+    // The number of locks the user IDs are spread over
+    private static final int USER_LOCK_STRIPES = 64;
+
+    private final ConcurrentHashMap<String, ContestRanking> contests = new ConcurrentHashMap<>();
+    private volatile UsernameTrie usernames = new UsernameTrie();
+    private final List<Runnable> journal = new ArrayList<>();
+    private final ReentrantReadWriteLock installLock = new ReentrantReadWriteLock();
+    private volatile boolean journaling;
+    private volatile boolean ready;
+    private volatile boolean invalidated;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock[] userLocks = new ReentrantLock[USER_LOCK_STRIPES];
+    private final RankingPolicy policy;
+
+    /**
+     * Constructs an empty LeaderBoardIndex ordered by the default {@link RankingPolicy}.
+     */
+    public LeaderBoardIndex() {
+        this(RankingPolicy.DEFAULT);
+    }
+
+    /**
+     * Constructs an empty LeaderBoardIndex.
+     *
+     * @param policy the policy ordering participants with the same score
+     */
+    @Autowired
+    public LeaderBoardIndex(RankingPolicy policy) {
+        this.policy = policy;
+        for (int i = 0; i < USER_LOCK_STRIPES; i++) {
+            userLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public RankingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Creates an empty ranking ordered by the policy of this index.
+     *
+     * @param contestId the ID of the contest
+     * @param name      the name of the contest
+     * @return the new ranking
+     */
+    public ContestRanking newRanking(String contestId, String name) {
+        return new ContestRanking(contestId, name, policy);
+    }
+
+    /**
+     * Returns the write generation: the number of changes passed to the index so far, applied or not.
+     *
+     * <p>The services apply a change after writing it to MongoDB, so a caller that reads the generation
+     * and then reads from MongoDB sees at least every change counted by it.</p>
+     *
+     * @return the write generation
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Runs a write of some users while holding their user locks.
+     *
+     * <p>Callers write MongoDB and apply the change to the index inside the write, so two writes of
+     * the same user are applied in the order they were stored. Locks are taken in a fixed order, so
+     * writes of overlapping groups of users cannot deadlock; a write may nest another write of
+     * a single user it already holds.</p>
+     *
+     * @param userIds the IDs of the users written
+     * @param write   the write
+     * @param <T>     the result type of the write
+     * @return the result of the write
+     */
+    public <T> T withUserLocks(Collection<String> userIds, Supplier<T> write) {
+        int[] stripes = userIds.stream().mapToInt(LeaderBoardIndex::stripeOf).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (; locked < stripes.length; locked++) {
+                userLocks[stripes[locked]].lock();
+            }
+            return write.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                userLocks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs a write of one user while holding its user lock.
+     *
+     * @param userId the ID of the user written
+     * @param write  the write
+     * @param <T>    the result type of the write
+     * @return the result of the write
+     */
+    public <T> T withUserLock(String userId, Supplier<T> write) {
+        return withUserLocks(List.of(userId), write);
+    }
+
+    /**
+     * Stops answering reads, so callers fall back to MongoDB until the application is restarted.
+     */
+    public void invalidate() {
+        invalidated = true;
+        ready = false;
+    }
+
+    /**
+     * Checks whether the index has been warmed up and can answer reads.
+     *
+     * @return true once the warm-up has completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the ranking of a contest if the index is ready and knows the contest.
+     *
+     * @param contestId the ID of the contest
+     * @return the ranking of the contest, or empty if reads must go to MongoDB
+     */
+    public Optional<ContestRanking> ranking(String contestId) {
+        return ready ? Optional.ofNullable(contests.get(contestId)) : Optional.empty();
+    }
+
+    /**
+     * Finds users whose username starts with a prefix, if the index is ready.
+     *
+     * @param prefix the prefix, matched case-insensitively
+     * @param limit  the maximum number of user IDs to return
+     * @return the IDs of the matching users in username order, or empty if the index is not ready
+     */
+    public Optional<List<String>> searchUsernames(String prefix, int limit) {
+        return ready ? Optional.of(usernames.search(prefix, limit)) : Optional.empty();
+    }
+
+    /**
+     * Returns the number of contests in the index.
+     *
+     * @return the number of indexed contests
+     */
+    public int contestCount() {
+        return contests.size();
+    }
+
+    /**
+     * Registers a contest together with its participants. Contests without an ID are ignored.
+     *
+     * @param contestId    the ID of the contest
+     * @param name         the name of the contest
+     * @param participants the participants of the contest
+     */
+    public void addContest(String contestId, String name, Collection<User> participants) {
+        if (contestId == null) {
+            return;
+        }
+        List<User> users = List.copyOf(participants);
+        apply(() -> {
+            ContestRanking ranking = newRanking(contestId, name);
+            ranking.putAll(users);
+            contests.put(contestId, ranking);
+        });
+    }
+
+    /**
+     * Adds participants to a contest, registering the contest if it is not indexed yet.
+     *
+     * @param contestId    the ID of the contest
+     * @param name         the name of the contest
+     * @param participants the participants to add
+     */
+    public void addParticipants(String contestId, String name, Collection<User> participants) {
+        if (contestId == null) {
+            return;
+        }
+        List<User> users = List.copyOf(participants);
+        apply(() -> contests.computeIfAbsent(contestId, id -> newRanking(id, name)).putAll(users));
+    }
+
+    /**
+     * Removes participants from a contest.
+     *
+     * @param contestId the ID of the contest
+     * @param userIds   the IDs of the participants to remove
+     */
+    public void removeParticipants(String contestId, Collection<String> userIds) {
+        if (contestId == null) {
+            return;
+        }
+        List<String> ids = List.copyOf(userIds);
+        apply(() -> {
+            ContestRanking ranking = contests.get(contestId);
+            if (ranking != null) {
+                ids.forEach(ranking::remove);
+            }
+        });
+    }
+
+    /**
+     * Removes a contest.
+     *
+     * @param contestId the ID of the contest
+     */
+    public void removeContest(String contestId) {
+        if (contestId == null) {
+            return;
+        }
+        apply(() -> contests.remove(contestId));
+    }
+
+    /**
+     * Registers a new user for username searches.
+     *
+     * @param user the user
+     */
+    public void addUser(User user) {
+        String username = user.getUsername();
+        String userId = user.getUserid();
+        apply(() -> usernames.put(username, userId));
+    }
+
+    /**
+     * Replaces the state of a user in every contest the user takes part in.
+     *
+     * @param user the new state of the user
+     */
+    public void updateUser(User user) {
+        apply(() -> contests.values().forEach(ranking -> ranking.replace(user)));
+    }
+
+    /**
+     * Removes a user from every contest.
+     *
+     * @param userId the ID of the user
+     */
+    public void removeUser(String userId) {
+        apply(() -> contests.values().forEach(ranking -> ranking.remove(userId)));
+    }
+
+    /**
+     * Removes a user from every contest and from username searches.
+     *
+     * @param user the user
+     */
+    public void removeUser(User user) {
+        String username = user.getUsername();
+        String userId = user.getUserid();
+        apply(() -> {
+            contests.values().forEach(ranking -> ranking.remove(userId));
+            usernames.remove(username, userId);
+        });
+    }
+
+    /**
+     * Starts recording changes in the journal until the warm-up installs its rankings.
+     */
+    public void beginWarmup() {
+        installLock.writeLock().lock();
+        try {
+            journaling = !ready;
+        } finally {
+            installLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Installs the rankings built by the warm-up, replays the changes made meanwhile and marks the index ready.
+     *
+     * @param rankings the rankings loaded from MongoDB, by contest ID
+     */
+    public void install(Map<String, ContestRanking> rankings) {
+        install(rankings, new UsernameTrie());
+    }
+
+    /**
+     * Installs the rankings and usernames built by the warm-up, replays the changes made meanwhile
+     * and marks the index ready. An index that has been invalidated stays unready.
+     *
+     * @param rankings  the rankings loaded from MongoDB, by contest ID
+     * @param usernames the usernames of all users loaded from MongoDB
+     */
+    public void install(Map<String, ContestRanking> rankings, UsernameTrie usernames) {
+        installLock.writeLock().lock();
+        try {
+            if (!invalidated) {
+                contests.putAll(rankings);
+                this.usernames = usernames;
+                journal.forEach(Runnable::run);
+                ready = true;
+            }
+            journal.clear();
+            journaling = false;
+        } finally {
+            installLock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Runnable change) {
+        installLock.readLock().lock();
+        try {
+            if (invalidated || !(ready || journaling)) {
+                // Nothing will read the change: the warm-up has not started or is disabled, or the index was invalidated
+                return;
+            }
+            if (journaling) {
+                // Applied and recorded under one monitor so the journal keeps the order of the changes
+                synchronized (journal) {
+                    change.run();
+                    journal.add(change);
+                }
+            } else {
+                change.run();
+            }
+        } catch (RuntimeException e) {
+            log.error("Applying a change to the leaderboard index failed, serving reads from the database", e);
+            invalidate();
+            throw e;
+        } finally {
+            generation.incrementAndGet();
+            installLock.readLock().unlock();
+        }
+    }
+
+    private static int stripeOf(String userId) {
+        return Math.floorMod(Objects.hashCode(userId), USER_LOCK_STRIPES);
+    }
+}
@@ -0,0 +1,170 @@
+package com.crio.codehackcontest.index;
+
+import com.crio.codehackcontest.utils.ParallelRanker;
+
+import java.util.Arrays;
+
+/**
+ * The RankBucket class keeps the participants with one score sorted by rank key, then user ID.
+ *
+ * <p>Keys and IDs live in two parallel arrays kept in order, so a lookup is a binary search over
+ * primitives and a change moves the tail of the arrays by one slot. A bucket only holds the
+ * participants with one score, which keeps those moves short. It is not thread safe; the owning
+ * {@link ContestRanking} guards it.</p>
+ *
+ * <p>Many participants at once are loaded with {@link #append(long, String)}, which only stores
+ * them at the end, followed by one {@link #sortAppended()}, which sorts them with
+ * {@link ParallelRanker#sort(long[], String[])} and merges them into place. Loading a bucket that way
+ * costs one sort instead of a move per participant.</p>
+ */
+final class RankBucket {
+    private static final long[] NO_KEYS = new long[0];
+    private static final String[] NO_IDS = new String[0];
+
+    private long[] keys = NO_KEYS;
+    private String[] ids = NO_IDS;
+    private int size;
+    // The number of entries in order; the entries after them were appended and are not sorted yet
+    private int sortedSize;
+
+    int size() {
+        return size;
+    }
+
+    String id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Adds a participant.
+     *
+     * @param key the rank key of the participant
+     * @param id  the ID of the participant
+     * @return false if the participant was already present with this key
+     */
+    boolean add(long key, String id) {
+        int index = indexOf(key, id);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        keys[index] = key;
+        ids[index] = id;
+        size++;
+        sortedSize++;
+        return true;
+    }
+
+    /**
+     * Appends a participant without putting it in order. Until {@link #sortAppended()} is called, no
+     * other method may be used.
+     *
+     * @param key the rank key of the participant
+     * @param id  the ID of the participant
+     */
+    void append(long key, String id) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        keys[size] = key;
+        ids[size] = id;
+        size++;
+    }
+
+    /**
+     * Sorts the appended participants and merges them with the others, dropping duplicates.
+     */
+    void sortAppended() {
+        if (sortedSize == size) {
+            return;
+        }
+        long[] appendedKeys = Arrays.copyOfRange(keys, sortedSize, size);
+        String[] appendedIds = Arrays.copyOfRange(ids, sortedSize, size);
+        ParallelRanker.sort(appendedKeys, appendedIds);
+
+        long[] mergedKeys = new long[keys.length];
+        String[] mergedIds = new String[ids.length];
+        int merged = 0;
+        int left = 0;
+        int right = 0;
+        while (left < sortedSize || right < appendedKeys.length) {
+            boolean takeLeft = right == appendedKeys.length || left < sortedSize
+                    && (keys[left] != appendedKeys[right] ? keys[left] < appendedKeys[right] : ids[left].compareTo(appendedIds[right]) <= 0);
+            long key = takeLeft ? keys[left] : appendedKeys[right];
+            String id = takeLeft ? ids[left++] : appendedIds[right++];
+            if (merged == 0 || mergedKeys[merged - 1] != key || !mergedIds[merged - 1].equals(id)) {
+                mergedKeys[merged] = key;
+                mergedIds[merged++] = id;
+            }
+        }
+        keys = mergedKeys;
+        ids = mergedIds;
+        size = merged;
+        sortedSize = merged;
+    }
+
+    /**
+     * Removes a participant.
+     *
+     * @param key the rank key the participant was added with
+     * @param id  the ID of the participant
+     * @return true if the participant was present
+     */
+    boolean remove(long key, String id) {
+        int index = indexOf(key, id);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        ids[--size] = null;
+        sortedSize--;
+        return true;
+    }
+
+    /**
+     * Counts the participants ranked strictly higher than a key.
+     *
+     * @param key the rank key
+     * @return the number of participants with a smaller key
+     */
+    int countBelow(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int indexOf(long key, String id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = keys[mid] != key ? Long.compare(keys[mid], key) : ids[mid].compareTo(id);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
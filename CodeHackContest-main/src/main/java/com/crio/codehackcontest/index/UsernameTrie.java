@@ -0,0 +1,280 @@
+package com.crio.codehackcontest.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The UsernameTrie class finds users by a prefix of their username.
+ *
+ * <p>It is a radix tree: every edge holds a run of characters instead of a single one, so a chain of
+ * nodes with one child each is stored as one node. Usernames are matched case-insensitively. A
+ * node lists the IDs of the users whose username ends there; usernames need not be unique.
+ * Children are kept sorted by their first character, so a search descends by binary search and
+ * returns users in username order without sorting.</p>
+ *
+ * <p>All methods are thread safe. Searches share a read lock, changes take the write lock.</p>
+ */
+public class UsernameTrie {
+    private static final char[] EMPTY = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final String[] NO_IDS = new String[0];
+
+    private final Node root = new Node(EMPTY);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    /**
+     * Adds a user.
+     *
+     * @param username the username of the user; null is ignored
+     * @param userId   the ID of the user
+     */
+    public void put(String username, String userId) {
+        if (username == null || userId == null) {
+            return;
+        }
+        char[] key = normalize(username);
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            int position = 0;
+            while (position < key.length) {
+                int index = node.childIndex(key[position]);
+                if (index < 0) {
+                    node.insertChild(-index - 1, new Node(Arrays.copyOfRange(key, position, key.length)));
+                    node = node.children[-index - 1];
+                    position = key.length;
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonLength(child.label, key, position);
+                if (common < child.label.length) {
+                    child = split(node, index, common);
+                }
+                node = child;
+                position += common;
+            }
+            if (node.addId(userId)) {
+                size++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a user.
+     *
+     * @param username the username the user was added with; null is ignored
+     * @param userId   the ID of the user
+     */
+    public void remove(String username, String userId) {
+        if (username == null || userId == null) {
+            return;
+        }
+        char[] key = normalize(username);
+        lock.writeLock().lock();
+        try {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            int position = 0;
+            while (position < key.length) {
+                int index = node.childIndex(key[position]);
+                if (index < 0) {
+                    return;
+                }
+                Node child = node.children[index];
+                if (commonLength(child.label, key, position) < child.label.length) {
+                    return;
+                }
+                path.add(node);
+                node = child;
+                position += child.label.length;
+            }
+            if (!node.removeId(userId)) {
+                return;
+            }
+            size--;
+            // Drop nodes left without users and children, and fold a remaining single child into its parent
+            for (int i = path.size() - 1; i >= 0 && node.idCount == 0; i--) {
+                Node parent = path.get(i);
+                if (node.children.length == 0) {
+                    parent.removeChild(parent.childIndex(node.label[0]));
+                } else if (node.children.length == 1) {
+                    Node only = node.children[0];
+                    char[] label = new char[node.label.length + only.label.length];
+                    System.arraycopy(node.label, 0, label, 0, node.label.length);
+                    System.arraycopy(only.label, 0, label, node.label.length, only.label.length);
+                    only.label = label;
+                    parent.children[parent.childIndex(node.label[0])] = only;
+                    break;
+                } else {
+                    break;
+                }
+                node = parent;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds users whose username starts with a prefix.
+     *
+     * @param prefix the prefix, matched case-insensitively; empty matches every user
+     * @param limit  the maximum number of user IDs to return
+     * @return the IDs of the matching users, in username order
+     */
+    public List<String> search(String prefix, int limit) {
+        char[] key = normalize(prefix);
+        List<String> ids = new ArrayList<>(Math.min(limit, 64));
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int position = 0;
+            while (position < key.length) {
+                int index = node.childIndex(key[position]);
+                if (index < 0) {
+                    return ids;
+                }
+                node = node.children[index];
+                int common = commonLength(node.label, key, position);
+                if (common < node.label.length && position + common < key.length) {
+                    return ids;
+                }
+                position += common;
+            }
+            collect(node, ids, limit);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of users.
+     *
+     * @return the number of users
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Node start, List<String> ids, int limit) {
+        // Depth-first in child order with an explicit stack, children pushed in reverse
+        List<Node> stack = new ArrayList<>();
+        stack.add(start);
+        while (!stack.isEmpty() && ids.size() < limit) {
+            Node node = stack.remove(stack.size() - 1);
+            for (int i = 0; i < node.idCount && ids.size() < limit; i++) {
+                ids.add(node.ids[i]);
+            }
+            for (int i = node.children.length - 1; i >= 0; i--) {
+                stack.add(node.children[i]);
+            }
+        }
+    }
+
+    private static Node split(Node parent, int index, int at) {
+        Node child = parent.children[index];
+        Node middle = new Node(Arrays.copyOf(child.label, at));
+        child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+        middle.children = new Node[]{child};
+        parent.children[index] = middle;
+        return middle;
+    }
+
+    private static int commonLength(char[] label, char[] key, int offset) {
+        int length = Math.min(label.length, key.length - offset);
+        int i = 0;
+        while (i < length && label[i] == key[offset + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static char[] normalize(String value) {
+        return value == null ? EMPTY : value.toLowerCase(Locale.ROOT).toCharArray();
+    }
+
+    /**
+     * The Node class is one node of the tree, reached through the characters in its label.
+     */
+    private static final class Node {
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private String[] ids = NO_IDS;
+        private int idCount;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label[0];
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        void removeChild(int index) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, shrunk.length - index);
+            children = shrunk;
+        }
+
+        boolean addId(String id) {
+            for (int i = 0; i < idCount; i++) {
+                if (ids[i].equals(id)) {
+                    return false;
+                }
+            }
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(1, idCount * 2));
+            }
+            ids[idCount++] = id;
+            return true;
+        }
+
+        boolean removeId(String id) {
+            for (int i = 0; i < idCount; i++) {
+                if (ids[i].equals(id)) {
+                    System.arraycopy(ids, i + 1, ids, i, idCount - i - 1);
+                    ids[--idCount] = null;
+                    if (idCount == 0) {
+                        ids = NO_IDS;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.crio.codehackcontest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning an operation over many users at once. Operations on a single user are not recorded.
+ */
+@Name("com.crio.codehackcontest.BulkOperation")
+@Label("Bulk Operation")
+@Category({"CodeHack", "Bulk"})
+@Description("An operation applied to many users or contests at once")
+@StackTrace(false)
+public class BulkOperationEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Contest Id")
+    public String contestId;
+
+    @Label("Items")
+    public int items;
+}
@@ -0,0 +1,34 @@
+package com.crio.codehackcontest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded for every lookup in an in-memory cache or shared computation.
+ *
+ * <p>The outcome is {@value #HIT} or {@value #MISS} for a cache. For a shared computation it is
+ * {@value #JOIN} when the caller waited for a computation already in flight, otherwise {@value #MISS}.</p>
+ */
+@Name("com.crio.codehackcontest.CacheAccess")
+@Label("Cache Access")
+@Category({"CodeHack", "Cache"})
+@Description("A hit or miss on an in-memory cache or shared computation")
+@StackTrace(false)
+public class CacheAccessEvent extends Event {
+    public static final String HIT = "hit";
+    public static final String MISS = "miss";
+    public static final String JOIN = "join";
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,22 @@
+package com.crio.codehackcontest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning the construction of a contest leaderboard.
+ */
+@Name("com.crio.codehackcontest.LeaderBoardBuild")
+@Label("Leaderboard Build")
+@Category({"CodeHack", "Leaderboard"})
+@Description("Loading and ranking the participants of a contest")
+public class LeaderBoardBuildEvent extends Event {
+    @Label("Contest Id")
+    public String contestId;
+
+    @Label("Participants")
+    public int participants;
+}
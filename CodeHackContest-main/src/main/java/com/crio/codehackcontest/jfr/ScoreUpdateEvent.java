@@ -0,0 +1,25 @@
+package com.crio.codehackcontest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning a user score update, including badge computation and persistence.
+ */
+@Name("com.crio.codehackcontest.ScoreUpdate")
+@Label("Score Update")
+@Category({"CodeHack", "User"})
+@Description("Updating the score and badges of a user")
+public class ScoreUpdateEvent extends Event {
+    @Label("User Id")
+    public String userId;
+
+    @Label("Old Score")
+    public int oldScore;
+
+    @Label("New Score")
+    public int newScore;
+}
@@ -1,10 +1,12 @@
 package com.crio.codehackcontest.model;
 
 import com.crio.codehackcontest.entity.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -14,4 +16,24 @@ public class LeaderBoard {
     private String id;
     private String name;
     private List<User> user;
+    // The rank of each participant, tied participants sharing one; only set where ranks are stored
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Integer> rank;
+
+    public LeaderBoard(String id, String name, List<User> user) {
+        this(id, name, user, null);
+    }
+
+    /**
+     * Returns one page of this leaderboard.
+     *
+     * @param offset the rank order position of the first participant, starting at 0
+     * @param limit  the maximum number of participants
+     * @return a new LeaderBoard holding the page
+     */
+    public LeaderBoard page(int offset, int limit) {
+        int from = Math.min(offset, user.size());
+        int to = Math.min(user.size(), from + limit);
+        return new LeaderBoard(id, name, new ArrayList<>(user.subList(from, to)), rank == null ? null : new ArrayList<>(rank.subList(from, to)));
+    }
 }
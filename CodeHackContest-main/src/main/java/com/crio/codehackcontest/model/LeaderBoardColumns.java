@@ -0,0 +1,44 @@
+package com.crio.codehackcontest.model;
+
+import com.crio.codehackcontest.exchange.UserFields;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The LeaderBoardColumns class is the columnar form of a {@link LeaderBoard}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LeaderBoardColumns {
+    private String id;
+    private String name;
+    private UserColumns user;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Integer> rank;
+
+    /**
+     * Converts a leaderboard to its columnar form.
+     *
+     * @param leaderBoard the leaderboard to convert
+     * @return the LeaderBoardColumns holding the same ranking
+     */
+    public static LeaderBoardColumns of(LeaderBoard leaderBoard) {
+        return of(leaderBoard, UserFields.ALL);
+    }
+
+    /**
+     * Converts a leaderboard to its columnar form, keeping only the requested user fields.
+     *
+     * @param leaderBoard the leaderboard to convert
+     * @param fields      the user fields to include
+     * @return the LeaderBoardColumns holding the same ranking
+     */
+    public static LeaderBoardColumns of(LeaderBoard leaderBoard, UserFields fields) {
+        return new LeaderBoardColumns(leaderBoard.getId(), leaderBoard.getName(), UserColumns.of(leaderBoard.getUser(), fields), leaderBoard.getRank());
+    }
+}
@@ -0,0 +1,21 @@
+package com.crio.codehackcontest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The ScorePoint class is one point of a user's score history.
+ *
+ * <p>{@code time} is the start of the bucket in epoch milliseconds, {@code score} the last score in
+ * the bucket, {@code min} and {@code max} the lowest and highest score in it.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScorePoint {
+    private long time;
+    private int score;
+    private int min;
+    private int max;
+}
@@ -0,0 +1,101 @@
+package com.crio.codehackcontest.model;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.index.ContestRanking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The ScoreStats class summarizes the score distribution of a contest.
+ *
+ * <p>{@code histogram[s]} is the number of participants with score {@code s}. Percentiles use the
+ * nearest-rank method: {@code p90} is the lowest score such that at least 90% of the participants
+ * have that score or less. Badge counts are taken from the badges the participants hold.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScoreStats {
+    private static final int[] PERCENTILES = {25, 50, 75, 90, 95, 99};
+
+    private String id;
+    private String name;
+    private int participants;
+    private double mean;
+    private int[] histogram;
+    private Map<String, Integer> percentiles;
+    private Map<Badges, Integer> badges;
+
+    /**
+     * Computes the statistics from score and badge counters.
+     *
+     * @param id          the ID of the contest
+     * @param name        the name of the contest
+     * @param histogram   the number of participants per score, indexed by score
+     * @param badgeCounts the number of participants holding each badge, indexed by {@link Badges#ordinal()}
+     * @return the ScoreStats of the contest
+     */
+    public static ScoreStats of(String id, String name, int[] histogram, int[] badgeCounts) {
+        int participants = 0;
+        long sum = 0;
+        for (int score = 0; score < histogram.length; score++) {
+            participants += histogram[score];
+            sum += (long) score * histogram[score];
+        }
+        Map<String, Integer> percentiles = new LinkedHashMap<>();
+        if (participants > 0) {
+            int score = 0;
+            long seen = histogram[0];
+            for (int percentile : PERCENTILES) {
+                long rank = Math.max(1, ((long) percentile * participants + 99) / 100);
+                while (seen < rank) {
+                    seen += histogram[++score];
+                }
+                percentiles.put("p" + percentile, score);
+            }
+        }
+        Map<Badges, Integer> badges = new EnumMap<>(Badges.class);
+        for (Badges badge : Badges.values()) {
+            badges.put(badge, badgeCounts[badge.ordinal()]);
+        }
+        return new ScoreStats(id, name, participants, participants == 0 ? 0 : (double) sum / participants, histogram, percentiles, badges);
+    }
+
+    /**
+     * Computes the statistics by counting a collection of participants.
+     *
+     * @param id    the ID of the contest
+     * @param name  the name of the contest
+     * @param users the participants
+     * @return the ScoreStats of the contest
+     */
+    public static ScoreStats of(String id, String name, Iterable<User> users) {
+        int[] histogram = new int[ContestRanking.MAX_SCORE + 1];
+        int[] badgeCounts = new int[Badges.values().length];
+        for (User user : users) {
+            histogram[Math.max(ContestRanking.MIN_SCORE, Math.min(ContestRanking.MAX_SCORE, user.getScore()))]++;
+            countBadges(user, badgeCounts, 1);
+        }
+        return of(id, name, histogram, badgeCounts);
+    }
+
+    /**
+     * Adds the badges of a participant to badge counters.
+     *
+     * @param user        the participant
+     * @param badgeCounts the counters, indexed by {@link Badges#ordinal()}
+     * @param delta       1 to count the participant, -1 to uncount it
+     */
+    private static void countBadges(User user, int[] badgeCounts, int delta) {
+        if (user.getBadges() != null) {
+            for (Badges badge : user.getBadges()) {
+                badgeCounts[badge.ordinal()] += delta;
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.crio.codehackcontest.model;
+
+import com.crio.codehackcontest.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.stream.Stream;
+
+/**
+ * The StreamingLeaderBoard class is a {@link LeaderBoard} whose participants are produced by a stream.
+ *
+ * <p>The stream may hold a database cursor and must be closed by the consumer.</p>
+ */
+@Data
+@AllArgsConstructor
+public class StreamingLeaderBoard {
+    private String id;
+    private String name;
+    private Stream<User> user;
+}
@@ -0,0 +1,55 @@
+package com.crio.codehackcontest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The SubsetLeaderBoard class ranks a group of users, such as a team or friends, within a contest.
+ *
+ * <p>The members keep the global leaderboard order. {@code missing} lists the requested user IDs
+ * that do not take part in the contest.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubsetLeaderBoard {
+    private String id;
+    private String name;
+    private List<SubsetStanding> user;
+    private List<String> missing;
+
+    /**
+     * Orders the members found in a contest by their global rank and ranks them among each other.
+     *
+     * @param contestId the ID of the contest
+     * @param name      the name of the contest
+     * @param standings the members found, with their global rank set
+     * @param requested the requested user IDs
+     * @return the SubsetLeaderBoard of the members
+     */
+    public static SubsetLeaderBoard of(String contestId, String name, List<SubsetStanding> standings, Collection<String> requested) {
+        standings.sort(Comparator.comparingInt(SubsetStanding::getGlobalRank).thenComparing(SubsetStanding::getUserid));
+        Set<String> found = new HashSet<>();
+        for (int i = 0; i < standings.size(); i++) {
+            SubsetStanding standing = standings.get(i);
+            SubsetStanding previous = i == 0 ? null : standings.get(i - 1);
+            standing.setRank(previous != null && previous.getGlobalRank() == standing.getGlobalRank() ? previous.getRank() : i + 1);
+            found.add(standing.getUserid());
+        }
+        List<String> missing = new ArrayList<>();
+        for (String userId : requested) {
+            if (!found.contains(userId)) {
+                missing.add(userId);
+            }
+        }
+        return new SubsetLeaderBoard("lb_for_contest_id_" + contestId, "LeaderBoard: " + name, standings, missing);
+    }
+}
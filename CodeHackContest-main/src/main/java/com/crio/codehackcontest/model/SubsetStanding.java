@@ -0,0 +1,25 @@
+package com.crio.codehackcontest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * The SubsetStanding class is one member of a subset leaderboard.
+ *
+ * <p>{@code globalRank} is the member's rank among all participants of the contest, {@code rank}
+ * its rank among the members of the subset. Both give tied scores the same rank.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubsetStanding {
+    private String userid;
+    private String username;
+    private int score;
+    private Set<Badges> badges;
+    private int rank;
+    private int globalRank;
+}
@@ -0,0 +1,71 @@
+package com.crio.codehackcontest.model;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.exchange.UserFields;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The UserColumns class is the columnar form of a list of users.
+ *
+ * <p>Instead of one object per user, every field is one array holding that field for all users, in
+ * the order of the original list. Field names are written once per response instead of once per
+ * user, which mostly pays off for large leaderboards. Columns that were not requested are left out.</p>
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserColumns {
+    private List<String> userid;
+    private List<String> username;
+    private int[] score;
+    private List<Set<Badges>> badges;
+
+    /**
+     * Converts a list of users to columns.
+     *
+     * @param users the users to convert
+     * @return the UserColumns holding the same users in the same order
+     */
+    public static UserColumns of(List<User> users) {
+        return of(users, UserFields.ALL);
+    }
+
+    /**
+     * Converts the requested fields of a list of users to columns.
+     *
+     * @param users  the users to convert
+     * @param fields the fields to include
+     * @return the UserColumns holding the same users in the same order
+     */
+    public static UserColumns of(List<User> users, UserFields fields) {
+        List<String> userid = fields.includes("userid") ? new ArrayList<>(users.size()) : null;
+        List<String> username = fields.includes("username") ? new ArrayList<>(users.size()) : null;
+        int[] score = fields.includes("score") ? new int[users.size()] : null;
+        List<Set<Badges>> badges = fields.includes("badges") ? new ArrayList<>(users.size()) : null;
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (userid != null) {
+                userid.add(user.getUserid());
+            }
+            if (username != null) {
+                username.add(user.getUsername());
+            }
+            if (score != null) {
+                score[i] = user.getScore();
+            }
+            if (badges != null) {
+                badges.add(user.getBadges() != null ? user.getBadges() : new HashSet<>());
+            }
+        }
+        return new UserColumns(userid, username, score, badges);
+    }
+}
@@ -0,0 +1,16 @@
+package com.crio.codehackcontest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserScoreHistory {
+    private String userid;
+    private String resolution;
+    private List<ScorePoint> points;
+}
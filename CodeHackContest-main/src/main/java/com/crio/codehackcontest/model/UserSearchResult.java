@@ -0,0 +1,20 @@
+package com.crio.codehackcontest.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The UserSearchResult class is one user found by a username search.
+ *
+ * <p>{@code rank} is the user's current rank in the single contest, or null if the user does not take part.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSearchResult {
+    private String userid;
+    private String username;
+    private int score;
+    private Integer rank;
+}
@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * The ContestRepository interface provides data access methods for the Contest entity.
@@ -32,4 +33,11 @@ public interface ContestRepository extends MongoRepository<Contest, String> {
      */
     Optional<Contest> findContestByName(@NonNull String name);
 
+    /**
+     * Streams all contests from a cursor.
+     *
+     * @return the contests, to be closed by the caller
+     */
+    Stream<Contest> streamAllBy();
+
 }
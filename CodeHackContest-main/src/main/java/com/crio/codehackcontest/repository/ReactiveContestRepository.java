@@ -0,0 +1,12 @@
+package com.crio.codehackcontest.repository;
+
+import com.crio.codehackcontest.entity.Contest;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * The ReactiveContestRepository interface provides non-blocking data access methods for the Contest entity.
+ *
+ * <p>It is the reactive counterpart of {@link ContestRepository}.</p>
+ */
+public interface ReactiveContestRepository extends ReactiveMongoRepository<Contest, String> {
+}
@@ -0,0 +1,26 @@
+package com.crio.codehackcontest.repository;
+
+import com.crio.codehackcontest.entity.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * The ReactiveUserRepository interface provides non-blocking data access methods for the User entity.
+ *
+ * <p>It is the reactive counterpart of {@link UserRepository} and emits results as they arrive
+ * from the cursor instead of collecting them into a list first.</p>
+ */
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+
+    /**
+     * Streams the users with the given IDs in the requested order.
+     *
+     * @param userids the IDs of the users to find
+     * @param sort    the order in which MongoDB returns the users
+     * @return a Flux emitting the matching users
+     */
+    Flux<User> findByUseridIn(Collection<String> userids, Sort sort);
+}
@@ -6,7 +6,8 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 /**
  * The UserRepository interface provides data access methods for the User entity.
  *
- * <p>It extends MongoRepository to inherit basic CRUD operations for User objects.</p>
+ * <p>It extends MongoRepository to inherit basic CRUD operations for User objects, and
+ * {@link UserRepositoryCustom} for queries loading only some fields.</p>
  */
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
 }
@@ -0,0 +1,50 @@
+package com.crio.codehackcontest.repository;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.utils.RankingPolicy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The UserRepositoryCustom interface provides User queries that load only some fields of each document.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Finds all users, loading only the given fields.
+     *
+     * @param fields the names of the properties to load; the ID is always loaded
+     * @return the users with all other properties left at their defaults
+     */
+    List<User> findAllWithFields(Collection<String> fields);
+
+    /**
+     * Finds the users with the given IDs, loading only the given fields.
+     *
+     * @param ids    the IDs of the users to find
+     * @param fields the names of the properties to load; the ID is always loaded
+     * @return the found users with all other properties left at their defaults
+     */
+    List<User> findAllByIdWithFields(Collection<String> ids, Collection<String> fields);
+
+    /**
+     * Streams all users from a cursor in leaderboard order, loading only the given fields.
+     *
+     * @param fields the names of the properties to load; the ID is always loaded
+     * @param policy the policy ordering users with the same score
+     * @return the users, to be closed by the caller
+     */
+    Stream<User> streamAllRankedWithFields(Collection<String> fields, RankingPolicy policy);
+
+    /**
+     * Streams the users with the given IDs from a cursor in leaderboard order, loading only the given fields.
+     *
+     * @param ids    the IDs of the users to find
+     * @param fields the names of the properties to load; the ID is always loaded
+     * @param policy the policy ordering users with the same score
+     * @return the found users, to be closed by the caller
+     */
+    Stream<User> streamAllByIdRankedWithFields(Collection<String> ids, Collection<String> fields, RankingPolicy policy);
+}
@@ -0,0 +1,52 @@
+package com.crio.codehackcontest.repository;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The UserRepositoryCustomImpl class implements {@link UserRepositoryCustom} with MongoDB projections.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    // Documents fetched per round trip by the streaming queries, which bounds what a stream holds in memory
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<User> findAllWithFields(Collection<String> fields) {
+        return mongoTemplate.find(project(new Query(), fields), User.class);
+    }
+
+    @Override
+    public List<User> findAllByIdWithFields(Collection<String> ids, Collection<String> fields) {
+        return mongoTemplate.find(project(new Query(Criteria.where("_id").in(ids)), fields), User.class);
+    }
+
+    @Override
+    public Stream<User> streamAllRankedWithFields(Collection<String> fields, RankingPolicy policy) {
+        Query query = project(new Query(), fields).with(policy.sort()).cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, User.class);
+    }
+
+    @Override
+    public Stream<User> streamAllByIdRankedWithFields(Collection<String> ids, Collection<String> fields, RankingPolicy policy) {
+        Query query = project(new Query(Criteria.where("_id").in(ids)), fields).with(policy.sort()).cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, User.class);
+    }
+
+    private static Query project(Query query, Collection<String> fields) {
+        fields.forEach(field -> query.fields().include(field));
+        return query;
+    }
+}
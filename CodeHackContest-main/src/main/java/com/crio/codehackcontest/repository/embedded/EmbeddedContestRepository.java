@@ -0,0 +1,91 @@
+package com.crio.codehackcontest.repository.embedded;
+
+import com.crio.codehackcontest.entity.Contest;
+import com.crio.codehackcontest.repository.ContestRepository;
+import lombok.NonNull;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The EmbeddedContestRepository class implements {@link ContestRepository} on top of the {@link EmbeddedStore}.
+ */
+@Repository
+@Profile("embedded")
+public class EmbeddedContestRepository extends EmbeddedRepositorySupport<Contest> implements ContestRepository {
+    private final EmbeddedStore store;
+
+    public EmbeddedContestRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected String idOf(Contest contest) {
+        return contest.getId();
+    }
+
+    @Override
+    public void deleteAllExceptSingleContest(String name) {
+        store.deleteContestsExcept(name);
+    }
+
+    @Override
+    public Optional<Contest> findContestByName(@NonNull String name) {
+        return Optional.ofNullable(store.findContestByName(name));
+    }
+
+    @Override
+    public Stream<Contest> streamAllBy() {
+        return store.findContests(null).stream();
+    }
+
+    @Override
+    public <S extends Contest> List<S> saveAll(Iterable<S> contests) {
+        List<S> list = toList(contests);
+        store.saveContests(list);
+        return list;
+    }
+
+    @Override
+    public Optional<Contest> findById(String id) {
+        return Optional.ofNullable(store.findContest(id));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return store.findContest(id) != null;
+    }
+
+    @Override
+    public List<Contest> findAll() {
+        return store.findContests(null);
+    }
+
+    @Override
+    public List<Contest> findAllById(Iterable<String> ids) {
+        return store.findContests(toList(ids));
+    }
+
+    @Override
+    public long count() {
+        return store.contestCount();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.deleteContests(List.of(id));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        store.deleteContests(toList(ids));
+    }
+
+    @Override
+    public void deleteAll() {
+        store.deleteAllContests();
+    }
+}
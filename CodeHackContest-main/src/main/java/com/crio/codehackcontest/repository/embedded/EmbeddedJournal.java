@@ -0,0 +1,253 @@
+package com.crio.codehackcontest.repository.embedded;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * The EmbeddedJournal class is the append-only write-ahead log of the embedded storage.
+ *
+ * <p>Every record is framed as {@code [int length][int crc32][payload]}. Appending only copies the
+ * record into a buffer; a background thread writes the buffer and forces it to disk, covering every
+ * record appended meanwhile with one {@code fsync} (group commit). Writers wait for the fsync that
+ * covers their record with {@link #awaitDurable(long)}.</p>
+ *
+ * <p>If writing a batch fails, the file is truncated back to the end of the last durable batch and
+ * the writers of the failed batch get the error; later records are written as usual. Only if the
+ * file cannot be truncated does the journal refuse all further records.</p>
+ *
+ * <p>{@link #replay(Path, boolean, Consumer)} reads the records back. The newest journal may end in a
+ * write torn by a crash, which is truncated; anywhere else a damaged record fails the replay.</p>
+ */
+class EmbeddedJournal implements AutoCloseable {
+    private static final int HEADER_BYTES = 8;
+
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final Counter fsyncs;
+    private final Thread flusher;
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedSequence;
+    private long durableSequence;
+    // The size of the file up to the end of the last durable batch
+    private long durableSize;
+    // The sequence ranges of the batches that failed, first to last sequence
+    private final TreeMap<Long, Long> failedBatches = new TreeMap<>();
+    private IOException lastFailure;
+    // Set once a failed batch could not be removed from the file; no record is accepted after that
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Opens a journal file for appending and starts its flusher thread.
+     *
+     * @param file   the journal file, created if missing
+     * @param fsync  whether each batch is forced to disk before writers are released
+     * @param fsyncs counts the batches forced to disk
+     * @throws IOException if the file cannot be opened
+     */
+    EmbeddedJournal(Path file, boolean fsync, Counter fsyncs) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.fsync = fsync;
+        this.fsyncs = fsyncs;
+        this.durableSize = channel.size();
+        this.flusher = Thread.ofPlatform().daemon().name("embedded-journal-" + file.getFileName()).start(this::flushLoop);
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param payload the record
+     * @return the sequence number to wait for with {@link #awaitDurable(long)}
+     */
+    synchronized long append(byte[] payload) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("The journal is unusable after a failed write", failure);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(payload.length).putInt((int) crc.getValue());
+        pending.write(header.array(), 0, HEADER_BYTES);
+        pending.write(payload, 0, payload.length);
+        appendedSequence++;
+        notifyAll();
+        return appendedSequence;
+    }
+
+    /**
+     * Waits until a record has been written and, if enabled, forced to disk.
+     *
+     * @param sequence the sequence number returned by {@link #append(byte[])}
+     * @throws UncheckedIOException if the batch holding the record could not be written
+     */
+    synchronized void awaitDurable(long sequence) {
+        boolean interrupted = false;
+        while (durableSequence < sequence && !failed(sequence) && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failed(sequence)) {
+            throw new UncheckedIOException("Writing the journal failed", lastFailure);
+        }
+        if (durableSequence < sequence) {
+            throw new UncheckedIOException("Writing the journal failed", failure);
+        }
+    }
+
+    private boolean failed(long sequence) {
+        Map.Entry<Long, Long> batch = failedBatches.floorEntry(sequence);
+        return batch != null && batch.getValue() >= sequence;
+    }
+
+    /**
+     * Flushes the remaining records, stops the flusher thread and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            ByteArrayOutputStream batch;
+            long first;
+            long sequence;
+            synchronized (this) {
+                while (pending.size() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                if (pending.size() == 0) {
+                    return;
+                }
+                batch = pending;
+                first = durableSequence + 1;
+                sequence = appendedSequence;
+                pending = new ByteArrayOutputStream();
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsync) {
+                    channel.force(false);
+                    fsyncs.increment();
+                }
+                durableSize += batch.size();
+                synchronized (this) {
+                    durableSequence = sequence;
+                    notifyAll();
+                }
+            } catch (IOException e) {
+                boolean discarded = discardFailedBatch(e);
+                synchronized (this) {
+                    failedBatches.put(first, sequence);
+                    // Moved past the failed batch so the next batch starts after it; its writers see it in failedBatches
+                    durableSequence = sequence;
+                    lastFailure = e;
+                    if (!discarded) {
+                        failure = e;
+                    }
+                    notifyAll();
+                }
+                if (!discarded) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to cut a partly written batch off the file, so the records after it can still be replayed.
+     *
+     * @param cause the error the batch failed with; a failure to truncate is added to it
+     * @return true if the file ends after the last durable batch again
+     */
+    private boolean discardFailedBatch(IOException cause) {
+        try {
+            channel.truncate(durableSize);
+            if (fsync) {
+                channel.force(false);
+            }
+            return true;
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            return false;
+        }
+    }
+
+    /**
+     * Replays the records of a journal file.
+     *
+     * @param file         the journal file
+     * @param truncateTail whether this is the newest journal, whose damaged tail is a write torn by a
+     *                     crash and is truncated; in older journals a damaged record is an error
+     * @param consumer     receives the payload of every complete record, in order
+     * @return the number of records replayed
+     * @throws IOException if the file cannot be read, or it is an older journal with a damaged record
+     */
+    static long replay(Path file, boolean truncateTail, Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long records = 0;
+            while (data.remaining() >= HEADER_BYTES) {
+                int start = data.position();
+                int length = data.getInt();
+                int expected = data.getInt();
+                if (length < 0 || length > data.remaining()) {
+                    data.position(start);
+                    break;
+                }
+                ByteBuffer payload = data.slice(data.position(), length);
+                CRC32 crc = new CRC32();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != expected) {
+                    data.position(start);
+                    break;
+                }
+                consumer.accept(payload);
+                data.position(data.position() + length);
+                records++;
+            }
+            if (data.position() < channel.size()) {
+                if (!truncateTail) {
+                    throw new IOException("Journal " + file + " is damaged at offset " + data.position() + " and is not the newest journal");
+                }
+                channel.truncate(data.position());
+            }
+            return records;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.crio.codehackcontest.repository.embedded;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The EmbeddedRepositorySupport class implements the generic {@link MongoRepository} operations for the embedded storage.
+ *
+ * <p>Subclasses provide the basic reads and writes against the {@link EmbeddedStore}; everything
+ * else is derived from them here. The embedded storage has no query engine, so sorting and
+ * query-by-example are not supported and throw {@link UnsupportedOperationException}. The services
+ * do not use them.</p>
+ *
+ * @param <T> the entity type
+ */
+public abstract class EmbeddedRepositorySupport<T> implements MongoRepository<T, String> {
+
+    /**
+     * Returns the ID of an entity.
+     *
+     * @param entity the entity
+     * @return its ID, or null if it has not been saved yet
+     */
+    protected abstract String idOf(T entity);
+
+    @Override
+    public <S extends T> S save(S entity) {
+        saveAll(List.of(entity));
+        return entity;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        insert(List.of(entity));
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> list = toList(entities);
+        for (S entity : list) {
+            String id = idOf(entity);
+            if (id != null && existsById(id)) {
+                throw new DuplicateKeyException("Duplicate ID: " + id);
+            }
+        }
+        return saveAll(list);
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf(entity));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        List<String> ids = new ArrayList<>();
+        entities.forEach(entity -> ids.add(idOf(entity)));
+        deleteAllById(ids);
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        if (sort.isSorted()) {
+            throw new UnsupportedOperationException("Sorting is not supported by the embedded storage");
+        }
+        return findAll();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        List<T> all = findAll(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all, pageable, all.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw unsupportedExample();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw unsupportedExample();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupportedExample();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupportedExample();
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw unsupportedExample();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw unsupportedExample();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupportedExample();
+    }
+
+    /**
+     * Helper method to copy an Iterable into a list.
+     *
+     * @param values the values
+     * @param <V>    the value type
+     * @return a new list with the values
+     */
+    protected static <V> List<V> toList(Iterable<? extends V> values) {
+        List<V> list = new ArrayList<>();
+        values.forEach(list::add);
+        return list;
+    }
+
+    private static UnsupportedOperationException unsupportedExample() {
+        return new UnsupportedOperationException("Query by example is not supported by the embedded storage");
+    }
+}
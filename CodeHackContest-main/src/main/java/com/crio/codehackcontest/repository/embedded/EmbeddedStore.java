@@ -0,0 +1,1025 @@
+package com.crio.codehackcontest.repository.embedded;
+
+import com.crio.codehackcontest.entity.Contest;
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.model.Badges;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import com.crio.codehackcontest.utils.StringIntHashMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The EmbeddedStore class keeps all users and contests in memory and makes them durable on local disk.
+ *
+ * <p>Users are stored column by column: a {@link StringIntHashMap} maps each user ID to a slot, and
+ * the username, score, badges and time the score was reached of the slot live in plain arrays, with
+ * the badges packed into one byte. Contests are kept as private copies of the entities. Reads copy the requested fields out
+ * under a shared lock, so callers may modify what they get back.</p>
+ *
+ * <p>Every write is encoded as one journal record and appended to the {@link EmbeddedJournal}. Only
+ * once the record is on disk is it applied to memory, briefly under the write lock, so readers never
+ * see a write that could still be lost. A write whose record cannot be written fails and leaves
+ * memory untouched. Writers only take turns to encode and append their records and then wait for
+ * the disk together, so concurrent writes share one {@code fsync} (group commit); the records are
+ * applied in the order they were appended. Writes whose encoding depends on the current state, such
+ * as deletes and contest saves, first wait until every earlier record has been applied. A bulk save
+ * is one record. Saving a contest that only gained or lost participants journals just those IDs
+ * rather than the whole participant list.</p>
+ *
+ * <p>Once enough records have accumulated, a snapshot of the whole state is written to
+ * {@code snapshot-<generation>.bin} and the journal moves on to a new generation. The previous
+ * snapshot and the journals from its generation on are kept as a fallback; older files are deleted.
+ * On startup the newest readable snapshot whose later journals are all present is loaded and those
+ * journals are replayed, discarding a record torn by a crash at the end of the newest one. If no
+ * snapshot qualifies, or an older journal is damaged, startup fails instead of losing data.</p>
+ *
+ * <p>Recovery, the journal and the periodic snapshots are started by {@link #start()}.</p>
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedStore {
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedStore.class);
+    private static final Pattern DATA_FILE = Pattern.compile("(snapshot|journal)-(\\d+)\\.(bin|log)");
+    private static final int SNAPSHOT_MAGIC = 0x43485353;
+    private static final int SNAPSHOT_VERSION = 2;
+    // Snapshots of this version lack the time each score was reached
+    private static final int SNAPSHOT_VERSION_WITHOUT_IMPROVED = 1;
+    // Badge mask of a user whose badge set is null rather than empty
+    private static final byte NULL_BADGES = (byte) 0x80;
+    private static final Badges[] BADGES = Badges.values();
+
+    // Journal operations
+    private static final byte PUT_USER = 1;
+    private static final byte DELETE_USER = 2;
+    private static final byte DELETE_ALL_USERS = 3;
+    private static final byte PUT_CONTEST = 4;
+    private static final byte ADD_PARTICIPANTS = 5;
+    private static final byte REMOVE_PARTICIPANTS = 6;
+    private static final byte DELETE_CONTEST = 7;
+    private static final byte DELETE_ALL_CONTESTS = 8;
+    // PUT_USER followed by the time the score was reached; older PUT_USER records are still replayed
+    private static final byte PUT_USER_IMPROVED = 9;
+
+    private final Path dataDir;
+    private final boolean fsync;
+    private final long snapshotIntervalMs;
+    private final long snapshotMinRecords;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held by a writer while encoding and appending its record, and while the journal is rotated
+    private final ReentrantLock writeOrder = new ReentrantLock();
+    // The number of records appended, guarded by writeOrder
+    private long appendedRecords;
+    // The number of records applied or failed, guarded by applyOrder; records are applied in append order
+    private final Object applyOrder = new Object();
+    private long appliedRecords;
+    private final Counter journalFsyncs;
+    private final MeterRegistry meterRegistry;
+    private final Timer snapshotDuration;
+    private ScheduledExecutorService snapshotScheduler;
+
+    private final StringIntHashMap userSlots = new StringIntHashMap();
+    private String[] ids = new String[16];
+    private String[] names = new String[16];
+    private int[] scores = new int[16];
+    private byte[] badges = new byte[16];
+    private long[] improved = new long[16];
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private final LinkedHashMap<String, Contest> contests = new LinkedHashMap<>();
+
+    private EmbeddedJournal journal;
+    private long generation;
+    private volatile long recordsSinceSnapshot;
+    private boolean closed;
+
+    public EmbeddedStore(Path dataDir, boolean fsync, long snapshotIntervalMs, long snapshotMinRecords) {
+        this(dataDir, fsync, snapshotIntervalMs, snapshotMinRecords, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Constructs an EmbeddedStore; {@link #start()} recovers its data.
+     *
+     * @param dataDir            the directory holding the snapshots and journals
+     * @param fsync              whether writes wait until the journal is forced to disk
+     * @param snapshotIntervalMs how often to check whether a snapshot is due, in milliseconds; 0 disables periodic snapshots
+     * @param snapshotMinRecords the number of journal records after which a snapshot is taken
+     * @param meterRegistry      the registry the snapshots and journal are reported to
+     */
+    @Autowired
+    public EmbeddedStore(@Value("${codehack.embedded.data-dir:data/embedded}") Path dataDir,
+                         @Value("${codehack.embedded.fsync:true}") boolean fsync,
+                         @Value("${codehack.embedded.snapshot.interval-ms:60000}") long snapshotIntervalMs,
+                         @Value("${codehack.embedded.snapshot.min-records:10000}") long snapshotMinRecords,
+                         MeterRegistry meterRegistry) {
+        this.dataDir = dataDir;
+        this.fsync = fsync;
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        this.snapshotMinRecords = snapshotMinRecords;
+        this.meterRegistry = meterRegistry;
+        this.snapshotDuration = meterRegistry.timer("codehack.embedded.snapshot.duration");
+        this.journalFsyncs = meterRegistry.counter("codehack.embedded.journal.fsyncs");
+    }
+
+    /**
+     * Recovers the data found in the directory, opens the journal and schedules the periodic snapshots.
+     *
+     * @throws UncheckedIOException if the data cannot be recovered completely
+     */
+    @PostConstruct
+    public void start() {
+        lock.writeLock().lock();
+        try {
+            if (journal != null) {
+                return;
+            }
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Recovering the embedded store from " + dataDir + " failed", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Gauge.builder("codehack.embedded.records.since-snapshot", this, store -> store.recordsSinceSnapshot).register(meterRegistry);
+        if (snapshotIntervalMs > 0) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("embedded-snapshot").factory());
+            snapshotScheduler.scheduleWithFixedDelay(this::snapshotIfDue, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the current state and starts a new journal generation.
+     *
+     * <p>Writers are only blocked while the state is copied and the journal is rotated; the snapshot
+     * file itself is written afterwards.</p>
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void snapshot() throws IOException {
+        long start = System.nanoTime();
+        long snapshotGeneration;
+        String[] idsCopy;
+        String[] namesCopy;
+        int[] scoresCopy;
+        byte[] badgesCopy;
+        long[] improvedCopy;
+        List<Contest> contestsCopy = new ArrayList<>();
+        writeOrder.lock();
+        awaitApplied(appendedRecords);
+        lock.writeLock().lock();
+        try {
+            if (closed || journal == null) {
+                return;
+            }
+            idsCopy = Arrays.copyOf(ids, slotCount);
+            namesCopy = Arrays.copyOf(names, slotCount);
+            scoresCopy = Arrays.copyOf(scores, slotCount);
+            badgesCopy = Arrays.copyOf(badges, slotCount);
+            improvedCopy = Arrays.copyOf(improved, slotCount);
+            contests.values().forEach(contest -> contestsCopy.add(copyOf(contest)));
+            journal.close();
+            generation++;
+            journal = new EmbeddedJournal(journalFile(generation), fsync, journalFsyncs);
+            recordsSinceSnapshot = 0;
+            snapshotGeneration = generation;
+        } finally {
+            lock.writeLock().unlock();
+            writeOrder.unlock();
+        }
+
+        int userTotal = (int) Arrays.stream(idsCopy).filter(id -> id != null).count();
+        Path tmp = dataDir.resolve(String.format("snapshot-%016d.tmp", snapshotGeneration));
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(snapshotGeneration);
+            out.writeInt(userTotal);
+            for (int slot = 0; slot < idsCopy.length; slot++) {
+                if (idsCopy[slot] != null) {
+                    out.writeUTF(idsCopy[slot]);
+                    writeString(out, namesCopy[slot]);
+                    out.writeInt(scoresCopy[slot]);
+                    out.writeByte(badgesCopy[slot]);
+                    out.writeLong(improvedCopy[slot]);
+                }
+            }
+            out.writeInt(contestsCopy.size());
+            for (Contest contest : contestsCopy) {
+                out.writeUTF(contest.getId());
+                writeString(out, contest.getName());
+                writeIds(out, contest.getParticipantsId());
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+            file.getFD().sync();
+        }
+        Files.move(tmp, snapshotFile(snapshotGeneration), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        // Keep the previous snapshot and the journals after it, in case the new snapshot cannot be read
+        Long previous = listDataFiles("snapshot").lowerKey(snapshotGeneration);
+        long keepFrom = previous != null ? previous : 0;
+        for (Map.Entry<Long, Path> file : listDataFiles("snapshot").headMap(keepFrom).entrySet()) {
+            Files.deleteIfExists(file.getValue());
+        }
+        for (Map.Entry<Long, Path> file : listDataFiles("journal").headMap(keepFrom).entrySet()) {
+            Files.deleteIfExists(file.getValue());
+        }
+        snapshotDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("Embedded store snapshot {} written: {} users, {} contests", snapshotGeneration, userTotal, contestsCopy.size());
+    }
+
+    /**
+     * Stops the periodic snapshots, writes a final snapshot and closes the journal.
+     */
+    @PreDestroy
+    public void close() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+        if (recordsSinceSnapshot > 0) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                log.warn("Writing the final snapshot failed, the journal will be replayed on restart: {}", e.getMessage());
+            }
+        }
+        closeJournal();
+    }
+
+    /**
+     * Closes the journal without writing a snapshot, so the next start replays it. Later writes fail.
+     */
+    public void closeJournal() {
+        writeOrder.lock();
+        awaitApplied(appendedRecords);
+        lock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                if (journal != null) {
+                    journal.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+            writeOrder.unlock();
+        }
+    }
+
+    // ---- Users ----
+
+    /**
+     * Returns the number of users.
+     *
+     * @return the number of users
+     */
+    int userCount() {
+        lock.readLock().lock();
+        try {
+            return userSlots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a user exists.
+     *
+     * @param id the ID of the user
+     * @return true if the user exists
+     */
+    boolean containsUser(String id) {
+        lock.readLock().lock();
+        try {
+            return userSlots.get(id) != StringIntHashMap.NO_VALUE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of a user.
+     *
+     * @param id the ID of the user
+     * @return the user, or null if it does not exist
+     */
+    User findUser(String id) {
+        lock.readLock().lock();
+        try {
+            int slot = userSlots.get(id);
+            return slot == StringIntHashMap.NO_VALUE ? null : materialize(slot, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns copies of users.
+     *
+     * @param userIds the IDs of the users to return, or null for all users
+     * @param fields  the properties to copy besides the ID, or null for all of them
+     * @param ranking the policy to put the users in leaderboard order with, or null to keep slot order
+     * @return the existing users, in slot order unless ranked
+     */
+    List<User> findUsers(Collection<String> userIds, Collection<String> fields, RankingPolicy ranking) {
+        lock.readLock().lock();
+        try {
+            List<Integer> slots = new ArrayList<>(userIds != null ? userIds.size() : userSlots.size());
+            if (userIds == null) {
+                for (int slot = 0; slot < slotCount; slot++) {
+                    if (ids[slot] != null) {
+                        slots.add(slot);
+                    }
+                }
+            } else {
+                for (String id : new LinkedHashSet<>(userIds)) {
+                    int slot = id == null ? StringIntHashMap.NO_VALUE : userSlots.get(id);
+                    if (slot != StringIntHashMap.NO_VALUE) {
+                        slots.add(slot);
+                    }
+                }
+            }
+            if (ranking != null) {
+                slots.sort(Comparator.<Integer>comparingLong(slot -> ranking.key(scores[slot], improved[slot])).thenComparing(slot -> ids[slot]));
+            }
+            List<User> users = new ArrayList<>(slots.size());
+            for (int slot : slots) {
+                users.add(materialize(slot, fields));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces users, assigning an ID to users without one.
+     *
+     * @param users the users to save
+     */
+    void saveUsers(Collection<? extends User> users) {
+        write(false, out -> {
+            for (User user : users) {
+                if (user.getUserid() == null) {
+                    user.setUserid(new ObjectId().toHexString());
+                }
+                out.writeByte(PUT_USER_IMPROVED);
+                out.writeUTF(user.getUserid());
+                writeString(out, user.getUsername());
+                out.writeInt(user.getScore());
+                out.writeByte(badgeMask(user.getBadges()));
+                out.writeLong(user.getLastImproved());
+            }
+        });
+    }
+
+    /**
+     * Deletes users. Unknown IDs are ignored.
+     *
+     * @param userIds the IDs of the users to delete
+     */
+    void deleteUsers(Collection<String> userIds) {
+        write(true, out -> {
+            for (String id : userIds) {
+                if (id != null && userSlots.get(id) != StringIntHashMap.NO_VALUE) {
+                    out.writeByte(DELETE_USER);
+                    out.writeUTF(id);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes all users.
+     */
+    void deleteAllUsers() {
+        write(false, out -> out.writeByte(DELETE_ALL_USERS));
+    }
+
+    // ---- Contests ----
+
+    /**
+     * Returns the number of contests.
+     *
+     * @return the number of contests
+     */
+    int contestCount() {
+        lock.readLock().lock();
+        try {
+            return contests.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of a contest.
+     *
+     * @param id the ID of the contest
+     * @return the contest, or null if it does not exist
+     */
+    Contest findContest(String id) {
+        lock.readLock().lock();
+        try {
+            Contest contest = contests.get(id);
+            return contest == null ? null : copyOf(contest);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the first contest with the given name.
+     *
+     * @param name the name of the contest
+     * @return the contest, or null if there is none
+     */
+    Contest findContestByName(String name) {
+        lock.readLock().lock();
+        try {
+            for (Contest contest : contests.values()) {
+                if (name.equals(contest.getName())) {
+                    return copyOf(contest);
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns copies of contests.
+     *
+     * @param contestIds the IDs of the contests to return, or null for all contests
+     * @return the existing contests, in insertion order for all contests
+     */
+    List<Contest> findContests(Collection<String> contestIds) {
+        lock.readLock().lock();
+        try {
+            List<Contest> found = new ArrayList<>();
+            if (contestIds == null) {
+                contests.values().forEach(contest -> found.add(copyOf(contest)));
+            } else {
+                for (String id : new HashSet<>(contestIds)) {
+                    Contest contest = id == null ? null : contests.get(id);
+                    if (contest != null) {
+                        found.add(copyOf(contest));
+                    }
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces contests, assigning an ID to contests without one.
+     *
+     * @param saved the contests to save
+     */
+    void saveContests(Collection<? extends Contest> saved) {
+        write(true, out -> {
+            for (Contest contest : saved) {
+                if (contest.getId() == null) {
+                    contest.setId(new ObjectId().toHexString());
+                }
+                writeContestChange(out, contest);
+            }
+        });
+    }
+
+    /**
+     * Deletes contests. Unknown IDs are ignored.
+     *
+     * @param contestIds the IDs of the contests to delete
+     */
+    void deleteContests(Collection<String> contestIds) {
+        write(true, out -> {
+            for (String id : contestIds) {
+                if (id != null && contests.containsKey(id)) {
+                    out.writeByte(DELETE_CONTEST);
+                    out.writeUTF(id);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes all contests except those with the given name.
+     *
+     * @param name the name of the contests to keep
+     */
+    void deleteContestsExcept(String name) {
+        write(true, out -> {
+            for (Contest contest : contests.values()) {
+                if (!name.equals(contest.getName())) {
+                    out.writeByte(DELETE_CONTEST);
+                    out.writeUTF(contest.getId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes all contests.
+     */
+    void deleteAllContests() {
+        write(false, out -> out.writeByte(DELETE_ALL_CONTESTS));
+    }
+
+    /**
+     * Helper method to journal a saved contest as the smallest change that reproduces it.
+     *
+     * @param out     the record being encoded
+     * @param contest the saved contest
+     * @throws IOException never, the record is written to memory
+     */
+    private void writeContestChange(DataOutputStream out, Contest contest) throws IOException {
+        Contest existing = contests.get(contest.getId());
+        List<String> participants = contest.getParticipantsId() != null ? contest.getParticipantsId() : List.of();
+        if (existing != null && existing.getName().equals(contest.getName())) {
+            List<String> current = existing.getParticipantsId();
+            if (participants.size() >= current.size() && participants.subList(0, current.size()).equals(current)) {
+                if (participants.size() > current.size()) {
+                    out.writeByte(ADD_PARTICIPANTS);
+                    out.writeUTF(contest.getId());
+                    writeIds(out, participants.subList(current.size(), participants.size()));
+                }
+                return;
+            }
+            Set<String> removed = new HashSet<>(current);
+            removed.removeAll(participants);
+            List<String> remaining = new ArrayList<>(current);
+            remaining.removeAll(removed);
+            if (remaining.equals(participants)) {
+                out.writeByte(REMOVE_PARTICIPANTS);
+                out.writeUTF(contest.getId());
+                writeIds(out, removed);
+                return;
+            }
+        }
+        out.writeByte(PUT_CONTEST);
+        out.writeUTF(contest.getId());
+        writeString(out, contest.getName());
+        writeIds(out, participants);
+    }
+
+    // ---- Journal records ----
+
+    /**
+     * The RecordEncoder interface writes the operations of one journal record.
+     */
+    @FunctionalInterface
+    private interface RecordEncoder {
+        void encode(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Helper method to encode and journal one record, wait until it is durable and then apply it to memory.
+     *
+     * <p>Writers take turns only to encode and append their records. They wait for the journal
+     * without holding the turn, so the records of concurrent writers are forced to disk together, and
+     * then apply them in the order they were appended. A record whose batch failed is skipped in that
+     * order. Readers are only held off while a record is applied.</p>
+     *
+     * @param readsState whether the encoder reads the current state, so every earlier record must be applied first
+     * @param encoder    writes the operations of the record
+     */
+    private void write(boolean readsState, RecordEncoder encoder) {
+        EmbeddedJournal appendedTo;
+        long journalSequence;
+        long sequence;
+        byte[] record;
+        writeOrder.lock();
+        try {
+            if (closed || journal == null) {
+                throw new IllegalStateException(closed ? "Embedded store is closed" : "Embedded store is not started");
+            }
+            if (readsState) {
+                awaitApplied(appendedRecords);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            encoder.encode(out);
+            out.flush();
+            if (bytes.size() == 0) {
+                return;
+            }
+            record = bytes.toByteArray();
+            journalSequence = journal.append(record);
+            appendedTo = journal;
+            sequence = ++appendedRecords;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeOrder.unlock();
+        }
+
+        RuntimeException failure = null;
+        try {
+            appendedTo.awaitDurable(journalSequence);
+        } catch (UncheckedIOException e) {
+            failure = e;
+        }
+        awaitApplied(sequence - 1);
+        try {
+            if (failure == null) {
+                lock.writeLock().lock();
+                try {
+                    apply(record);
+                    recordsSinceSnapshot++;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (IOException e) {
+            failure = new UncheckedIOException(e);
+        } finally {
+            synchronized (applyOrder) {
+                appliedRecords = sequence;
+                applyOrder.notifyAll();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Helper method to wait until the records up to a sequence number have been applied or have failed.
+     *
+     * @param sequence the sequence number of the last record to wait for
+     */
+    private void awaitApplied(long sequence) {
+        synchronized (applyOrder) {
+            boolean interrupted = false;
+            while (appliedRecords < sequence) {
+                try {
+                    applyOrder.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Helper method to apply the operations of one journal record to memory.
+     *
+     * @param record the encoded record
+     * @throws IOException if the record is malformed
+     */
+    private void apply(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        while (in.available() > 0) {
+            byte operation = in.readByte();
+            switch (operation) {
+                case PUT_USER -> putUser(in.readUTF(), readString(in), in.readInt(), in.readByte(), 0);
+                case PUT_USER_IMPROVED -> putUser(in.readUTF(), readString(in), in.readInt(), in.readByte(), in.readLong());
+                case DELETE_USER -> removeUser(in.readUTF());
+                case DELETE_ALL_USERS -> clearUsers();
+                case PUT_CONTEST -> {
+                    String id = in.readUTF();
+                    Contest contest = new Contest(readString(in), readIds(in));
+                    contest.setId(id);
+                    contests.put(id, contest);
+                }
+                case ADD_PARTICIPANTS -> {
+                    Contest contest = contests.get(in.readUTF());
+                    List<String> added = readIds(in);
+                    if (contest != null) {
+                        contest.getParticipantsId().addAll(added);
+                    }
+                }
+                case REMOVE_PARTICIPANTS -> {
+                    Contest contest = contests.get(in.readUTF());
+                    List<String> removed = readIds(in);
+                    if (contest != null) {
+                        contest.getParticipantsId().removeAll(new HashSet<>(removed));
+                    }
+                }
+                case DELETE_CONTEST -> contests.remove(in.readUTF());
+                case DELETE_ALL_CONTESTS -> contests.clear();
+                default -> throw new IOException("Unknown journal operation " + operation);
+            }
+        }
+    }
+
+    // ---- Recovery ----
+
+    /**
+     * Helper method to load the newest usable snapshot, replay the journals written after it and reopen the journal.
+     *
+     * <p>A snapshot is usable if it can be read and every journal generation from its own to the
+     * newest one is present. Without any usable snapshot the journals are replayed from generation 0,
+     * if they are all still there.</p>
+     *
+     * @throws IOException if the data directory cannot be read, or the data cannot be recovered completely
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(dataDir);
+        try (Stream<Path> files = Files.list(dataDir)) {
+            for (Path tmp : files.filter(file -> file.getFileName().toString().endsWith(".tmp")).toList()) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        TreeMap<Long, Path> journals = listDataFiles("journal");
+        long base = -1;
+        for (Map.Entry<Long, Path> snapshot : listDataFiles("snapshot").descendingMap().entrySet()) {
+            if (!journalsFrom(journals, snapshot.getKey())) {
+                log.warn("Skipping snapshot {}: journals written after it are missing", snapshot.getValue());
+                continue;
+            }
+            try {
+                loadSnapshot(snapshot.getValue());
+                base = snapshot.getKey();
+                break;
+            } catch (IOException e) {
+                log.warn("Skipping unreadable snapshot {}: {}", snapshot.getValue(), e.getMessage());
+                clearUsers();
+                contests.clear();
+            }
+        }
+        if (base < 0) {
+            if (!journalsFrom(journals, 0)) {
+                throw new IOException("No readable snapshot is followed by all later journals, and the journals before it were deleted");
+            }
+            base = 0;
+        }
+
+        long replayed = 0;
+        for (Map.Entry<Long, Path> file : journals.tailMap(base).entrySet()) {
+            replayed += EmbeddedJournal.replay(file.getValue(), file.getKey().equals(journals.lastKey()), this::applyReplayed);
+        }
+        generation = Math.max(base, journals.isEmpty() ? 0 : journals.lastKey());
+        journal = new EmbeddedJournal(journalFile(generation), fsync, journalFsyncs);
+        recordsSinceSnapshot = replayed;
+        log.info("Embedded store recovered from {}: snapshot {}, {} journal records, {} users, {} contests",
+                dataDir, base, replayed, userSlots.size(), contests.size());
+    }
+
+    /**
+     * Helper method to check that every journal generation from the given one to the newest is present.
+     *
+     * @param journals the journals by generation
+     * @param from     the first generation to replay
+     * @return true if no generation in between is missing
+     */
+    private static boolean journalsFrom(TreeMap<Long, Path> journals, long from) {
+        if (journals.isEmpty() || journals.lastKey() < from) {
+            return true;
+        }
+        for (long journalGeneration = from; journalGeneration <= journals.lastKey(); journalGeneration++) {
+            if (!journals.containsKey(journalGeneration)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void applyReplayed(ByteBuffer payload) {
+        byte[] record = new byte[payload.remaining()];
+        payload.get(record);
+        try {
+            apply(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void loadSnapshot(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        if (data.length < Long.BYTES) {
+            throw new IOException("Snapshot is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - Long.BYTES);
+        if (crc.getValue() != ByteBuffer.wrap(data, data.length - Long.BYTES, Long.BYTES).getLong()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - Long.BYTES));
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a snapshot");
+        }
+        int version = in.readInt();
+        if (version != SNAPSHOT_VERSION && version != SNAPSHOT_VERSION_WITHOUT_IMPROVED) {
+            throw new IOException("Not a snapshot of this version");
+        }
+        in.readLong();
+        for (int users = in.readInt(); users > 0; users--) {
+            putUser(in.readUTF(), readString(in), in.readInt(), in.readByte(), version == SNAPSHOT_VERSION ? in.readLong() : 0);
+        }
+        for (int count = in.readInt(); count > 0; count--) {
+            String id = in.readUTF();
+            Contest contest = new Contest(readString(in), readIds(in));
+            contest.setId(id);
+            contests.put(id, contest);
+        }
+    }
+
+    private void snapshotIfDue() {
+        if (recordsSinceSnapshot >= snapshotMinRecords) {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Writing a snapshot of the embedded store failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private TreeMap<Long, Path> listDataFiles(String kind) throws IOException {
+        TreeMap<Long, Path> found = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dataDir)) {
+            files.forEach(file -> {
+                Matcher matcher = DATA_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches() && matcher.group(1).equals(kind)) {
+                    found.put(Long.parseLong(matcher.group(2)), file);
+                }
+            });
+        }
+        return found;
+    }
+
+    private Path snapshotFile(long snapshotGeneration) {
+        return dataDir.resolve(String.format("snapshot-%016d.bin", snapshotGeneration));
+    }
+
+    private Path journalFile(long journalGeneration) {
+        return dataDir.resolve(String.format("journal-%016d.log", journalGeneration));
+    }
+
+    // ---- Columnar user slots ----
+
+    private void putUser(String id, String name, int score, byte badgeMask, long lastImproved) {
+        int slot = userSlots.get(id);
+        if (slot == StringIntHashMap.NO_VALUE) {
+            slot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : slotCount++;
+            if (slot == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                badges = Arrays.copyOf(badges, capacity);
+                improved = Arrays.copyOf(improved, capacity);
+            }
+            ids[slot] = id;
+            userSlots.put(id, slot);
+        }
+        names[slot] = name;
+        scores[slot] = score;
+        badges[slot] = badgeMask;
+        improved[slot] = lastImproved;
+    }
+
+    private void removeUser(String id) {
+        int slot = userSlots.remove(id);
+        if (slot == StringIntHashMap.NO_VALUE) {
+            return;
+        }
+        ids[slot] = null;
+        names[slot] = null;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private void clearUsers() {
+        userSlots.clear();
+        Arrays.fill(ids, 0, slotCount, null);
+        Arrays.fill(names, 0, slotCount, null);
+        slotCount = 0;
+        freeSlotCount = 0;
+    }
+
+    private User materialize(int slot, Collection<String> fields) {
+        User user = new User();
+        user.setUserid(ids[slot]);
+        if ((fields == null || fields.contains("username")) && names[slot] != null) {
+            user.setUsername(names[slot]);
+        }
+        if (fields == null || fields.contains("score")) {
+            user.setScore(scores[slot]);
+        }
+        if (fields == null || fields.contains("badges")) {
+            user.setBadges(badgesOf(badges[slot]));
+        }
+        if (fields == null || fields.contains("lastImproved")) {
+            user.setLastImproved(improved[slot]);
+        }
+        return user;
+    }
+
+    private static byte badgeMask(Set<Badges> set) {
+        if (set == null) {
+            return NULL_BADGES;
+        }
+        int mask = 0;
+        for (Badges badge : set) {
+            mask |= 1 << badge.ordinal();
+        }
+        return (byte) mask;
+    }
+
+    private static HashSet<Badges> badgesOf(byte mask) {
+        if (mask == NULL_BADGES) {
+            return null;
+        }
+        HashSet<Badges> set = new HashSet<>();
+        for (Badges badge : BADGES) {
+            if ((mask & (1 << badge.ordinal())) != 0) {
+                set.add(badge);
+            }
+        }
+        return set;
+    }
+
+    // ---- Encoding helpers ----
+
+    private static Contest copyOf(Contest contest) {
+        Contest copy = new Contest(contest.getName(), contest.getParticipantsId());
+        copy.setId(contest.getId());
+        return copy;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeIds(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readIds(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,101 @@
+package com.crio.codehackcontest.repository.embedded;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.repository.UserRepository;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The EmbeddedUserRepository class implements {@link UserRepository} on top of the {@link EmbeddedStore}.
+ *
+ * <p>The field-restricted queries only copy the requested columns out of the store, mirroring the
+ * MongoDB projections of {@link com.crio.codehackcontest.repository.UserRepositoryCustomImpl}. The
+ * ranked streams are backed by a list taken under one read lock.</p>
+ */
+@Repository
+@Profile("embedded")
+public class EmbeddedUserRepository extends EmbeddedRepositorySupport<User> implements UserRepository {
+    private final EmbeddedStore store;
+
+    public EmbeddedUserRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected String idOf(User user) {
+        return user.getUserid();
+    }
+
+    @Override
+    public <S extends User> List<S> saveAll(Iterable<S> users) {
+        List<S> list = toList(users);
+        store.saveUsers(list);
+        return list;
+    }
+
+    @Override
+    public Optional<User> findById(String id) {
+        return Optional.ofNullable(store.findUser(id));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return store.containsUser(id);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return store.findUsers(null, null, null);
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<String> ids) {
+        return store.findUsers(toList(ids), null, null);
+    }
+
+    @Override
+    public long count() {
+        return store.userCount();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.deleteUsers(List.of(id));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        store.deleteUsers(toList(ids));
+    }
+
+    @Override
+    public void deleteAll() {
+        store.deleteAllUsers();
+    }
+
+    @Override
+    public List<User> findAllWithFields(Collection<String> fields) {
+        return store.findUsers(null, fields, null);
+    }
+
+    @Override
+    public List<User> findAllByIdWithFields(Collection<String> ids, Collection<String> fields) {
+        return store.findUsers(ids, fields, null);
+    }
+
+    @Override
+    public Stream<User> streamAllRankedWithFields(Collection<String> fields, RankingPolicy policy) {
+        return store.findUsers(null, fields, policy).stream();
+    }
+
+    @Override
+    public Stream<User> streamAllByIdRankedWithFields(Collection<String> ids, Collection<String> fields, RankingPolicy policy) {
+        return store.findUsers(ids, fields, policy).stream();
+    }
+}
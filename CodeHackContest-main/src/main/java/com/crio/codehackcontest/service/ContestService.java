@@ -2,9 +2,16 @@ package com.crio.codehackcontest.service;
 
 import com.crio.codehackcontest.entity.Contest;
 import com.crio.codehackcontest.exchange.ContestRequest;
+import com.crio.codehackcontest.exchange.UserFields;
+import com.crio.codehackcontest.model.Badges;
 import com.crio.codehackcontest.model.LeaderBoard;
+import com.crio.codehackcontest.model.ScoreStats;
+import com.crio.codehackcontest.model.StreamingLeaderBoard;
+import com.crio.codehackcontest.model.SubsetLeaderBoard;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ContestService {
     Contest createContest(ContestRequest contestRequest);
@@ -17,8 +24,32 @@ public interface ContestService {
 
     List<Contest> getContests();
 
+    Stream<Contest> streamContests();
+
     void deleteContest(String id);
 
     LeaderBoard checkLeaderBoard(String id);
 
+    LeaderBoard checkLeaderBoard(String id, UserFields fields);
+
+    LeaderBoard checkLeaderBoard(String id, UserFields fields, int offset, int limit);
+
+    LeaderBoard checkLeaderBoard(String id, UserFields fields, Badges badge);
+
+    StreamingLeaderBoard streamLeaderBoard(String id, UserFields fields);
+
+    StreamingLeaderBoard streamLeaderBoard(String id, UserFields fields, Badges badge);
+
+    LeaderBoard checkLeaderBoardAsOf(String id, long asOf);
+
+    LeaderBoard checkLeaderBoardAsOf(String id, long asOf, Badges badge);
+
+    ScoreStats getScoreStats(String id);
+
+    SubsetLeaderBoard checkSubsetLeaderBoard(String id, Collection<String> userIds);
+
+    LeaderBoard finalizeContest(String id);
+
+    boolean isFinalized(String id);
+
 }
@@ -0,0 +1,25 @@
+package com.crio.codehackcontest.service;
+
+import com.crio.codehackcontest.entity.User;
+import reactor.core.publisher.Flux;
+
+/**
+ * The ReactiveReadService interface defines the non-blocking read operations for users and leaderboards.
+ */
+public interface ReactiveReadService {
+
+    /**
+     * Streams all users sorted by score in descending order.
+     *
+     * @return a Flux emitting every User {@link com.crio.codehackcontest.entity.User}
+     */
+    Flux<User> streamUsers();
+
+    /**
+     * Streams the leaderboard of a contest, highest score first.
+     *
+     * @param id the ID of the contest
+     * @return a Flux emitting the contest participants in rank order
+     */
+    Flux<User> streamLeaderBoard(String id);
+}
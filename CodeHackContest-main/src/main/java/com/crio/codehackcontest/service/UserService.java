@@ -2,9 +2,14 @@ package com.crio.codehackcontest.service;
 
 import com.crio.codehackcontest.entity.User;
 import com.crio.codehackcontest.exchange.UpdateUserRequest;
+import com.crio.codehackcontest.exchange.UserFields;
 import com.crio.codehackcontest.exchange.UserRequest;
+import com.crio.codehackcontest.history.Resolution;
+import com.crio.codehackcontest.model.UserScoreHistory;
+import com.crio.codehackcontest.model.UserSearchResult;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The UserService interface defines methods for managing user-related operations.
@@ -43,6 +48,42 @@ public interface UserService {
      */
     List<User> getUsers();
 
+    /**
+     * Retrieves all users, loading only the requested fields.
+     *
+     * @param fields {@link com.crio.codehackcontest.exchange.UserFields} the user fields to load
+     * @return a list of all User List<{@link com.crio.codehackcontest.entity.User}> objects with only those fields set
+     */
+    List<User> getUsers(UserFields fields);
+
+    /**
+     * Streams all users sorted by score from a database cursor, loading only the requested fields.
+     *
+     * @param fields {@link com.crio.codehackcontest.exchange.UserFields} the user fields to load
+     * @return a stream of User {@link com.crio.codehackcontest.entity.User} objects, to be closed by the caller
+     */
+    Stream<User> streamUsers(UserFields fields);
+
+    /**
+     * Finds users whose username starts with a prefix.
+     *
+     * @param prefix the prefix, matched case-insensitively
+     * @param limit  the maximum number of users to return
+     * @return the matching UserSearchResult List<{@link com.crio.codehackcontest.model.UserSearchResult}> objects in username order
+     */
+    List<UserSearchResult> searchUsers(String prefix, int limit);
+
+    /**
+     * Retrieves the score progression of a user.
+     *
+     * @param id         the ID of the user
+     * @param resolution {@link com.crio.codehackcontest.history.Resolution} the resolution of the points
+     * @param from       the start of the range, in epoch milliseconds, inclusive
+     * @param to         the end of the range, in epoch milliseconds, inclusive
+     * @return the UserScoreHistory {@link com.crio.codehackcontest.model.UserScoreHistory} of the user
+     */
+    UserScoreHistory getScoreHistory(String id, Resolution resolution, long from, long to);
+
     /**
      * Deletes a user by their ID.
      *
@@ -1,29 +1,102 @@
 package com.crio.codehackcontest.service.implementation;
 
+import com.crio.codehackcontest.archive.FinalStandings;
+import com.crio.codehackcontest.archive.StandingsArchive;
 import com.crio.codehackcontest.entity.Contest;
 import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.events.ScoreChange;
+import com.crio.codehackcontest.events.ScoreEventBus;
 import com.crio.codehackcontest.exchange.ContestRequest;
+import com.crio.codehackcontest.exchange.UserFields;
+import com.crio.codehackcontest.history.ScoreEventLog;
+import com.crio.codehackcontest.index.ContestRanking;
+import com.crio.codehackcontest.index.LeaderBoardIndex;
+import com.crio.codehackcontest.jfr.BulkOperationEvent;
+import com.crio.codehackcontest.jfr.LeaderBoardBuildEvent;
+import com.crio.codehackcontest.model.Badges;
 import com.crio.codehackcontest.model.LeaderBoard;
+import com.crio.codehackcontest.model.ScoreStats;
+import com.crio.codehackcontest.model.StreamingLeaderBoard;
+import com.crio.codehackcontest.model.SubsetLeaderBoard;
+import com.crio.codehackcontest.model.SubsetStanding;
 import com.crio.codehackcontest.repository.ContestRepository;
 import com.crio.codehackcontest.repository.UserRepository;
 import com.crio.codehackcontest.service.ContestService;
-import com.crio.codehackcontest.utils.UserScoreComparator;
+import com.crio.codehackcontest.utils.DetermineBadges;
+import com.crio.codehackcontest.utils.SingleFlight;
+import com.crio.codehackcontest.utils.ParallelRanker;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "codehack.service", histogram = true)
 public class ContestServiceImpl implements ContestService {
+    // The user fields loaded to count the score distribution without the index
+    private static final UserFields STATS_FIELDS = UserFields.parse("score,badges");
+    private static final UserFields SUBSET_FIELDS = UserFields.parse("userid,username,score,badges");
+    // Operations on fewer users are not bulk operations, e.g. adding a newly created user to the contest
+    private static final int MIN_BULK_ITEMS = 2;
+    // The number of locks the contest IDs are spread over
+    private static final int CONTEST_LOCK_STRIPES = 16;
+
     private final UserRepository userRepository;
     private final ContestRepository contestRepository;
+    private final LeaderBoardIndex leaderBoardIndex;
+    private final ScoreEventLog scoreEventLog;
+    private final StandingsArchive standingsArchive;
+    private final ScoreEventBus scoreEventBus;
+    private final MeterRegistry meterRegistry;
+    private final SingleFlight<String, LeaderBoard> leaderBoardBuilds = new SingleFlight<>("leaderboard.build");
+    private final ConcurrentHashMap<String, AtomicInteger> leaderBoardSizes = new ConcurrentHashMap<>();
+    private final ReentrantLock[] contestLocks = Stream.generate(ReentrantLock::new).limit(CONTEST_LOCK_STRIPES).toArray(ReentrantLock[]::new);
 
     public ContestServiceImpl(UserRepository userRepository, ContestRepository contestRepository) {
+        this(userRepository, contestRepository, new LeaderBoardIndex(), ScoreEventLog.disabled(), StandingsArchive.disabled());
+    }
+
+    public ContestServiceImpl(UserRepository userRepository, ContestRepository contestRepository, LeaderBoardIndex leaderBoardIndex,
+                              ScoreEventLog scoreEventLog, StandingsArchive standingsArchive) {
+        this(userRepository, contestRepository, leaderBoardIndex, scoreEventLog, standingsArchive, ScoreEventBus.disabled(), new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public ContestServiceImpl(UserRepository userRepository, ContestRepository contestRepository, LeaderBoardIndex leaderBoardIndex,
+                              ScoreEventLog scoreEventLog, StandingsArchive standingsArchive, ScoreEventBus scoreEventBus,
+                              MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.contestRepository = contestRepository;
+        this.leaderBoardIndex = leaderBoardIndex;
+        this.scoreEventLog = scoreEventLog;
+        this.standingsArchive = standingsArchive;
+        this.scoreEventBus = scoreEventBus;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("codehack.leaderboard.builds.inflight", leaderBoardBuilds, SingleFlight::inFlightCount).register(meterRegistry);
     }
 
     /**
@@ -34,55 +107,95 @@ public class ContestServiceImpl implements ContestService {
      */
     @Override
     public Contest createContest(ContestRequest contestRequest) {
-        List<String> participantsId = findAllValidExistingUser(contestRequest);
-        Optional<Contest> contest = contestRepository.findContestByName(contestRequest.getName());
-        if (contest.isEmpty()) {
-            return contestRepository.save(new Contest(contestRequest.getName(), participantsId));
-        } else {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Contest name already exists");
-        }
+        return leaderBoardIndex.withUserLocks(contestRequest.getParticipants(), () -> {
+            BulkOperationEvent event = new BulkOperationEvent();
+            event.begin();
+            Map<String, User> users = new LinkedHashMap<>();
+            List<String> participantsId = findAllValidExistingUser(contestRequest, users);
+            Optional<Contest> contest = contestRepository.findContestByName(contestRequest.getName());
+            if (contest.isEmpty()) {
+                Contest savedContest = contestRepository.save(new Contest(contestRequest.getName(), participantsId));
+                leaderBoardIndex.addContest(savedContest.getId(), savedContest.getName(), users.values());
+                scoreEventLog.recordJoined(savedContest.getId(), usernamesOf(users.values()));
+                scoreEventBus.publishMembership(ScoreChange.Type.JOINED, savedContest.getId(), participantsId);
+                commitBulkEvent(event, "createContest", savedContest.getId(), participantsId.size());
+                return savedContest;
+            } else {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Contest name already exists");
+            }
+        });
     }
 
     /**
      * Adds users to a contest by contest ID.
      *
+     * <p>The users are read and added to the leaderboard index under their user locks, so a score
+     * change racing with the join cannot be overwritten by the state read before it. The contest
+     * document is read and saved under the lock of the contest, so concurrent joins of different users
+     * cannot overwrite each other's participants.</p>
+     *
      * @param id             the ID of the contest to modify
      * @param contestRequest the ContestRequest {@link com.crio.codehackcontest.exchange.ContestRequest} containing user IDs to add
      * @return the updated Contest {@link com.crio.codehackcontest.entity.Contest} object
      */
     @Override
     public Contest addUserToContest(String id, ContestRequest contestRequest) {
-        Optional<Contest> optionalContest = contestRepository.findById(id);
-        if (optionalContest.isPresent()) {
-            Contest contest = optionalContest.get();
-            List<String> participantsId = findAllValidExistingUser(contestRequest);
-            List<String> userNotExistsInContest = findAllUsersExistInContest(false, contest.getParticipantsId(), participantsId);
-            contest.setParticipantsId(userNotExistsInContest);
-            return contestRepository.save(contest);
-        } else {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
-        }
+        requireNotFinalized(id);
+        return leaderBoardIndex.withUserLocks(contestRequest.getParticipants(), () -> withContestLock(id, () -> {
+            BulkOperationEvent event = new BulkOperationEvent();
+            event.begin();
+            Optional<Contest> optionalContest = contestRepository.findById(id);
+            if (optionalContest.isPresent()) {
+                Contest contest = optionalContest.get();
+                Map<String, User> users = new LinkedHashMap<>();
+                List<String> participantsId = findAllValidExistingUser(contestRequest, users);
+                List<String> userNotExistsInContest = findAllUsersExistInContest(false, contest.getParticipantsId(), participantsId);
+                contest.setParticipantsId(userNotExistsInContest);
+                Contest savedContest = contestRepository.save(contest);
+                users.keySet().retainAll(userNotExistsInContest);
+                leaderBoardIndex.addParticipants(id, contest.getName(), users.values());
+                scoreEventLog.recordJoined(id, usernamesOf(users.values()));
+                scoreEventBus.publishMembership(ScoreChange.Type.JOINED, id, users.keySet());
+                commitBulkEvent(event, "addUserToContest", id, participantsId.size());
+                return savedContest;
+            } else {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
+            }
+        }));
     }
 
     /**
      * Removes users from a contest by contest ID.
      *
+     * <p>Like {@link #addUserToContest(String, ContestRequest)}, the contest document is read and saved
+     * under the lock of the contest.</p>
+     *
      * @param id             the ID of the contest to modify
      * @param contestRequest the ContestRequest {@link com.crio.codehackcontest.exchange.ContestRequest} containing user IDs to remove
      * @return the updated Contest {@link com.crio.codehackcontest.entity.Contest} object
      */
     @Override
     public Contest removeUserFromContest(String id, ContestRequest contestRequest) {
-        Optional<Contest> optionalContest = contestRepository.findById(id);
-        if (optionalContest.isPresent()) {
-            Contest contest = optionalContest.get();
-            List<String> participantsId = findAllValidExistingUser(contestRequest);
-            List<String> userNotExistsInContest = findAllUsersExistInContest(true, contest.getParticipantsId(), participantsId);
-            contest.removeParticipantsId(userNotExistsInContest);
-            return contestRepository.save(contest);
-        } else {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
-        }
+        requireNotFinalized(id);
+        return leaderBoardIndex.withUserLocks(contestRequest.getParticipants(), () -> withContestLock(id, () -> {
+            BulkOperationEvent event = new BulkOperationEvent();
+            event.begin();
+            Optional<Contest> optionalContest = contestRepository.findById(id);
+            if (optionalContest.isPresent()) {
+                Contest contest = optionalContest.get();
+                List<String> participantsId = findAllValidExistingUser(contestRequest, new LinkedHashMap<>());
+                List<String> userExistsInContest = findAllUsersExistInContest(true, contest.getParticipantsId(), participantsId);
+                contest.removeParticipantsId(userExistsInContest);
+                Contest savedContest = contestRepository.save(contest);
+                leaderBoardIndex.removeParticipants(id, userExistsInContest);
+                scoreEventLog.recordLeft(id, userExistsInContest);
+                scoreEventBus.publishMembership(ScoreChange.Type.LEFT, id, userExistsInContest);
+                commitBulkEvent(event, "removeUserFromContest", id, participantsId.size());
+                return savedContest;
+            } else {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
+            }
+        }));
     }
 
     /**
@@ -111,59 +224,536 @@ public class ContestServiceImpl implements ContestService {
         return contestRepository.findAll();
     }
 
+    /**
+     * Streams all contests from a database cursor.
+     *
+     * @return a stream of all {@link com.crio.codehackcontest.entity.Contest} objects, to be closed by the caller
+     */
+    @Override
+    public Stream<Contest> streamContests() {
+        return contestRepository.streamAllBy();
+    }
+
     /**
      * Deletes a contest by its ID.
      *
+     * <p>The contest is deleted under its lock, so a concurrent join cannot save the contest back.</p>
+     *
      * @param id the ID of the contest to delete
      */
     @Override
     public void deleteContest(String id) {
+        withContestLock(id, () -> {
+            Optional<Contest> optionalContest = contestRepository.findById(id);
+            if (optionalContest.isPresent()) {
+                contestRepository.deleteById(id);
+                leaderBoardIndex.removeContest(id);
+                standingsArchive.remove(id);
+                removeLeaderBoardSize(id);
+                return null;
+            } else {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
+            }
+        });
+    }
+
+    /**
+     * Retrieves the leaderboard for a contest by contest ID.
+     *
+     * <p>The leaderboard of a finalized contest is read from its {@link StandingsArchive} file.
+     * Otherwise, once the {@link LeaderBoardIndex} has been warmed up the leaderboard is read from the
+     * in-memory ranking without touching MongoDB. Before that, concurrent requests for the same
+     * contest share a single in-flight build, so a burst of readers results in one contest lookup
+     * and one user query instead of one per request.</p>
+     *
+     * @param id the ID of the contest
+     * @return the LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} object representing the contest leaderboard
+     */
+    @Override
+    public LeaderBoard checkLeaderBoard(String id) {
+        return checkLeaderBoard(id, UserFields.ALL);
+    }
+
+    /**
+     * Retrieves the leaderboard for a contest by contest ID, loading only the requested user fields.
+     *
+     * <p>When the leaderboard is read from MongoDB the fields become a projection, so unrequested
+     * fields are never transferred. The in-memory index already holds complete users and returns them as is.</p>
+     *
+     * <p>Concurrent builds are coalesced per contest, fields and write generation of the
+     * {@link LeaderBoardIndex}, so a caller never joins a build that started before a write it has seen.</p>
+     *
+     * @param id     the ID of the contest
+     * @param fields the user fields to load
+     * @return the LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} object representing the contest leaderboard
+     */
+    @Override
+    public LeaderBoard checkLeaderBoard(String id, UserFields fields) {
+        Optional<FinalStandings> finalStandings = standingsArchive.get(id);
+        if (finalStandings.isPresent()) {
+            return toLeaderBoard(id, finalStandings.get().getName(), finalStandings.get().page(0, finalStandings.get().size()));
+        }
+        Optional<ContestRanking> ranking = leaderBoardIndex.ranking(id);
+        if (ranking.isPresent()) {
+            return toLeaderBoard(id, ranking.get().getName(), ranking.get().ranked());
+        }
+        String key = id + "@" + leaderBoardIndex.generation() + (fields.isAll() ? "" : "?fields=" + fields);
+        return leaderBoardBuilds.execute(key, () -> buildLeaderBoard(id, fields));
+    }
+
+    /**
+     * Retrieves the leaderboard for a contest with the participants holding a badge as a stream.
+     *
+     * <p>Once the {@link LeaderBoardIndex} has been warmed up the participants are streamed from the
+     * ranking's per-badge buckets. Otherwise the participants are streamed and filtered, from the
+     * standings file of a finalized contest or from a MongoDB cursor.</p>
+     *
+     * @param id     the ID of the contest
+     * @param fields the user fields to load
+     * @param badge  the badge the participants must hold
+     * @return the StreamingLeaderBoard {@link com.crio.codehackcontest.model.StreamingLeaderBoard} of the contest
+     */
+    @Override
+    public StreamingLeaderBoard streamLeaderBoard(String id, UserFields fields, Badges badge) {
+        Optional<ContestRanking> ranking = leaderBoardIndex.ranking(id);
+        if (ranking.isPresent() && standingsArchive.get(id).isEmpty()) {
+            return new StreamingLeaderBoard("lb_for_contest_id_" + id, "LeaderBoard: " + ranking.get().getName(), ranking.get().stream(badge));
+        }
+        // The badges are needed to filter, even when they are not returned
+        UserFields filterFields = fields.includes("badges") ? fields : UserFields.parse(fields + ",badges");
+        StreamingLeaderBoard leaderBoard = streamLeaderBoard(id, filterFields);
+        return new StreamingLeaderBoard(leaderBoard.getId(), leaderBoard.getName(), leaderBoard.getUser().filter(hasBadge(badge)));
+    }
+
+    /**
+     * Retrieves the leaderboard for a contest by contest ID with its participants as a stream.
+     *
+     * <p>A finalized contest streams its participants from the standings file. Otherwise, once the
+     * {@link LeaderBoardIndex} has been warmed up the participants are streamed from the
+     * in-memory ranking one score at a time. Before that they are streamed from a MongoDB cursor
+     * sorted by score, loading only the requested fields.</p>
+     *
+     * @param id     the ID of the contest
+     * @param fields the user fields to load
+     * @return the StreamingLeaderBoard {@link com.crio.codehackcontest.model.StreamingLeaderBoard} of the contest
+     */
+    @Override
+    public StreamingLeaderBoard streamLeaderBoard(String id, UserFields fields) {
+        Optional<FinalStandings> finalStandings = standingsArchive.get(id);
+        if (finalStandings.isPresent()) {
+            return new StreamingLeaderBoard("lb_for_contest_id_" + id, "LeaderBoard: " + finalStandings.get().getName(), finalStandings.get().stream());
+        }
+        Optional<ContestRanking> ranking = leaderBoardIndex.ranking(id);
+        if (ranking.isPresent()) {
+            return new StreamingLeaderBoard("lb_for_contest_id_" + id, "LeaderBoard: " + ranking.get().getName(), ranking.get().stream());
+        }
         Optional<Contest> optionalContest = contestRepository.findById(id);
         if (optionalContest.isPresent()) {
-            contestRepository.deleteById(id);
+            Contest contest = optionalContest.get();
+            Stream<User> users = userRepository.streamAllByIdRankedWithFields(contest.getParticipantsId(), fields.rankedProjection(), leaderBoardIndex.getPolicy());
+            return new StreamingLeaderBoard("lb_for_contest_id_" + contest.getId(), "LeaderBoard: " + contest.getName(), users);
         } else {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
         }
     }
 
     /**
-     * Retrieves the leaderboard for a contest by contest ID.
+     * Retrieves the score distribution of a contest.
+     *
+     * <p>Finalized contests count their standings once. Otherwise the statistics come from the
+     * counters of the {@link LeaderBoardIndex} in constant time; before the index has been warmed up
+     * they are counted from the leaderboard.</p>
      *
      * @param id the ID of the contest
-     * @return the LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} object representing the contest leaderboard
+     * @return the ScoreStats {@link com.crio.codehackcontest.model.ScoreStats} of the contest
      */
     @Override
-    public LeaderBoard checkLeaderBoard(String id) {
+    public ScoreStats getScoreStats(String id) {
+        Optional<FinalStandings> finalStandings = standingsArchive.get(id);
+        if (finalStandings.isPresent()) {
+            return finalStandings.get().stats();
+        }
+        Optional<ContestRanking> ranking = leaderBoardIndex.ranking(id);
+        if (ranking.isPresent()) {
+            return ranking.get().stats();
+        }
+        Optional<Contest> optionalContest = contestRepository.findById(id);
+        if (optionalContest.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
+        }
+        List<User> users = userRepository.findAllByIdWithFields(optionalContest.get().getParticipantsId(), STATS_FIELDS.projection());
+        return ScoreStats.of(id, optionalContest.get().getName(), users);
+    }
+
+    /**
+     * Ranks a group of users within a contest, both among each other and among all participants.
+     *
+     * <p>Finalized contests look the members up in their standings file. Otherwise each member is
+     * looked up in the {@link LeaderBoardIndex}, so the cost grows with the size of the group and not
+     * with the size of the contest; before the index has been warmed up the members are picked from
+     * the full leaderboard.</p>
+     *
+     * @param id      the ID of the contest
+     * @param userIds the IDs of the members; duplicates are ignored
+     * @return the SubsetLeaderBoard {@link com.crio.codehackcontest.model.SubsetLeaderBoard} of the members
+     */
+    @Override
+    public SubsetLeaderBoard checkSubsetLeaderBoard(String id, Collection<String> userIds) {
+        Set<String> members = new LinkedHashSet<>(userIds);
+        Optional<FinalStandings> finalStandings = standingsArchive.get(id);
+        if (finalStandings.isPresent()) {
+            return SubsetLeaderBoard.of(id, finalStandings.get().getName(), finalStandings.get().standings(members), members);
+        }
+        Optional<ContestRanking> ranking = leaderBoardIndex.ranking(id);
+        if (ranking.isPresent()) {
+            return SubsetLeaderBoard.of(id, ranking.get().getName(), ranking.get().standings(members), members);
+        }
+        Optional<Contest> optionalContest = contestRepository.findById(id);
+        if (optionalContest.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
+        }
+        List<User> users = checkLeaderBoard(id, SUBSET_FIELDS).getUser();
+        RankingPolicy policy = leaderBoardIndex.getPolicy();
+        List<SubsetStanding> standings = new ArrayList<>(members.size());
+        int rank = 0;
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (i == 0 || policy.key(user) != policy.key(users.get(i - 1))) {
+                rank = i + 1;
+            }
+            if (members.contains(user.getUserid())) {
+                standings.add(new SubsetStanding(user.getUserid(), user.getUsername(), user.getScore(), user.getBadges(), 0, rank));
+            }
+        }
+        return SubsetLeaderBoard.of(id, optionalContest.get().getName(), standings, members);
+    }
+
+    /**
+     * Retrieves one page of the leaderboard for a contest by contest ID.
+     *
+     * <p>A finalized contest reads only the requested page from its standings file, starting from
+     * the nearest indexed entry, and returns the stored ranks with it. Other contests slice the full
+     * leaderboard.</p>
+     *
+     * @param id     the ID of the contest
+     * @param fields the user fields to load
+     * @param offset the rank order position of the first participant, starting at 0
+     * @param limit  the maximum number of participants
+     * @return the LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} object holding the page
+     */
+    @Override
+    public LeaderBoard checkLeaderBoard(String id, UserFields fields, int offset, int limit) {
+        Optional<FinalStandings> finalStandings = standingsArchive.get(id);
+        if (finalStandings.isPresent()) {
+            return new LeaderBoard("lb_for_contest_id_" + id, "LeaderBoard: " + finalStandings.get().getName(),
+                    finalStandings.get().page(offset, limit), finalStandings.get().ranks(offset, limit));
+        }
+        return checkLeaderBoard(id, fields).page(offset, limit);
+    }
+
+    /**
+     * Retrieves the leaderboard for a contest restricted to the participants holding a badge.
+     *
+     * <p>Once the {@link LeaderBoardIndex} has been warmed up the participants are read from the
+     * ranking's per-badge buckets, so participants without the badge are never visited. Finalized
+     * contests filter their standings file; before the warm-up the full leaderboard is filtered.</p>
+     *
+     * @param id     the ID of the contest
+     * @param fields the user fields to load
+     * @param badge  the badge the participants must hold
+     * @return the LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} object holding the participants with the badge
+     */
+    @Override
+    public LeaderBoard checkLeaderBoard(String id, UserFields fields, Badges badge) {
+        Optional<FinalStandings> finalStandings = standingsArchive.get(id);
+        if (finalStandings.isPresent()) {
+            try (Stream<User> users = finalStandings.get().stream()) {
+                return new LeaderBoard("lb_for_contest_id_" + id, "LeaderBoard: " + finalStandings.get().getName(), users.filter(hasBadge(badge)).toList());
+            }
+        }
+        Optional<ContestRanking> ranking = leaderBoardIndex.ranking(id);
+        if (ranking.isPresent()) {
+            return new LeaderBoard("lb_for_contest_id_" + id, "LeaderBoard: " + ranking.get().getName(), ranking.get().ranked(badge));
+        }
+        LeaderBoard leaderBoard = checkLeaderBoard(id, UserFields.ALL);
+        return new LeaderBoard(leaderBoard.getId(), leaderBoard.getName(), leaderBoard.getUser().stream().filter(hasBadge(badge)).toList());
+    }
+
+    /**
+     * Finalizes a contest: its current leaderboard is written to an immutable standings file,
+     * which serves all later leaderboard reads. Participants can no longer be added or removed.
+     *
+     * @param id the ID of the contest
+     * @return the final LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} of the contest
+     */
+    @Override
+    public LeaderBoard finalizeContest(String id) {
+        requireNotFinalized(id);
+        Optional<Contest> optionalContest = contestRepository.findById(id);
+        if (optionalContest.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
+        }
+        LeaderBoard leaderBoard = checkLeaderBoard(id, UserFields.ALL);
+        standingsArchive.archive(id, optionalContest.get().getName(), leaderBoard.getUser(), leaderBoardIndex.getPolicy());
+        leaderBoardIndex.removeContest(id);
+        return leaderBoard;
+    }
+
+    /**
+     * Checks whether a contest has been finalized.
+     *
+     * @param id the ID of the contest
+     * @return true if the contest has final standings
+     */
+    @Override
+    public boolean isFinalized(String id) {
+        return standingsArchive.get(id).isPresent();
+    }
+
+    /**
+     * Reconstructs the leaderboard for a contest as it was at a point in time.
+     *
+     * <p>The participants and their scores are replayed from the {@link ScoreEventLog}, so users that
+     * have left the contest or have been deleted since still appear. Current participants without any
+     * membership change in the log joined before it was recording and are included if they existed at
+     * that time; participants whose score never changed while the log was recording keep their current
+     * score.</p>
+     *
+     * <p>The time each score was reached is replayed as well, so participants with the same score are
+     * ordered by the configured {@link RankingPolicy} as they were at that time.</p>
+     *
+     * @param id   the ID of the contest
+     * @param asOf the point in time, in epoch milliseconds
+     * @return the LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} object as of that time
+     */
+    @Override
+    public LeaderBoard checkLeaderBoardAsOf(String id, long asOf) {
+        if (!scoreEventLog.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Score history is disabled, enable codehack.score-log.enabled");
+        }
+        Optional<Contest> optionalContest = contestRepository.findById(id);
+        if (optionalContest.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
+        }
+        Contest contest = optionalContest.get();
+        ScoreEventLog.Members history = scoreEventLog.membersAsOf(id, asOf);
+        Map<String, String> members = new LinkedHashMap<>(history.members());
+        for (String userId : contest.getParticipantsId()) {
+            if (!history.tracked().contains(userId)) {
+                members.putIfAbsent(userId, null);
+            }
+        }
+        List<String> memberIds = new ArrayList<>(members.keySet());
+        Map<String, User> existing = new HashMap<>();
+        for (User user : userRepository.findAllById(memberIds)) {
+            existing.put(user.getUserid(), user);
+        }
+        ScoreEventLog.Standings standings = scoreEventLog.standingsAsOf(asOf, memberIds);
+        int[] scores = standings.scores();
+        List<User> users = new ArrayList<>(memberIds.size());
+        for (int i = 0; i < scores.length; i++) {
+            String userId = memberIds.get(i);
+            User user = existing.get(userId);
+            if (scores[i] == ScoreEventLog.ABSENT) {
+                continue;
+            }
+            if (user == null) {
+                // Deleted since; only the log knows the user, so its name comes from the joining
+                if (scores[i] == ScoreEventLog.NO_HISTORY || members.get(userId) == null) {
+                    continue;
+                }
+                user = new User(userId, members.get(userId), scores[i], new HashSet<>(DetermineBadges.determineBadges(scores[i])));
+            } else if (scores[i] != ScoreEventLog.NO_HISTORY && scores[i] != user.getScore()) {
+                user.setScore(scores[i]);
+                user.setBadges(new HashSet<>(DetermineBadges.determineBadges(scores[i])));
+            }
+            if (scores[i] != ScoreEventLog.NO_HISTORY) {
+                user.setLastImproved(standings.improved()[i]);
+            }
+            users.add(user);
+        }
+        return new LeaderBoard("lb_for_contest_id_" + contest.getId(), "LeaderBoard: " + contest.getName(),
+                ParallelRanker.rank(users, leaderBoardIndex.getPolicy()));
+    }
+
+    /**
+     * Reconstructs the leaderboard for a contest as it was at a point in time, restricted to the
+     * participants that held a badge at that time.
+     *
+     * @param id    the ID of the contest
+     * @param asOf  the point in time, in epoch milliseconds
+     * @param badge the badge the participants must have held
+     * @return the LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} object holding the participants with the badge
+     */
+    @Override
+    public LeaderBoard checkLeaderBoardAsOf(String id, long asOf, Badges badge) {
+        LeaderBoard leaderBoard = checkLeaderBoardAsOf(id, asOf);
+        return new LeaderBoard(leaderBoard.getId(), leaderBoard.getName(), leaderBoard.getUser().stream().filter(hasBadge(badge)).toList());
+    }
+
+    /**
+     * Helper method to map users to their names, as recorded when they join a contest.
+     *
+     * @param users the users
+     * @return the name of every user, by user ID
+     */
+    private static Map<String, String> usernamesOf(Collection<User> users) {
+        Map<String, String> usernames = new LinkedHashMap<>();
+        for (User user : users) {
+            usernames.put(user.getUserid(), user.getUsername());
+        }
+        return usernames;
+    }
+
+    /**
+     * Helper method to match the participants holding a badge.
+     *
+     * @param badge the badge
+     * @return a predicate accepting users with the badge
+     */
+    private static Predicate<User> hasBadge(Badges badge) {
+        return user -> user.getBadges() != null && user.getBadges().contains(badge);
+    }
+
+    /**
+     * Helper method to reject changes to the participants of a finalized contest.
+     *
+     * @param id the ID of the contest
+     */
+    private void requireNotFinalized(String id) {
+        if (isFinalized(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Contest is finalized");
+        }
+    }
+
+    /**
+     * Helper method to load the contest participants and rank them with the {@link ParallelRanker}.
+     *
+     * @param id     the ID of the contest
+     * @param fields the user fields to load
+     * @return the LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} for the contest
+     */
+    private LeaderBoard buildLeaderBoard(String id, UserFields fields) {
+        LeaderBoardBuildEvent event = new LeaderBoardBuildEvent();
+        event.begin();
         Optional<Contest> optionalContest = contestRepository.findById(id);
         if (optionalContest.isPresent()) {
-            List<User> users = userRepository.findAllById(optionalContest.get().getParticipantsId());
-            users.sort(new UserScoreComparator());
-            LeaderBoard leaderBoard = new LeaderBoard();
-            leaderBoard.setId("lb_for_contest_id_" + optionalContest.get().getId());
-            leaderBoard.setName("LeaderBoard: " + optionalContest.get().getName());
-            leaderBoard.setUser(users);
+            List<String> participantsId = optionalContest.get().getParticipantsId();
+            List<User> loaded = fields.isAll()
+                    ? userRepository.findAllById(participantsId)
+                    : userRepository.findAllByIdWithFields(participantsId, fields.rankedProjection());
+            List<User> users = ParallelRanker.rank(loaded, leaderBoardIndex.getPolicy());
+            LeaderBoard leaderBoard = toLeaderBoard(optionalContest.get().getId(), optionalContest.get().getName(), users);
+            if (event.shouldCommit()) {
+                event.contestId = id;
+                event.participants = users.size();
+                event.commit();
+            }
             return leaderBoard;
         } else {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
         }
     }
 
+    /**
+     * Helper method to wrap ranked users into a leaderboard.
+     *
+     * @param id    the ID of the contest
+     * @param name  the name of the contest
+     * @param users the participants in leaderboard order
+     * @return the LeaderBoard {@link com.crio.codehackcontest.model.LeaderBoard} for the contest
+     */
+    private LeaderBoard toLeaderBoard(String id, String name, List<User> users) {
+        LeaderBoard leaderBoard = new LeaderBoard();
+        leaderBoard.setId("lb_for_contest_id_" + id);
+        leaderBoard.setName("LeaderBoard: " + name);
+        leaderBoard.setUser(users);
+        leaderBoardSize(id).set(users.size());
+        return leaderBoard;
+    }
+
+    /**
+     * Helper method to get the gauge holding the last built leaderboard size of a contest.
+     *
+     * @param id the ID of the contest
+     * @return the value backing the {@code codehack.leaderboard.size} gauge
+     */
+    private AtomicInteger leaderBoardSize(String id) {
+        return leaderBoardSizes.computeIfAbsent(id, key -> meterRegistry.gauge("codehack.leaderboard.size", Tags.of("contest", key), new AtomicInteger()));
+    }
+
+    /**
+     * Helper method to drop the leaderboard size gauge of a deleted contest, so the contest tag does not outlive it.
+     *
+     * @param id the ID of the contest
+     */
+    private void removeLeaderBoardSize(String id) {
+        leaderBoardSizes.remove(id);
+        Gauge gauge = meterRegistry.find("codehack.leaderboard.size").tags("contest", id).gauge();
+        if (gauge != null) {
+            meterRegistry.remove(gauge);
+        }
+    }
+
+    /**
+     * Helper method to complete and record a bulk operation event, skipping operations on a single user.
+     *
+     * @param event     the event started at the beginning of the operation
+     * @param operation the name of the operation
+     * @param contestId the ID of the contest the operation applied to
+     * @param items     the number of users the operation applied to
+     */
+    private void commitBulkEvent(BulkOperationEvent event, String operation, String contestId, int items) {
+        if (items >= MIN_BULK_ITEMS && event.shouldCommit()) {
+            event.operation = operation;
+            event.contestId = contestId;
+            event.items = items;
+            event.commit();
+        }
+    }
+
     /**
      * Helper method to find valid existing users from contest request.
      *
      * @param contestRequest {@link com.crio.codehackcontest.exchange.ContestRequest} the ContestRequest containing user IDs
+     * @param users          receives the found users by ID, so they can be added to the leaderboard index
      * @return a list of valid user IDs
      */
-    private List<String> findAllValidExistingUser(ContestRequest contestRequest) {
+    private List<String> findAllValidExistingUser(ContestRequest contestRequest, Map<String, User> users) {
         List<String> participantsId = new ArrayList<>();
         for (String id : contestRequest.getParticipants()) {
-            if (userRepository.findById(id).isPresent()) {
+            Optional<User> user = userRepository.findById(id);
+            if (user.isPresent()) {
                 participantsId.add(id);
+                users.put(id, user.get());
             }
         }
         return participantsId;
     }
 
+    /**
+     * Helper method to run a read-modify-write of a contest document while holding the lock of the contest.
+     *
+     * <p>The participants are stored in the contest document, so two writes changing different users
+     * of one contest would otherwise overwrite each other. The lock is taken after the user locks and
+     * never held while taking them, so it cannot deadlock with them. It only orders the writes of this
+     * instance, like the {@link LeaderBoardIndex}.</p>
+     *
+     * @param id    the ID of the contest
+     * @param write the write
+     * @param <T>   the result type of the write
+     * @return the result of the write
+     */
+    private <T> T withContestLock(String id, Supplier<T> write) {
+        ReentrantLock lock = contestLocks[Math.floorMod(Objects.hashCode(id), CONTEST_LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Helper method to find users existing or not existing in the contest.
      *
@@ -175,7 +765,7 @@ public class ContestServiceImpl implements ContestService {
     private List<String> findAllUsersExistInContest(boolean wantToDelete, List<String> existingUsers, List<String> participantsId) {
         if (wantToDelete) {
             participantsId.retainAll(existingUsers);
-            return existingUsers;
+            return participantsId;
         } else {
             participantsId.removeAll(existingUsers);
             return participantsId;
@@ -0,0 +1,52 @@
+package com.crio.codehackcontest.service.implementation;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.repository.ReactiveContestRepository;
+import com.crio.codehackcontest.repository.ReactiveUserRepository;
+import com.crio.codehackcontest.service.ReactiveReadService;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveReadServiceImpl implements ReactiveReadService {
+    private final ReactiveUserRepository reactiveUserRepository;
+    private final ReactiveContestRepository reactiveContestRepository;
+    private final Sort ranked;
+
+    public ReactiveReadServiceImpl(ReactiveUserRepository reactiveUserRepository, ReactiveContestRepository reactiveContestRepository,
+                                   RankingPolicy rankingPolicy) {
+        this.reactiveUserRepository = reactiveUserRepository;
+        this.reactiveContestRepository = reactiveContestRepository;
+        this.ranked = rankingPolicy.sort();
+    }
+
+    /**
+     * Streams all users sorted by score, letting MongoDB do the sorting.
+     *
+     * @return a Flux emitting every User {@link com.crio.codehackcontest.entity.User} sorted by score
+     */
+    @Override
+    public Flux<User> streamUsers() {
+        return reactiveUserRepository.findAll(ranked);
+    }
+
+    /**
+     * Streams the participants of a contest sorted by score.
+     *
+     * @param id the ID of the contest
+     * @return a Flux emitting the contest participants in rank order
+     */
+    @Override
+    public Flux<User> streamLeaderBoard(String id) {
+        return reactiveContestRepository.findById(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found")))
+                .flatMapMany(contest -> reactiveUserRepository.findByUseridIn(contest.getParticipantsId(), ranked));
+    }
+}
@@ -1,53 +1,114 @@
 package com.crio.codehackcontest.service.implementation;
 
+import com.crio.codehackcontest.config.SingleContest;
 import com.crio.codehackcontest.entity.Contest;
 import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.events.ScoreChange;
+import com.crio.codehackcontest.events.ScoreEventBus;
 import com.crio.codehackcontest.exchange.ContestRequest;
 import com.crio.codehackcontest.exchange.UpdateUserRequest;
+import com.crio.codehackcontest.exchange.UserFields;
 import com.crio.codehackcontest.exchange.UserRequest;
+import com.crio.codehackcontest.history.Resolution;
+import com.crio.codehackcontest.history.ScoreEventLog;
+import com.crio.codehackcontest.history.ScoreHistory;
+import com.crio.codehackcontest.index.ContestRanking;
+import com.crio.codehackcontest.index.LeaderBoardIndex;
+import com.crio.codehackcontest.jfr.ScoreUpdateEvent;
 import com.crio.codehackcontest.model.Badges;
+import com.crio.codehackcontest.model.UserScoreHistory;
+import com.crio.codehackcontest.model.UserSearchResult;
 import com.crio.codehackcontest.repository.UserRepository;
 import com.crio.codehackcontest.service.ContestService;
 import com.crio.codehackcontest.service.UserService;
 import com.crio.codehackcontest.utils.DetermineBadges;
 import com.crio.codehackcontest.utils.GlobalDataConstants;
-import com.crio.codehackcontest.utils.UserScoreComparator;
+import com.crio.codehackcontest.utils.ParallelRanker;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "codehack.service", histogram = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final ContestService contestService;
+    private final LeaderBoardIndex leaderBoardIndex;
+    private final ScoreEventLog scoreEventLog;
+    private final ScoreHistory scoreHistory;
+    private final ScoreEventBus scoreEventBus;
+    private final SingleContest singleContest;
 
     public UserServiceImpl(UserRepository userRepository, ContestService contestService) {
+        this(userRepository, contestService, new LeaderBoardIndex(), ScoreEventLog.disabled(), ScoreHistory.disabled());
+    }
+
+    public UserServiceImpl(UserRepository userRepository, ContestService contestService, LeaderBoardIndex leaderBoardIndex,
+                           ScoreEventLog scoreEventLog, ScoreHistory scoreHistory) {
+        this(userRepository, contestService, leaderBoardIndex, scoreEventLog, scoreHistory, ScoreEventBus.disabled());
+    }
+
+    public UserServiceImpl(UserRepository userRepository, ContestService contestService, LeaderBoardIndex leaderBoardIndex,
+                           ScoreEventLog scoreEventLog, ScoreHistory scoreHistory, ScoreEventBus scoreEventBus) {
+        this(userRepository, contestService, leaderBoardIndex, scoreEventLog, scoreHistory, scoreEventBus,
+                SingleContest.of(GlobalDataConstants.contestName));
+    }
+
+    @Autowired
+    public UserServiceImpl(UserRepository userRepository, ContestService contestService, LeaderBoardIndex leaderBoardIndex,
+                           ScoreEventLog scoreEventLog, ScoreHistory scoreHistory, ScoreEventBus scoreEventBus,
+                           SingleContest singleContest) {
         this.userRepository = userRepository;
         this.contestService = contestService;
+        this.leaderBoardIndex = leaderBoardIndex;
+        this.scoreEventLog = scoreEventLog;
+        this.scoreHistory = scoreHistory;
+        this.scoreEventBus = scoreEventBus;
+        this.singleContest = singleContest;
     }
 
     /**
      * Creates a new user.
      *
+     * <p>The user joins the single contest, unless that contest has been finalized: its participants are
+     * frozen, so the user is created without taking part.</p>
+     *
      * @param user the UserRequest {@link com.crio.codehackcontest.exchange.UserRequest} containing user details
      * @return the created User {@link com.crio.codehackcontest.entity.User} object
      */
     @Override
     public User createUser(UserRequest user) {
-        // Check if user ID already exists
-        if (userRepository.findById(user.getUserid()).isPresent()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "User ID already exists");
-        }
+        String contestId = requireContestId();
+        User savedUser = leaderBoardIndex.withUserLock(user.getUserid(), () -> {
+            // Check if user ID already exists
+            if (userRepository.findById(user.getUserid()).isPresent()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "User ID already exists");
+            }
 
-        // Create a new user with initial score of 0 and an empty set of badges
-        User savedUser = userRepository.save(new User(user.getUserid(), user.getUsername(), 0, new HashSet<>()));
+            // Create a new user with initial score of 0, reached now, and an empty set of badges
+            User created = userRepository.save(new User(user.getUserid(), user.getUsername(), 0, new HashSet<>(), System.currentTimeMillis()));
+            leaderBoardIndex.addUser(created);
+            scoreEventLog.record(created.getUserid(), ScoreEventLog.ABSENT, created.getScore());
+            scoreEventBus.publish(ScoreChange.Type.CREATED, created.getUserid(), ScoreChange.ABSENT, created.getScore());
+            return created;
+        });
 
+        if (contestService.isFinalized(contestId)) {
+            return savedUser;
+        }
         // Add the user to the contest if the contest supports single contest
-        Contest contest = contestService.addUserToContest(GlobalDataConstants.contestId, new ContestRequest(List.of(savedUser.getUserid())));
+        Contest contest = contestService.addUserToContest(contestId, new ContestRequest(List.of(savedUser.getUserid())));
         if (contest.getParticipantsId().contains(savedUser.getUserid())) {
             return savedUser;
         } else {
@@ -58,22 +119,44 @@ public class UserServiceImpl implements UserService {
     /**
      * Updates an existing user's score and determines badges based on the new score.
      *
+     * <p>Badges, the database and the leaderboard index are updated before returning, under the user
+     * lock of the {@link LeaderBoardIndex}; other consumers learn about the change from the
+     * {@link ScoreEventBus} on their own threads.</p>
+     *
      * @param id   the ID of the user to update
      * @param user the UpdateUserRequest {@link com.crio.codehackcontest.exchange.UserRequest} containing updated user details
      * @return the updated User {@link com.crio.codehackcontest.entity.User} object
      */
     @Override
     public User updateUser(String id, UpdateUserRequest user) {
-        Optional<User> optionalUser = userRepository.findById(id);
-        if (optionalUser.isPresent()) {
-            User existingUser = optionalUser.get();
-            existingUser.setScore(user.getScore());
-            HashSet<Badges> badges = DetermineBadges.determineBadges(existingUser.getScore());
-            existingUser.setBadges(badges);
-            return userRepository.save(existingUser);
-        } else {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
-        }
+        return leaderBoardIndex.withUserLock(id, () -> {
+            ScoreUpdateEvent event = new ScoreUpdateEvent();
+            event.begin();
+            Optional<User> optionalUser = userRepository.findById(id);
+            if (optionalUser.isPresent()) {
+                User existingUser = optionalUser.get();
+                int oldScore = existingUser.getScore();
+                existingUser.setScore(user.getScore());
+                if (existingUser.getScore() != oldScore) {
+                    existingUser.setLastImproved(System.currentTimeMillis());
+                }
+                HashSet<Badges> badges = DetermineBadges.determineBadges(existingUser.getScore());
+                existingUser.setBadges(badges);
+                User savedUser = userRepository.save(existingUser);
+                leaderBoardIndex.updateUser(savedUser);
+                scoreEventLog.record(id, oldScore, savedUser.getScore());
+                scoreEventBus.publish(ScoreChange.Type.SCORED, id, oldScore, savedUser.getScore());
+                if (event.shouldCommit()) {
+                    event.userId = id;
+                    event.oldScore = oldScore;
+                    event.newScore = savedUser.getScore();
+                    event.commit();
+                }
+                return savedUser;
+            } else {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+            }
+        });
     }
 
     /**
@@ -99,26 +182,137 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public List<User> getUsers() {
-        List<User> users = userRepository.findAll();
-        users.sort(new UserScoreComparator());
-        return users;
+        return ParallelRanker.rank(userRepository.findAll(), leaderBoardIndex.getPolicy());
+    }
+
+    /**
+     * Retrieves all users sorted by their scores, loading only the requested fields through a MongoDB projection.
+     *
+     * @param fields the user fields to load
+     * @return a list of all User {@link com.crio.codehackcontest.entity.User} objects sorted by score
+     */
+    @Override
+    public List<User> getUsers(UserFields fields) {
+        if (fields.isAll()) {
+            return getUsers();
+        }
+        return ParallelRanker.rank(userRepository.findAllWithFields(fields.rankedProjection()), leaderBoardIndex.getPolicy());
+    }
+
+    /**
+     * Streams all users sorted by their scores from a database cursor, loading only the requested fields.
+     *
+     * @param fields the user fields to load
+     * @return a stream of User {@link com.crio.codehackcontest.entity.User} objects, to be closed by the caller
+     */
+    @Override
+    public Stream<User> streamUsers(UserFields fields) {
+        return userRepository.streamAllRankedWithFields(fields.rankedProjection(), leaderBoardIndex.getPolicy());
+    }
+
+    /**
+     * Finds users whose username starts with a prefix through the username trie of the {@link LeaderBoardIndex}.
+     *
+     * <p>Scores and ranks of participants come from the ranking of the single contest; only users
+     * outside it are read from the repository.</p>
+     *
+     * @param prefix the prefix, matched case-insensitively
+     * @param limit  the maximum number of users to return
+     * @return the matching UserSearchResult {@link com.crio.codehackcontest.model.UserSearchResult} objects in username order
+     */
+    @Override
+    public List<UserSearchResult> searchUsers(String prefix, int limit) {
+        List<String> ids = leaderBoardIndex.searchUsernames(prefix, limit)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "User search index is still loading"));
+        String contestId = singleContest.currentId();
+        ContestRanking ranking = contestId == null ? null : leaderBoardIndex.ranking(contestId).orElse(null);
+        List<UserSearchResult> results = new ArrayList<>(ids.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            User user = ranking == null ? null : ranking.get(id);
+            if (user == null) {
+                missing.add(id);
+                results.add(null);
+            } else {
+                results.add(new UserSearchResult(id, user.getUsername(), user.getScore(), ranking.rankOf(id)));
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, User> users = new HashMap<>();
+            userRepository.findAllById(missing).forEach(user -> users.put(user.getUserid(), user));
+            for (int i = 0; i < results.size(); i++) {
+                User user = results.get(i) == null ? users.get(ids.get(i)) : null;
+                if (user != null) {
+                    results.set(i, new UserSearchResult(user.getUserid(), user.getUsername(), user.getScore(), null));
+                }
+            }
+            results.removeIf(Objects::isNull);
+        }
+        return results;
+    }
+
+    /**
+     * Retrieves the score progression of a user from the in-memory score history.
+     *
+     * @param id         the ID of the user
+     * @param resolution the resolution of the points
+     * @param from       the start of the range, in epoch milliseconds, inclusive
+     * @param to         the end of the range, in epoch milliseconds, inclusive
+     * @return the UserScoreHistory {@link com.crio.codehackcontest.model.UserScoreHistory} of the user
+     */
+    @Override
+    public UserScoreHistory getScoreHistory(String id, Resolution resolution, long from, long to) {
+        if (!scoreHistory.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Score history is disabled, enable codehack.score-log.enabled");
+        }
+        if (userRepository.findById(id).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return new UserScoreHistory(id, resolution.getLabel(), scoreHistory.range(id, resolution, from, to));
     }
 
     /**
      * Deletes a user by their ID.
      *
+     * <p>Participants of a finalized single contest cannot be deleted, since its participants are
+     * frozen; users that do not take part in it can.</p>
+     *
      * @param id the ID of the user to delete
      */
     @Override
     public void delete(String id) {
-        Optional<User> optionalUser = userRepository.findById(id);
-        if (optionalUser.isPresent()) {
-            // Remove user from contest before deleting
-            contestService.removeUserFromContest(GlobalDataConstants.contestId, new ContestRequest(List.of(optionalUser.get().getUserid())));
-            userRepository.deleteById(id);
-        } else {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        leaderBoardIndex.withUserLock(id, () -> {
+            Optional<User> optionalUser = userRepository.findById(id);
+            if (optionalUser.isPresent()) {
+                String contestId = requireContestId();
+                if (!contestService.isFinalized(contestId)) {
+                    // Remove user from contest before deleting
+                    contestService.removeUserFromContest(contestId, new ContestRequest(List.of(optionalUser.get().getUserid())));
+                } else if (contestService.getContestById(contestId).getParticipantsId().contains(id)) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Contest is finalized");
+                }
+                userRepository.deleteById(id);
+                leaderBoardIndex.removeUser(optionalUser.get());
+                scoreEventLog.record(id, optionalUser.get().getScore(), ScoreEventLog.ABSENT);
+                scoreEventBus.publish(ScoreChange.Type.DELETED, id, optionalUser.get().getScore(), ScoreChange.ABSENT);
+                return null;
+            } else {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+            }
+        });
+    }
+
+    /**
+     * Helper method to get the single contest ID, waiting briefly if the contest is still being initialized.
+     *
+     * @return the ID of the single contest
+     */
+    private String requireContestId() {
+        String contestId = singleContest.awaitId();
+        if (contestId == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Contest is still initializing");
         }
+        return contestId;
     }
 
 }
@@ -0,0 +1,88 @@
+package com.crio.codehackcontest.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The AimdLimiter class is an adaptive concurrency limit using additive increase, multiplicative decrease.
+ *
+ * <p>Every finished request is a sample. A sample that failed or took longer than the latency threshold
+ * shrinks the limit by the backoff ratio. A healthy sample grows the limit by one, but only while the
+ * limiter is at least half used, so an idle system does not inflate the limit it never tested.</p>
+ */
+public class AimdLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    /**
+     * Constructs an AimdLimiter.
+     *
+     * @param initialLimit          the starting concurrency limit
+     * @param minLimit              the limit never drops below this value
+     * @param maxLimit              the limit never grows above this value
+     * @param backoffRatio          the factor applied to the limit on an overloaded sample, between 0 and 1
+     * @param latencyThresholdNanos samples slower than this are treated as overload
+     */
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyThresholdNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = Math.min(maxLimit, Math.max(minLimit, initialLimit));
+    }
+
+    /**
+     * Tries to take a slot without blocking.
+     *
+     * @return true if the request may proceed, false if the limit is reached
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot taken by {@link #tryAcquire()} and adjusts the limit from the sample.
+     *
+     * @param latencyNanos how long the request took
+     * @param failed       true if the request failed with a server-side error
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (current * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return the current limit
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of requests currently holding a slot.
+     *
+     * @return the number of in-flight requests
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -15,8 +15,8 @@ public class DetermineBadges {
     private static final HashSet<Badges> scoreBelow60 = new HashSet<>();
     private static final HashSet<Badges> scoreUpto100 = new HashSet<>();
 
-    // Initialize badge sets in the constructor
-    public DetermineBadges() {
+    // Initialize badge sets when the class is loaded, so static callers do not depend on the bean being created first
+    static {
         scoreBelow30.add(Badges.CODENINJA);
         scoreBelow60.addAll(List.of(Badges.CODENINJA, Badges.CODECHAMP));
         scoreUpto100.addAll(List.of(Badges.CODENINJA, Badges.CODECHAMP, Badges.CODEMASTER));
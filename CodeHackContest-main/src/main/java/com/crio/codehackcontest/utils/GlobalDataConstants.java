@@ -2,9 +2,59 @@ package com.crio.codehackcontest.utils;
 
 import lombok.Data;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Data
 public class GlobalDataConstants {
-    public static String contestId;
+    public static volatile String contestId;
     public static String contestName = "single-contest";
     public static boolean singleContestSupport = true;
+
+    // Completed with the contest ID once the asynchronous contest bootstrap has finished
+    private static volatile CompletableFuture<String> contestReady;
+
+    /**
+     * Marks the contest bootstrap as started, so callers of {@link #awaitContestId(long)} wait for it.
+     */
+    public static synchronized void contestBootstrapStarted() {
+        if (contestReady == null || contestReady.isDone()) {
+            contestReady = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * Publishes the contest ID once the contest bootstrap has finished.
+     *
+     * @param id the ID of the single contest
+     */
+    public static synchronized void contestBootstrapFinished(String id) {
+        contestId = id;
+        if (contestReady != null) {
+            contestReady.complete(id);
+        }
+    }
+
+    /**
+     * Returns the contest ID, waiting up to the given time if the contest bootstrap is still running.
+     *
+     * @param timeoutMs the maximum time to wait, in milliseconds
+     * @return the contest ID, or null if it is not available in time
+     */
+    public static String awaitContestId(long timeoutMs) {
+        CompletableFuture<String> ready = contestReady;
+        if (contestId != null || ready == null) {
+            return contestId;
+        }
+        try {
+            return ready.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return contestId;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return contestId;
+        }
+    }
 }
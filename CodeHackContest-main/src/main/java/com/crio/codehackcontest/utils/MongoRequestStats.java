@@ -0,0 +1,99 @@
+package com.crio.codehackcontest.utils;
+
+import java.util.Locale;
+
+/**
+ * The MongoRequestStats class accumulates the MongoDB work done while serving one HTTP request.
+ *
+ * <p>The synchronous driver notifies command listeners on the calling thread, so the stats of the
+ * current request are kept in a thread-local that is bound when the request starts and cleared when
+ * it ends. Work that continues on another thread, such as a streamed response reading a cursor, binds
+ * the same stats there with {@link #bind(MongoRequestStats)}. Only one thread records at a time.
+ * Commands issued outside a request are not counted.</p>
+ */
+public final class MongoRequestStats {
+    private static final ThreadLocal<MongoRequestStats> CURRENT = new ThreadLocal<>();
+
+    private int commands;
+    private long documents;
+    private long driverNanos;
+
+    private MongoRequestStats() {
+    }
+
+    /**
+     * Binds fresh stats to the current thread.
+     *
+     * @return the stats of the request being served
+     */
+    public static MongoRequestStats start() {
+        MongoRequestStats stats = new MongoRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Returns the stats bound to the current thread.
+     *
+     * @return the stats of the current request, or null outside a request
+     */
+    public static MongoRequestStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the stats of a request to the current thread, so work continued on this thread is charged to that request.
+     *
+     * @param stats the stats to bind, or null to unbind
+     * @return the stats bound before, to be bound again once the work is done
+     */
+    public static MongoRequestStats bind(MongoRequestStats stats) {
+        MongoRequestStats previous = CURRENT.get();
+        if (stats == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats);
+        }
+        return previous;
+    }
+
+    /**
+     * Unbinds the stats from the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Records one finished MongoDB command.
+     *
+     * @param elapsedNanos the time spent in the driver for the command
+     * @param returned     the number of documents the command returned
+     */
+    public void record(long elapsedNanos, int returned) {
+        commands++;
+        documents += returned;
+        driverNanos += elapsedNanos;
+    }
+
+    public int getCommands() {
+        return commands;
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    public double getDriverMillis() {
+        return driverNanos / 1_000_000.0;
+    }
+
+    /**
+     * Formats the stats as a {@code Server-Timing} header value.
+     *
+     * @return the header value
+     */
+    public String toServerTiming() {
+        return String.format(Locale.ROOT, "mongo;dur=%.3f;desc=\"%d cmds, %d docs\"", getDriverMillis(), commands, documents);
+    }
+}
@@ -0,0 +1,157 @@
+package com.crio.codehackcontest.utils;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.index.ContestRanking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The ParallelRanker class puts a large list of users in leaderboard order using every core.
+ *
+ * <p>Instead of sorting {@code User} objects with a comparator, it extracts the rank key of every
+ * user into a {@code long[]}, packs each key together with the user's position into one
+ * {@code long} and sorts those with {@link Arrays#parallelSort(long[])}. The key occupies the high
+ * bits: the inverted score times the span of the times the scores were reached, plus the time
+ * offset. When that does not fit next to the position, keys are first replaced by their rank among
+ * the distinct keys. Users are looked up by position only once, to fill the result, and user IDs
+ * are compared only inside runs of equal keys, which are ordered in parallel.</p>
+ *
+ * <p>Small lists are sorted with the policy's comparator, which is faster below
+ * {@value #PARALLEL_THRESHOLD} users. Both paths produce exactly the order of
+ * {@link RankingPolicy#comparator()}.</p>
+ *
+ * <p>{@link #sort(long[], String[])} applies the same packed sort to bare rank keys and IDs, for
+ * rankings that are loaded in bulk.</p>
+ */
+public final class ParallelRanker {
+    // Below this many users splitting the work costs more than it saves
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+    private static final Comparator<User> BY_USERID = Comparator.comparing(User::getUserid, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private ParallelRanker() {
+    }
+
+    /**
+     * Returns users in leaderboard order.
+     *
+     * @param users  the users, in any order; the list is not modified
+     * @param policy the policy ordering users with the same score
+     * @return a new list with the users in leaderboard order
+     */
+    public static List<User> rank(List<User> users, RankingPolicy policy) {
+        int count = users.size();
+        if (count < PARALLEL_THRESHOLD) {
+            List<User> ranked = new ArrayList<>(users);
+            ranked.sort(policy.comparator());
+            return ranked;
+        }
+        User[] source = users.toArray(new User[0]);
+        long[] keys = new long[count];
+        Arrays.parallelSetAll(keys, i -> policy.key(source[i]));
+        int positionBits = 32 - Integer.numberOfLeadingZeros(count - 1);
+        long[] packed = pack(keys, positionBits);
+        Arrays.parallelSort(packed);
+
+        long positionMask = (1L << positionBits) - 1;
+        User[] ranked = new User[count];
+        Arrays.parallelSetAll(ranked, i -> source[(int) (packed[i] & positionMask)]);
+        orderTiesByUserId(ranked, packed, positionBits);
+        return new ArrayList<>(Arrays.asList(ranked));
+    }
+
+    /**
+     * Sorts rank keys and the IDs next to them by key, then ID.
+     *
+     * @param keys the rank keys, sorted in place
+     * @param ids  the IDs, by position of their key; sorted in place along with the keys
+     */
+    public static void sort(long[] keys, String[] ids) {
+        int count = keys.length;
+        int[] positions;
+        if (count < PARALLEL_THRESHOLD) {
+            positions = IntStream.range(0, count).boxed()
+                    .sorted(Comparator.<Integer>comparingLong(i -> keys[i]).thenComparing(i -> ids[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        } else {
+            int positionBits = 32 - Integer.numberOfLeadingZeros(count - 1);
+            long[] packed = pack(keys, positionBits);
+            Arrays.parallelSort(packed);
+            long positionMask = (1L << positionBits) - 1;
+            positions = Arrays.stream(packed).parallel().mapToInt(value -> (int) (value & positionMask)).toArray();
+        }
+        long[] sortedKeys = new long[count];
+        String[] sortedIds = new String[count];
+        Arrays.parallelSetAll(sortedKeys, i -> keys[positions[i]]);
+        Arrays.parallelSetAll(sortedIds, i -> ids[positions[i]]);
+        System.arraycopy(sortedKeys, 0, keys, 0, count);
+        System.arraycopy(sortedIds, 0, ids, 0, count);
+        if (count >= PARALLEL_THRESHOLD) {
+            // The packed sort keeps equal keys in input order; put each run of them in ID order
+            int[] runStarts = IntStream.range(0, count).parallel()
+                    .filter(i -> i == 0 || keys[i] != keys[i - 1])
+                    .toArray();
+            IntStream.range(0, runStarts.length).parallel().forEach(run -> {
+                int from = runStarts[run];
+                int to = run + 1 < runStarts.length ? runStarts[run + 1] : count;
+                if (to - from > 1) {
+                    Arrays.sort(ids, from, to);
+                }
+            });
+        }
+    }
+
+    /**
+     * Helper method to pack each key into the high bits and its position into the low bits of one long.
+     *
+     * @param keys         the rank keys, indexed by position
+     * @param positionBits the number of low bits holding the position
+     * @return the packed values, in position order
+     */
+    private static long[] pack(long[] keys, int positionBits) {
+        long minTime = Arrays.stream(keys).parallel().map(RankingPolicy::time).min().orElse(0);
+        long maxTime = Arrays.stream(keys).parallel().map(RankingPolicy::time).max().orElse(0);
+        long timeSpan = maxTime - minTime + 1;
+        long[] packed = new long[keys.length];
+        if (timeSpan <= (Long.MAX_VALUE >>> positionBits) / (ContestRanking.MAX_SCORE + 1)) {
+            Arrays.parallelSetAll(packed, i -> (RankingPolicy.invertedScore(keys[i]) * timeSpan + RankingPolicy.time(keys[i]) - minTime) << positionBits | i);
+            return packed;
+        }
+        // Too wide to pack directly: rank each key among the distinct keys, which needs no more bits than a position
+        long[] distinct = keys.clone();
+        Arrays.parallelSort(distinct);
+        int distinctCount = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[distinctCount++] = distinct[i];
+            }
+        }
+        int finalDistinctCount = distinctCount;
+        Arrays.parallelSetAll(packed, i -> (long) Arrays.binarySearch(distinct, 0, finalDistinctCount, keys[i]) << positionBits | i);
+        return packed;
+    }
+
+    /**
+     * Helper method to order every run of users with equal keys by user ID, one run per task.
+     *
+     * @param ranked       the users in key order, ties in input order
+     * @param packed       the sorted packed values matching {@code ranked}
+     * @param positionBits the number of low bits holding the position
+     */
+    private static void orderTiesByUserId(User[] ranked, long[] packed, int positionBits) {
+        int[] runStarts = IntStream.range(0, packed.length).parallel()
+                .filter(i -> i == 0 || packed[i] >>> positionBits != packed[i - 1] >>> positionBits)
+                .toArray();
+        IntStream.range(0, runStarts.length).parallel().forEach(run -> {
+            int from = runStarts[run];
+            int to = run + 1 < runStarts.length ? runStarts[run + 1] : ranked.length;
+            if (to - from > 1) {
+                Arrays.sort(ranked, from, to, BY_USERID);
+            }
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.crio.codehackcontest.utils;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.index.ContestRanking;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * The RankingPolicy enum decides how participants with the same score are ordered.
+ *
+ * <p>Every policy ranks the highest score first. {@link #EARLIEST} then ranks the participant who
+ * reached the score first higher, while {@link #SCORE} leaves equal scores tied. Participants that
+ * are still tied share a rank and are listed by user ID, so the order never depends on the order
+ * the database returned them in.</p>
+ *
+ * <p>The part of the order that decides ranks is packed into one {@code long} per user: the
+ * inverted score in the top bits and, for {@link #EARLIEST}, the time the score was reached below
+ * it. A smaller key ranks higher and equal keys share a rank, so rankings compare and store
+ * primitives instead of walking a comparator chain over users.</p>
+ */
+public enum RankingPolicy {
+    SCORE("score"),
+    EARLIEST("earliest");
+
+    /**
+     * The policy used when none is configured.
+     */
+    public static final RankingPolicy DEFAULT = EARLIEST;
+
+    // Bits of the key below the score, holding the time the score was reached
+    private static final int TIME_BITS = 56;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private final String value;
+
+    RankingPolicy(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Parses a configured policy name.
+     *
+     * @param value {@code score} or {@code earliest}, case-insensitive
+     * @return the policy
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static RankingPolicy parse(String value) {
+        for (RankingPolicy policy : values()) {
+            if (policy.value.equals(value.trim().toLowerCase(Locale.ROOT))) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ranking policy: " + value);
+    }
+
+    /**
+     * Encodes the rank order of a score into a key.
+     *
+     * @param score        the score, clamped to the contest score range
+     * @param lastImproved the time the score was reached, in epoch milliseconds
+     * @return the key; smaller keys rank higher and equal keys are tied
+     */
+    public long key(int score, long lastImproved) {
+        long inverted = ContestRanking.MAX_SCORE - Math.max(ContestRanking.MIN_SCORE, Math.min(ContestRanking.MAX_SCORE, score));
+        long time = this == EARLIEST ? Math.max(0, Math.min(TIME_MASK, lastImproved)) : 0;
+        return inverted << TIME_BITS | time;
+    }
+
+    /**
+     * Encodes the rank order of a user into a key.
+     *
+     * @param user the user
+     * @return the key; smaller keys rank higher and equal keys are tied
+     */
+    public long key(User user) {
+        return key(user.getScore(), user.getLastImproved());
+    }
+
+    /**
+     * Returns a comparator putting users in leaderboard order under this policy.
+     *
+     * @return the comparator
+     */
+    public Comparator<User> comparator() {
+        return new UserScoreComparator(this);
+    }
+
+    /**
+     * Returns the MongoDB sort putting users in leaderboard order under this policy.
+     *
+     * @return the sort
+     */
+    public Sort sort() {
+        return this == EARLIEST
+                ? Sort.by(Sort.Order.desc("score"), Sort.Order.asc("lastImproved"), Sort.Order.asc("_id"))
+                : Sort.by(Sort.Order.desc("score"), Sort.Order.asc("_id"));
+    }
+
+    /**
+     * Returns the inverted score held in a key: 0 for the highest score.
+     *
+     * @param key a key returned by {@link #key(int, long)}
+     * @return the inverted score
+     */
+    static long invertedScore(long key) {
+        return key >>> TIME_BITS;
+    }
+
+    /**
+     * Returns the time part of a key: the time the score was reached, or 0 under {@link #SCORE}.
+     *
+     * @param key a key returned by {@link #key(int, long)}
+     * @return the time part
+     */
+    static long time(long key) {
+        return key & TIME_MASK;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,100 @@
+package com.crio.codehackcontest.utils;
+
+import com.crio.codehackcontest.jfr.CacheAccessEvent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The SingleFlight class coalesces concurrent computations of the same key.
+ *
+ * <p>The first caller for a key runs the computation, every caller that arrives while it is still
+ * running waits for and receives the same result (or the same exception). Once the computation
+ * finishes the key is released, so the next caller computes a fresh value. Nothing is cached.
+ * Joining a running computation is recorded as a join and starting one as a miss in a
+ * {@link CacheAccessEvent}.</p>
+ *
+ * @param <K> the type of the key identifying a computation
+ * @param <V> the type of the computed value
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final String name;
+
+    /**
+     * Constructs an unnamed SingleFlight.
+     */
+    public SingleFlight() {
+        this("single-flight");
+    }
+
+    /**
+     * Constructs a SingleFlight reported under the given name.
+     *
+     * @param name the name used in recorded events
+     */
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Runs the supplier for the key, or joins the computation already running for it.
+     *
+     * @param key      the key identifying the computation
+     * @param supplier the computation to run if none is in flight
+     * @return the value computed by the leading caller
+     */
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        recordAccess(key, existing != null);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Returns the number of computations currently in flight.
+     *
+     * @return the number of keys being computed
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private void recordAccess(K key, boolean joined) {
+        CacheAccessEvent event = new CacheAccessEvent();
+        if (event.isEnabled()) {
+            event.cache = name;
+            event.key = String.valueOf(key);
+            event.outcome = joined ? CacheAccessEvent.JOIN : CacheAccessEvent.MISS;
+            event.commit();
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
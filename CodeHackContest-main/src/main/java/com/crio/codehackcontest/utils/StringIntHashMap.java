@@ -0,0 +1,159 @@
+package com.crio.codehackcontest.utils;
+
+import java.util.Arrays;
+
+/**
+ * The StringIntHashMap class maps strings to non-negative ints without boxing.
+ *
+ * <p>Keys and values live in two parallel arrays with open addressing and linear probing, so an
+ * entry costs two array slots instead of a {@code HashMap.Node} and an {@code Integer}. Removal
+ * shifts the following entries of the probe sequence back, so no tombstones accumulate. The map
+ * is not thread safe.</p>
+ */
+public class StringIntHashMap {
+    /**
+     * The value returned for absent keys.
+     */
+    public static final int NO_VALUE = -1;
+
+    private String[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructs an empty StringIntHashMap.
+     */
+    public StringIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty StringIntHashMap sized for the given number of entries.
+     *
+     * @param expectedSize the number of entries expected
+     */
+    public StringIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new String[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @return the value, or {@link #NO_VALUE} if the key is absent
+     */
+    public int get(String key) {
+        int mask = keys.length - 1;
+        for (int i = indexOf(key, mask); keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                return values[i];
+            }
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Associates a value with a key.
+     *
+     * @param key   the key, not null
+     * @param value the value, not negative
+     * @return the previous value, or {@link #NO_VALUE} if the key was absent
+     */
+    public int put(String key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = indexOf(key, mask);
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the removed value, or {@link #NO_VALUE} if the key was absent
+     */
+    public int remove(String key) {
+        int mask = keys.length - 1;
+        int i = indexOf(key, mask);
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                int previous = values[i];
+                shiftBack(i, mask);
+                size--;
+                return previous;
+            }
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    private void shiftBack(int hole, int mask) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            String key = keys[i];
+            if (key == null) {
+                break;
+            }
+            int home = indexOf(key, mask);
+            // Move the entry into the hole unless its home slot lies cyclically between the hole and its position
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = key;
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = null;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new String[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = indexOf(oldKeys[j], mask);
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int indexOf(String key, int mask) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
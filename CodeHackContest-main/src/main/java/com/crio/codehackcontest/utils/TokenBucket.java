@@ -0,0 +1,67 @@
+package com.crio.codehackcontest.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TokenBucket class is a rate limiter that allows bursts up to a fixed capacity.
+ *
+ * <p>Tokens refill continuously at a fixed rate. Each request takes one token; when the bucket is
+ * empty the caller is told how long to wait until the next token is available.</p>
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * Constructs a full TokenBucket.
+     *
+     * @param ratePerSecond the number of tokens added per second
+     * @param capacity      the maximum number of tokens, i.e. the allowed burst
+     */
+    public TokenBucket(double ratePerSecond, int capacity) {
+        this.capacity = capacity;
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Tries to take one token.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one becomes available
+     */
+    public synchronized long tryConsume() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryConsume()} for a request that was rejected later on.
+     */
+    public synchronized void refund() {
+        refill();
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    /**
+     * Checks whether the bucket has refilled completely, meaning the client has been idle.
+     *
+     * @return true if the bucket is full
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
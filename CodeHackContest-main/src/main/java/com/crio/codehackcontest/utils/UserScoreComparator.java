@@ -6,19 +6,31 @@ import java.util.Comparator;
 
 public class UserScoreComparator implements Comparator<User> {
     private final boolean ascending;
+    private final RankingPolicy policy;
 
     // Default constructor sorts in ascending order
     public UserScoreComparator() {
-        this.ascending = false;
+        this(false);
     }
 
     // Constructor to specify sort order
     public UserScoreComparator(boolean ascending) {
         this.ascending = ascending;
+        this.policy = null;
+    }
+
+    // Constructor for leaderboard order: rank keys of the policy, then user ID
+    public UserScoreComparator(RankingPolicy policy) {
+        this.ascending = false;
+        this.policy = policy;
     }
 
     @Override
     public int compare(User u1, User u2) {
+        if (policy != null) {
+            int byKey = Long.compare(policy.key(u1), policy.key(u2));
+            return byKey != 0 ? byKey : Comparator.nullsLast(Comparator.<String>naturalOrder()).compare(u1.getUserid(), u2.getUserid());
+        }
         if (ascending) {
             return Integer.compare(u1.getScore(), u2.getScore());
         } else {
@@ -0,0 +1,122 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.config.AdmissionControlInterceptor;
+import com.crio.codehackcontest.controller.LeaderBoardController;
+import com.crio.codehackcontest.exception.TooManyRequestsException;
+import com.crio.codehackcontest.exchange.SubsetRequest;
+import com.crio.codehackcontest.utils.AimdLimiter;
+import com.crio.codehackcontest.utils.TokenBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // the limiter rejects once the limit is reached
+    @Test
+    public void test_limiter_rejects_above_limit() {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 0.5, THRESHOLD);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    // slow or failed samples shrink the limit, healthy busy samples grow it
+    @Test
+    public void test_limiter_adapts_to_latency() {
+        AimdLimiter limiter = new AimdLimiter(10, 2, 20, 0.5, THRESHOLD);
+
+        limiter.tryAcquire();
+        limiter.release(THRESHOLD * 2, false);
+        assertEquals(5, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(0, true);
+        assertEquals(2, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.release(0, false);
+        assertEquals(3, limiter.getLimit());
+    }
+
+    // a bucket allows its burst and then reports a wait time
+    @Test
+    public void test_token_bucket_allows_burst_then_waits() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        long wait = bucket.tryConsume();
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1));
+        assertFalse(bucket.isFull());
+    }
+
+    // a refunded token can be taken again, but the bucket never holds more than its burst
+    @Test
+    public void test_token_bucket_refund_restores_token() {
+        TokenBucket bucket = new TokenBucket(0.001, 1);
+
+        assertEquals(0, bucket.tryConsume());
+        bucket.refund();
+        assertTrue(bucket.isFull());
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+    }
+
+    // clients behind a trusted proxy get their own write bucket, while forwarded headers from anyone else are ignored
+    @Test
+    public void test_forwarded_clients_behind_trusted_proxy() {
+        AdmissionControlInterceptor interceptor = interceptor("10.0.0.1");
+
+        assertDoesNotThrow(() -> write(interceptor, "10.0.0.1", "X-Forwarded-For", "203.0.113.7"));
+        assertDoesNotThrow(() -> write(interceptor, "10.0.0.1", "Forwarded", "for=\"[2001:db8::1]:4711\";proto=https"));
+        assertDoesNotThrow(() -> write(interceptor, "10.0.0.1", "X-Forwarded-For", "198.51.100.2, 203.0.113.8"));
+        assertThrows(TooManyRequestsException.class, () -> write(interceptor, "10.0.0.1", "X-Forwarded-For", "198.51.100.9, 203.0.113.7"));
+
+        assertDoesNotThrow(() -> write(interceptor, "192.0.2.1", "X-Forwarded-For", "203.0.113.9"));
+        assertThrows(TooManyRequestsException.class, () -> write(interceptor, "192.0.2.1", "X-Forwarded-For", "203.0.113.10"));
+    }
+
+    // a subset leaderboard is posted but only reads, so it takes a read slot and leaves the client's write tokens alone
+    @Test
+    public void test_subset_leaderboard_takes_read_slot() throws NoSuchMethodException {
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(new SimpleMeterRegistry(), true, 1, 10, 1, 10, 0.9, 250, 0.001, 1, 100, "");
+        HandlerMethod subset = new HandlerMethod(new Object(),
+                LeaderBoardController.class.getMethod("getSubsetLeaderBoard", String.class, SubsetRequest.class));
+        MockHttpServletRequest first = new MockHttpServletRequest("POST", "/leaderboard/1/subset");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(first, response, subset));
+        assertThrows(TooManyRequestsException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("POST", "/leaderboard/1/subset"), response, subset));
+        assertThrows(TooManyRequestsException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("GET", "/leaderboard/1"), response, new Object()));
+        interceptor.afterCompletion(first, response, subset, null);
+
+        assertDoesNotThrow(() -> write(interceptor, "127.0.0.1", "X-Request-Id", "1"));
+    }
+
+    private static AdmissionControlInterceptor interceptor(String trustedProxies) {
+        return new AdmissionControlInterceptor(new SimpleMeterRegistry(), true, 10, 10, 1, 10, 0.9, 250, 0.001, 1, 100, trustedProxies);
+    }
+
+    private static void write(AdmissionControlInterceptor interceptor, String remoteAddr, String header, String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/users/1");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader(header, value);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        interceptor.afterCompletion(request, response, new Object(), null);
+    }
+}
@@ -1,11 +1,17 @@
 package com.crio.codehackcontest;
 
+import com.crio.codehackcontest.archive.StandingsArchive;
 import com.crio.codehackcontest.entity.Contest;
 import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.events.ScoreEventBus;
 import com.crio.codehackcontest.exchange.ContestRequest;
+import com.crio.codehackcontest.exchange.UserFields;
+import com.crio.codehackcontest.history.ScoreEventLog;
+import com.crio.codehackcontest.index.LeaderBoardIndex;
 import com.crio.codehackcontest.repository.ContestRepository;
 import com.crio.codehackcontest.repository.UserRepository;
 import com.crio.codehackcontest.service.implementation.ContestServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,11 +19,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -107,6 +120,40 @@ class ContestTest {
         assertFalse(updatedContest.getParticipantsId().contains("user2"));
     }
 
+    // concurrent joins of different users each read and save the contest in turn, so no participant is lost
+    @Test
+    public void test_concurrent_joins_keep_every_participant() throws Exception {
+        UserRepository userRepository = mock(UserRepository.class);
+        ContestRepository contestRepository = mock(ContestRepository.class);
+        ContestServiceImpl contestService = new ContestServiceImpl(userRepository, contestRepository);
+
+        AtomicReference<Contest> stored = new AtomicReference<>(new Contest("Existing Contest", List.of()));
+        when(contestRepository.findById("1")).thenAnswer(invocation ->
+                Optional.of(new Contest("Existing Contest", stored.get().getParticipantsId())));
+        when(contestRepository.save(any(Contest.class))).thenAnswer(invocation -> {
+            Thread.sleep(1);
+            stored.set(invocation.getArgument(0));
+            return stored.get();
+        });
+        when(userRepository.findById(anyString())).thenReturn(Optional.of(new User()));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Contest>> joins = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                ContestRequest contestRequest = new ContestRequest("Existing Contest", List.of("user" + i));
+                joins.add(executor.submit(() -> contestService.addUserToContest("1", contestRequest)));
+            }
+            for (Future<Contest> join : joins) {
+                join.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(32, new HashSet<>(stored.get().getParticipantsId()).size());
+    }
+
     // get a contest by its ID
     @Test
     public void test_get_contest_by_id() {
@@ -124,4 +171,25 @@ class ContestTest {
         assertEquals("Existing Contest", retrievedContest.getName());
     }
 
+    // the leaderboard size gauge of a contest is registered on the injected registry and removed with the contest
+    @Test
+    public void test_delete_contest_removes_size_gauge() {
+        UserRepository userRepository = mock(UserRepository.class);
+        ContestRepository contestRepository = mock(ContestRepository.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ContestServiceImpl contestService = new ContestServiceImpl(userRepository, contestRepository, new LeaderBoardIndex(),
+                ScoreEventLog.disabled(), StandingsArchive.disabled(), ScoreEventBus.disabled(), registry);
+
+        Contest existingContest = new Contest("Existing Contest", List.of("user1"));
+        existingContest.setId("1");
+        when(contestRepository.findById("1")).thenReturn(Optional.of(existingContest));
+        when(userRepository.findAllById(List.of("user1"))).thenReturn(List.of(new User("user1", "one", 10, new HashSet<>())));
+
+        contestService.checkLeaderBoard("1", UserFields.ALL);
+        assertEquals(1.0, registry.get("codehack.leaderboard.size").tag("contest", "1").gauge().value());
+
+        contestService.deleteContest("1");
+        assertNull(registry.find("codehack.leaderboard.size").tag("contest", "1").gauge());
+    }
+
 }
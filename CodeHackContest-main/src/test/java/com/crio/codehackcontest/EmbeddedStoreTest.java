@@ -0,0 +1,262 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.entity.Contest;
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.model.Badges;
+import com.crio.codehackcontest.repository.embedded.EmbeddedContestRepository;
+import com.crio.codehackcontest.repository.embedded.EmbeddedStore;
+import com.crio.codehackcontest.repository.embedded.EmbeddedUserRepository;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedStoreTest {
+
+    @TempDir
+    Path dataDir;
+
+    // journaled writes are recovered after a restart without a snapshot
+    @Test
+    public void test_writes_survive_restart_from_journal() throws IOException {
+        EmbeddedStore store = open();
+        EmbeddedUserRepository users = new EmbeddedUserRepository(store);
+        EmbeddedContestRepository contests = new EmbeddedContestRepository(store);
+        users.save(new User("u1", "alice", 40, new HashSet<>(Set.of(Badges.CODENINJA))));
+        users.save(new User("u2", "bob", 90, null));
+        Contest contest = contests.save(new Contest("contest", List.of("u1")));
+        contest.getParticipantsId().add("u2");
+        contests.save(contest);
+        users.deleteById("u1");
+        crash(store);
+
+        EmbeddedStore reopened = open();
+        EmbeddedUserRepository recoveredUsers = new EmbeddedUserRepository(reopened);
+        assertTrue(recoveredUsers.findById("u1").isEmpty());
+        User bob = recoveredUsers.findById("u2").orElseThrow();
+        assertEquals("bob", bob.getUsername());
+        assertEquals(90, bob.getScore());
+        assertNull(bob.getBadges());
+        Contest recovered = new EmbeddedContestRepository(reopened).findById(contest.getId()).orElseThrow();
+        assertEquals(List.of("u1", "u2"), recovered.getParticipantsId());
+        reopened.close();
+    }
+
+    // a snapshot followed by more journaled writes is recovered as a whole
+    @Test
+    public void test_snapshot_and_later_writes_are_recovered() throws IOException {
+        EmbeddedStore store = open();
+        EmbeddedUserRepository users = new EmbeddedUserRepository(store);
+        for (int i = 0; i < 100; i++) {
+            users.save(new User("u" + i, "user" + i, i, new HashSet<>()));
+        }
+        store.snapshot();
+        users.save(new User("u5", "renamed", 100, new HashSet<>(Set.of(Badges.CODEMASTER))));
+        users.deleteById("u7");
+        crash(store);
+
+        try (Stream<Path> files = Files.list(dataDir)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("snapshot-")).count());
+        }
+        EmbeddedStore reopened = open();
+        EmbeddedUserRepository recovered = new EmbeddedUserRepository(reopened);
+        assertEquals(99, recovered.count());
+        assertEquals("renamed", recovered.findById("u5").orElseThrow().getUsername());
+        assertEquals(Set.of(Badges.CODEMASTER), recovered.findById("u5").orElseThrow().getBadges());
+        assertTrue(recovered.findById("u7").isEmpty());
+        reopened.close();
+    }
+
+    // a record torn by a crash is discarded and the complete records before it are kept
+    @Test
+    public void test_torn_journal_tail_is_discarded() throws IOException {
+        EmbeddedStore store = open();
+        EmbeddedUserRepository users = new EmbeddedUserRepository(store);
+        users.save(new User("u1", "alice", 10, new HashSet<>()));
+        users.save(new User("u2", "bob", 20, new HashSet<>()));
+        crash(store);
+
+        Path journal;
+        try (Stream<Path> files = Files.list(dataDir)) {
+            journal = files.filter(file -> file.getFileName().toString().startsWith("journal-")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        EmbeddedStore reopened = open();
+        EmbeddedUserRepository recovered = new EmbeddedUserRepository(reopened);
+        assertTrue(recovered.findById("u1").isPresent());
+        assertTrue(recovered.findById("u2").isEmpty());
+        recovered.save(new User("u3", "carol", 30, new HashSet<>()));
+        crash(reopened);
+
+        assertEquals(2, new EmbeddedUserRepository(open()).count());
+    }
+
+    // an unreadable newest snapshot falls back to the previous snapshot and the journals kept after it
+    @Test
+    public void test_damaged_snapshot_falls_back_to_previous() throws IOException {
+        EmbeddedStore store = open();
+        EmbeddedUserRepository users = new EmbeddedUserRepository(store);
+        users.save(new User("u1", "alice", 10, new HashSet<>()));
+        store.snapshot();
+        users.save(new User("u2", "bob", 20, new HashSet<>()));
+        store.snapshot();
+        users.save(new User("u3", "carol", 30, new HashSet<>()));
+        crash(store);
+
+        Path newest;
+        try (Stream<Path> files = Files.list(dataDir)) {
+            newest = files.filter(file -> file.getFileName().toString().startsWith("snapshot-")).max(Path::compareTo).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        EmbeddedUserRepository recovered = new EmbeddedUserRepository(open());
+        assertEquals(3, recovered.count());
+        assertEquals("bob", recovered.findById("u2").orElseThrow().getUsername());
+    }
+
+    // a damaged record in a journal that is not the newest fails the recovery instead of dropping later writes
+    @Test
+    public void test_damaged_older_journal_fails_recovery() throws IOException {
+        EmbeddedStore store = open();
+        EmbeddedUserRepository users = new EmbeddedUserRepository(store);
+        users.save(new User("u1", "alice", 10, new HashSet<>()));
+        store.snapshot();
+        users.save(new User("u2", "bob", 20, new HashSet<>()));
+        store.snapshot();
+        users.save(new User("u3", "carol", 30, new HashSet<>()));
+        crash(store);
+
+        List<Path> snapshots;
+        List<Path> journals;
+        try (Stream<Path> files = Files.list(dataDir)) {
+            List<Path> all = files.sorted().toList();
+            snapshots = all.stream().filter(file -> file.getFileName().toString().startsWith("snapshot-")).toList();
+            journals = all.stream().filter(file -> file.getFileName().toString().startsWith("journal-")).toList();
+        }
+        Files.delete(snapshots.get(snapshots.size() - 1));
+        try (FileChannel channel = FileChannel.open(journals.get(journals.size() - 2), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        assertThrows(UncheckedIOException.class, this::open);
+    }
+
+    // the ranked stream orders by score descending, then ID, and loads only the requested fields
+    @Test
+    public void test_ranked_stream_with_fields() throws IOException {
+        EmbeddedStore store = open();
+        EmbeddedUserRepository users = new EmbeddedUserRepository(store);
+        users.saveAll(List.of(new User("b", "bob", 50, new HashSet<>()), new User("a", "alice", 50, new HashSet<>()),
+                new User("c", "carol", 80, new HashSet<>())));
+
+        List<User> ranked;
+        try (Stream<User> stream = users.streamAllByIdRankedWithFields(List.of("a", "b", "c", "x"), List.of("score"), RankingPolicy.SCORE)) {
+            ranked = stream.toList();
+        }
+        List<String> ids = new ArrayList<>();
+        ranked.forEach(user -> ids.add(user.getUserid()));
+        assertEquals(List.of("c", "a", "b"), ids);
+        assertNull(ranked.get(0).getUsername());
+        assertEquals(80, ranked.get(0).getScore());
+        store.close();
+    }
+
+    // the time a score was reached survives a snapshot and a journal replay, and ranks equal scores earliest first
+    @Test
+    public void test_earliest_policy_orders_equal_scores() throws IOException {
+        EmbeddedStore store = open();
+        EmbeddedUserRepository users = new EmbeddedUserRepository(store);
+        users.save(new User("a", "alice", 50, new HashSet<>(), 3000));
+        store.snapshot();
+        users.saveAll(List.of(new User("b", "bob", 50, new HashSet<>(), 2000), new User("c", "carol", 50, new HashSet<>(), 3000),
+                new User("d", "dave", 60, new HashSet<>(), 9000)));
+        crash(store);
+
+        EmbeddedStore reopened = open();
+        List<String> ids = new ArrayList<>();
+        try (Stream<User> stream = new EmbeddedUserRepository(reopened).streamAllRankedWithFields(List.of("score", "lastImproved"), RankingPolicy.EARLIEST)) {
+            stream.forEach(user -> ids.add(user.getUserid()));
+        }
+        assertEquals(List.of("d", "b", "a", "c"), ids);
+        assertEquals(3000, new EmbeddedUserRepository(reopened).findById("a").orElseThrow().getLastImproved());
+        reopened.close();
+    }
+
+    // concurrent writers wait for the disk together, so their records share fsyncs and are all applied
+    @Test
+    public void test_concurrent_writes_share_fsyncs() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EmbeddedStore store = new EmbeddedStore(dataDir, true, 0, Long.MAX_VALUE, registry);
+        store.start();
+        EmbeddedUserRepository users = new EmbeddedUserRepository(store);
+        int writers = 8;
+        int writesPerWriter = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                String id = "u" + w;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int score = 1; score <= writesPerWriter; score++) {
+                        users.save(new User(id, id, score, null));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        double fsyncs = registry.get("codehack.embedded.journal.fsyncs").counter().count();
+        assertTrue(fsyncs > 0 && fsyncs < writers * writesPerWriter, "fsyncs: " + fsyncs);
+        for (int w = 0; w < writers; w++) {
+            assertEquals(writesPerWriter, users.findById("u" + w).orElseThrow().getScore());
+        }
+        crash(store);
+
+        EmbeddedStore reopened = open();
+        assertEquals(writers, new EmbeddedUserRepository(reopened).count());
+        assertEquals(writesPerWriter, new EmbeddedUserRepository(reopened).findById("u0").orElseThrow().getScore());
+        reopened.close();
+    }
+
+    private EmbeddedStore open() {
+        EmbeddedStore store = new EmbeddedStore(dataDir, false, 0, Long.MAX_VALUE);
+        store.start();
+        return store;
+    }
+
+    // Closes the journal without the final snapshot a clean shutdown would take
+    private void crash(EmbeddedStore store) throws IOException {
+        store.closeJournal();
+    }
+}
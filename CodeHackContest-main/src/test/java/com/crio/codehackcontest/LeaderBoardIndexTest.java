@@ -0,0 +1,299 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.index.ContestRanking;
+import com.crio.codehackcontest.index.LeaderBoardIndex;
+import com.crio.codehackcontest.index.UsernameTrie;
+import com.crio.codehackcontest.model.Badges;
+import com.crio.codehackcontest.model.ScoreStats;
+import com.crio.codehackcontest.model.SubsetLeaderBoard;
+import com.crio.codehackcontest.model.SubsetStanding;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderBoardIndexTest {
+
+    // participants are ranked by score descending and by user ID within a score
+    @Test
+    public void test_ranking_orders_by_score_then_user_id() {
+        ContestRanking ranking = new ContestRanking("c1", "contest");
+        ranking.putAll(List.of(user("b", 50), user("a", 50), user("c", 90), user("d", 10)));
+
+        assertEquals(List.of("c", "a", "b", "d"), ids(ranking.ranked()));
+    }
+
+    // a bulk load into a filled ranking replaces listed users once and gives the same order as single puts
+    @Test
+    public void test_put_all_matches_single_puts() {
+        ContestRanking bulk = new ContestRanking("c1", "contest", RankingPolicy.SCORE);
+        ContestRanking single = new ContestRanking("c1", "contest", RankingPolicy.SCORE);
+        List<User> first = List.of(user("a", 50, Set.of(Badges.CODENINJA)), user("b", 50), user("c", 70));
+        List<User> second = List.of(user("d", 50), user("a", 90, Set.of(Badges.CODECHAMP)), user("e", 50), user("d", 50));
+        bulk.putAll(first);
+        bulk.putAll(second);
+        first.forEach(single::put);
+        second.forEach(single::put);
+
+        assertEquals(List.of("a", "c", "b", "d", "e"), ids(bulk.ranked()));
+        assertEquals(ids(single.ranked()), ids(bulk.ranked()));
+        assertEquals(ids(single.ranked(Badges.CODECHAMP)), ids(bulk.ranked(Badges.CODECHAMP)));
+        assertTrue(bulk.ranked(Badges.CODENINJA).isEmpty());
+        assertEquals(5, bulk.size());
+        assertTrue(bulk.remove("d"));
+        assertEquals(List.of("a", "c", "b", "e"), ids(bulk.ranked()));
+    }
+
+    // a score change moves the user to its new position
+    @Test
+    public void test_ranking_moves_user_on_score_change() {
+        ContestRanking ranking = new ContestRanking("c1", "contest");
+        ranking.putAll(List.of(user("a", 20), user("b", 40)));
+
+        assertTrue(ranking.replace(user("a", 80)));
+        assertFalse(ranking.replace(user("x", 99)));
+        assertEquals(List.of("a", "b"), ids(ranking.ranked()));
+        assertEquals(2, ranking.size());
+    }
+
+    // the index does not answer reads before the warm-up has installed its rankings
+    @Test
+    public void test_index_not_ready_before_install() {
+        LeaderBoardIndex index = new LeaderBoardIndex();
+        index.addContest("c1", "contest", List.of(user("a", 10)));
+
+        assertFalse(index.isReady());
+        assertTrue(index.ranking("c1").isEmpty());
+    }
+
+    // an index that is not warming up, or has been invalidated, ignores changes but still counts them
+    @Test
+    public void test_index_ignores_changes_when_disabled_or_invalidated() {
+        LeaderBoardIndex index = new LeaderBoardIndex();
+        long start = index.generation();
+        index.addContest("c1", "contest", List.of(user("a", 10)));
+        assertEquals(0, index.contestCount());
+
+        index.beginWarmup();
+        index.install(Map.of());
+        index.addContest("c2", "contest", List.of(user("b", 10)));
+        index.invalidate();
+        index.addContest("c3", "contest", List.of(user("c", 10)));
+
+        assertEquals(1, index.contestCount());
+        assertEquals(start + 3, index.generation());
+    }
+
+    // every applied change bumps the write generation, also while the warm-up journals it
+    @Test
+    public void test_generation_counts_applied_changes() {
+        LeaderBoardIndex index = new LeaderBoardIndex();
+        long start = index.generation();
+        index.beginWarmup();
+        index.addUser(user("a", 0));
+        index.updateUser(user("a", 10));
+        index.install(Map.of());
+        index.removeUser("a");
+
+        assertEquals(start + 3, index.generation());
+    }
+
+    // callers get copies of the participants, so changing them does not corrupt the ranking
+    @Test
+    public void test_ranking_returns_copies() {
+        ContestRanking ranking = new ContestRanking("c1", "contest");
+        User stored = user("a", 20);
+        ranking.putAll(List.of(stored, user("b", 40)));
+        stored.setScore(99);
+
+        User returned = ranking.ranked().get(1);
+        returned.setScore(100);
+        returned.getBadges().add(Badges.CODENINJA);
+
+        assertEquals(List.of("b", "a"), ids(ranking.ranked()));
+        assertEquals(20, ranking.get("a").getScore());
+        assertTrue(ranking.get("a").getBadges().isEmpty());
+        assertTrue(ranking.remove("a"));
+        assertEquals(List.of("b"), ids(ranking.stream().toList()));
+    }
+
+    // a change that fails to apply stops the index from answering reads, also after a later install
+    @Test
+    public void test_failed_change_invalidates_index() {
+        LeaderBoardIndex index = new LeaderBoardIndex();
+        index.beginWarmup();
+        index.addParticipants("c1", "contest", List.of(user("a", 10)));
+        HashSet<Badges> broken = new HashSet<>();
+        broken.add(null);
+        assertThrows(NullPointerException.class, () -> index.updateUser(new User("a", "user-a", 50, broken)));
+        index.install(Map.of());
+
+        assertFalse(index.isReady());
+        assertTrue(index.ranking("c1").isEmpty());
+    }
+
+    // changes made during the warm-up are replayed on top of the loaded rankings
+    @Test
+    public void test_install_replays_changes_made_during_warmup() {
+        LeaderBoardIndex index = new LeaderBoardIndex();
+        index.beginWarmup();
+        index.updateUser(user("a", 70));
+        index.removeUser("b");
+        index.addParticipants("c1", "contest", List.of(user("c", 5)));
+
+        ContestRanking loaded = new ContestRanking("c1", "contest");
+        loaded.putAll(List.of(user("a", 10), user("b", 30)));
+        index.install(Map.of("c1", loaded));
+
+        assertTrue(index.isReady());
+        assertEquals(List.of("a", "c"), ids(index.ranking("c1").orElseThrow().ranked()));
+        assertEquals(70, index.ranking("c1").orElseThrow().ranked().get(0).getScore());
+    }
+
+    // the live counters follow every change and give the same statistics as counting the participants
+    @Test
+    public void test_ranking_stats_follow_changes() {
+        ContestRanking ranking = new ContestRanking("c1", "contest");
+        for (int i = 0; i < 100; i++) {
+            ranking.put(user("u" + i, i, i >= 50 ? Set.of(Badges.CODENINJA, Badges.CODECHAMP) : Set.of(Badges.CODENINJA)));
+        }
+        ranking.replace(user("u0", 100, Set.of(Badges.CODEMASTER)));
+        ranking.remove("u99");
+
+        ScoreStats stats = ranking.stats();
+        assertEquals(99, stats.getParticipants());
+        assertEquals(1, stats.getHistogram()[100]);
+        assertEquals(0, stats.getHistogram()[0]);
+        assertEquals(0, stats.getHistogram()[99]);
+        assertEquals((4950 - 99 + 100) / 99.0, stats.getMean(), 1e-9);
+        assertEquals(50, stats.getPercentiles().get("p50"));
+        assertEquals(100, stats.getPercentiles().get("p99"));
+        assertEquals(Map.of(Badges.CODENINJA, 98, Badges.CODECHAMP, 49, Badges.CODEMASTER, 1), stats.getBadges());
+        assertEquals(stats, ScoreStats.of("c1", "contest", ranking.ranked()));
+    }
+
+    // a badge filter returns only holders of the badge in leaderboard order, following badge and score changes
+    @Test
+    public void test_ranking_filters_by_badge() {
+        ContestRanking ranking = new ContestRanking("c1", "contest");
+        ranking.put(user("a", 40, Set.of(Badges.CODEMASTER)));
+        ranking.put(user("b", 90, Set.of(Badges.CODENINJA)));
+        ranking.put(user("c", 70, Set.of(Badges.CODEMASTER, Badges.CODENINJA)));
+        ranking.put(user("d", 70, Set.of(Badges.CODEMASTER)));
+
+        assertEquals(List.of("c", "d", "a"), ids(ranking.ranked(Badges.CODEMASTER)));
+        assertEquals(List.of(), ids(ranking.ranked(Badges.CODECHAMP)));
+
+        ranking.replace(user("a", 95, Set.of(Badges.CODEMASTER)));
+        ranking.replace(user("c", 70, Set.of(Badges.CODENINJA)));
+        ranking.remove("d");
+
+        assertEquals(List.of("a"), ids(ranking.ranked(Badges.CODEMASTER)));
+        assertEquals(List.of("b", "c"), ranking.stream(Badges.CODENINJA).map(User::getUserid).toList());
+    }
+
+    // a subset keeps the global order and global ranks, and ranks its members among each other with shared ranks for ties
+    @Test
+    public void test_subset_ranks_members() {
+        ContestRanking ranking = new ContestRanking("c1", "contest");
+        ranking.putAll(List.of(user("a", 90), user("b", 80), user("c", 80), user("d", 70), user("e", 60), user("f", 60)));
+
+        SubsetLeaderBoard subset = SubsetLeaderBoard.of("c1", "contest", ranking.standings(List.of("f", "c", "x", "e", "a")), List.of("f", "c", "x", "e", "a"));
+
+        assertEquals(List.of("a", "c", "e", "f"), subset.getUser().stream().map(SubsetStanding::getUserid).toList());
+        assertEquals(List.of(1, 2, 5, 5), subset.getUser().stream().map(SubsetStanding::getGlobalRank).toList());
+        assertEquals(List.of(1, 2, 3, 3), subset.getUser().stream().map(SubsetStanding::getRank).toList());
+        assertEquals(List.of("x"), subset.getMissing());
+        assertEquals("LeaderBoard: contest", subset.getName());
+    }
+
+    // equal scores rank whoever reached them first higher, fully tied users share a rank, and the score policy keeps equal scores tied
+    @Test
+    public void test_ranking_policy_breaks_ties() {
+        List<User> users = List.of(improved("a", 80, 3000), improved("b", 80, 1000), improved("c", 80, 3000), improved("d", 90, 5000), improved("e", 70, 0));
+        ContestRanking earliest = new ContestRanking("c1", "contest", RankingPolicy.EARLIEST);
+        earliest.putAll(users);
+
+        assertEquals(List.of("d", "b", "a", "c", "e"), ids(earliest.ranked()));
+        assertEquals(List.of(1, 2, 3, 3, 5), List.of(earliest.rankOf("d"), earliest.rankOf("b"), earliest.rankOf("a"), earliest.rankOf("c"), earliest.rankOf("e")));
+        List<User> sorted = new ArrayList<>(users);
+        sorted.sort(RankingPolicy.EARLIEST.comparator());
+        assertEquals(ids(earliest.ranked()), ids(sorted));
+
+        earliest.replace(improved("b", 80, 4000));
+        assertEquals(List.of("d", "a", "c", "b", "e"), ids(earliest.ranked()));
+        assertEquals(4, earliest.rankOf("b"));
+
+        ContestRanking score = new ContestRanking("c1", "contest", RankingPolicy.SCORE);
+        score.putAll(users);
+        assertEquals(List.of("d", "a", "b", "c", "e"), ids(score.ranked()));
+        assertEquals(2, score.rankOf("c"));
+    }
+
+    // prefixes match case-insensitively, inside or at the end of a compressed edge, in username order
+    @Test
+    public void test_username_trie_prefix_search() {
+        UsernameTrie trie = new UsernameTrie();
+        trie.put("Alice", "1");
+        trie.put("alicia", "2");
+        trie.put("Al", "3");
+        trie.put("bob", "4");
+        trie.put("alice", "5");
+
+        assertEquals(List.of("3", "1", "5", "2"), trie.search("al", 10));
+        assertEquals(List.of("1", "5", "2"), trie.search("ALI", 10));
+        assertEquals(List.of("1", "5"), trie.search("alice", 10));
+        assertEquals(List.of("3", "1"), trie.search("a", 2));
+        assertTrue(trie.search("alx", 10).isEmpty());
+        assertTrue(trie.search("alicez", 10).isEmpty());
+
+        trie.remove("alice", "1");
+        trie.remove("Alice", "5");
+        trie.remove("al", "3");
+        trie.remove("bob", "nobody");
+        assertEquals(List.of("2"), trie.search("al", 10));
+        assertEquals(List.of("2", "4"), trie.search("", 10));
+        assertEquals(2, trie.size());
+    }
+
+    // users created and deleted during the warm-up are applied on top of the loaded usernames
+    @Test
+    public void test_install_replays_username_changes() {
+        LeaderBoardIndex index = new LeaderBoardIndex();
+        index.beginWarmup();
+        index.addUser(user("c", 0));
+        index.removeUser(user("a", 0));
+        assertTrue(index.searchUsernames("user", 10).isEmpty());
+
+        UsernameTrie loaded = new UsernameTrie();
+        loaded.put("user-a", "a");
+        loaded.put("user-b", "b");
+        index.install(Map.of(), loaded);
+
+        assertEquals(Optional.of(List.of("b", "c")), index.searchUsernames("user-", 10));
+    }
+
+    private static User user(String id, int score) {
+        return new User(id, "user-" + id, score, new HashSet<>());
+    }
+
+    private static User user(String id, int score, Set<Badges> badges) {
+        return new User(id, "user-" + id, score, new HashSet<>(badges));
+    }
+
+    private static User improved(String id, int score, long lastImproved) {
+        return new User(id, "user-" + id, score, new HashSet<>(), lastImproved);
+    }
+
+    private static List<String> ids(List<User> users) {
+        return users.stream().map(User::getUserid).toList();
+    }
+}
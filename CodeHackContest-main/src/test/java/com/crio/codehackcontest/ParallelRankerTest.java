@@ -0,0 +1,100 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.utils.ParallelRanker;
+import com.crio.codehackcontest.utils.RankingPolicy;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelRankerTest {
+
+    // the packed parallel sort gives exactly the comparator order, with ties on score and time ordered by user ID
+    @Test
+    public void test_matches_comparator_order() {
+        for (RankingPolicy policy : RankingPolicy.values()) {
+            List<User> users = users(100_000, 60_000);
+            assertEquals(sorted(users, policy), ParallelRanker.rank(users, policy));
+        }
+    }
+
+    // times too far apart to pack next to the position are ranked among the distinct keys first
+    @Test
+    public void test_wide_time_span_matches_comparator_order() {
+        List<User> users = users(50_000, Long.MAX_VALUE >>> 8);
+        users.add(new User("oldest", "oldest", 50, new HashSet<>(), 0));
+        assertEquals(sorted(users, RankingPolicy.EARLIEST), ParallelRanker.rank(users, RankingPolicy.EARLIEST));
+    }
+
+    // the input list is left untouched and small lists take the comparator path
+    @Test
+    public void test_input_is_not_modified() {
+        List<User> users = users(100, 10);
+        List<User> copy = new ArrayList<>(users);
+        assertEquals(sorted(users, RankingPolicy.EARLIEST), ParallelRanker.rank(users, RankingPolicy.EARLIEST));
+        assertEquals(copy, users);
+    }
+
+    // sorting bare keys and IDs gives the comparator order too, on the packed and on the small path
+    @Test
+    public void test_sort_keys_and_ids_matches_comparator_order() {
+        for (int count : new int[]{100_000, 100}) {
+            List<User> users = users(count, 50);
+            long[] keys = users.stream().mapToLong(RankingPolicy.EARLIEST::key).toArray();
+            String[] ids = users.stream().map(User::getUserid).toArray(String[]::new);
+            ParallelRanker.sort(keys, ids);
+
+            List<User> expected = sorted(users, RankingPolicy.EARLIEST);
+            assertArrayEquals(expected.stream().mapToLong(RankingPolicy.EARLIEST::key).toArray(), keys);
+            assertArrayEquals(expected.stream().map(User::getUserid).toArray(String[]::new), ids);
+        }
+    }
+
+    // the MongoDB sort of every policy gives the same order as its comparator, including ties
+    @Test
+    public void test_mongo_sort_matches_comparator_order() {
+        for (RankingPolicy policy : RankingPolicy.values()) {
+            List<User> users = users(10_000, 50);
+            List<User> byMongoSort = new ArrayList<>(users);
+            byMongoSort.sort(mongoOrder(policy.sort()));
+            assertEquals(sorted(users, policy), byMongoSort);
+        }
+    }
+
+    private static Comparator<User> mongoOrder(Sort sort) {
+        Comparator<User> order = (a, b) -> 0;
+        for (Sort.Order field : sort) {
+            Comparator<User> byField = switch (field.getProperty()) {
+                case "score" -> Comparator.comparingInt(User::getScore);
+                case "lastImproved" -> Comparator.comparingLong(User::getLastImproved);
+                case "_id" -> Comparator.comparing(User::getUserid);
+                default -> throw new IllegalArgumentException("Unexpected sort field " + field.getProperty());
+            };
+            order = order.thenComparing(field.isAscending() ? byField : byField.reversed());
+        }
+        return order;
+    }
+
+    private static List<User> sorted(List<User> users, RankingPolicy policy) {
+        List<User> sorted = new ArrayList<>(users);
+        sorted.sort(policy.comparator());
+        return sorted;
+    }
+
+    private static List<User> users(int count, long timeSpan) {
+        SplittableRandom random = new SplittableRandom(7);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long lastImproved = 1_700_000_000_000L % timeSpan + random.nextLong(timeSpan);
+            users.add(new User("u" + random.nextInt(count * 10) + "-" + i, "user", random.nextInt(101), new HashSet<>(), lastImproved));
+        }
+        return users;
+    }
+}
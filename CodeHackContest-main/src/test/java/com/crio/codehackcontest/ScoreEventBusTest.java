@@ -0,0 +1,219 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.events.ScoreChange;
+import com.crio.codehackcontest.events.ScoreEventBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreEventBusTest {
+
+    // every consumer sees every change once, in sequence order, with the publishers' order kept per publisher
+    @Test
+    public void test_consumers_receive_all_changes_in_order() throws Exception {
+        ScoreEventBus bus = new ScoreEventBus(64, new SimpleMeterRegistry());
+        List<ScoreChange.Type> types = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>();
+        List<Integer> scoresOfA = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(2 * 2000 + 2);
+        bus.register("first", (change, endOfBatch) -> {
+            sequences.add(change.getSequence());
+            if ("a".equals(change.getUserId()) && change.getType() == ScoreChange.Type.SCORED) {
+                scoresOfA.add(change.getNewScore());
+            }
+            done.countDown();
+        });
+        bus.register("second", (change, endOfBatch) -> {
+            types.add(change.getType());
+            done.countDown();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> a = executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    bus.publish(ScoreChange.Type.SCORED, "a", i, i + 1);
+                }
+            });
+            Future<?> b = executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    bus.publish(ScoreChange.Type.SCORED, "b", i, i + 1);
+                }
+            });
+            a.get(10, TimeUnit.SECONDS);
+            b.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        bus.publishMembership(ScoreChange.Type.JOINED, "c1", List.of("a", "b"));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        bus.close();
+
+        assertEquals(2002, sequences.size());
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i, sequences.get(i));
+        }
+        for (int i = 0; i < scoresOfA.size(); i++) {
+            assertEquals(i + 1, scoresOfA.get(i));
+        }
+        assertEquals(List.of(ScoreChange.Type.JOINED, ScoreChange.Type.JOINED), types.subList(2000, 2002));
+        assertEquals(2001, bus.cursor());
+    }
+
+    // a full buffer makes the publisher wait for the slowest consumer without blocking other publishers, and the wait is counted
+    @Test
+    public void test_full_buffer_applies_backpressure() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScoreEventBus bus = new ScoreEventBus(3, 10_000, registry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(5);
+        bus.register("slow", (change, endOfBatch) -> {
+            await(release);
+            delivered.countDown();
+        });
+        assertEquals(4, bus.capacity());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> publisher = executor.submit(() -> {
+                for (int i = 0; i < 5; i++) {
+                    bus.publish(ScoreChange.Type.SCORED, "u" + i, 0, i);
+                }
+            });
+            assertThrows(TimeoutException.class, () -> publisher.get(300, TimeUnit.MILLISECONDS));
+            assertEquals(3, bus.cursor());
+            assertEquals(0, bus.remaining());
+            // The waiting publisher does not hold the publish lock registering a consumer needs
+            bus.register("late", (change, endOfBatch) -> { });
+
+            release.countDown();
+            publisher.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        bus.close();
+
+        assertEquals(4, bus.cursor());
+        assertEquals(1.0, registry.get("codehack.events.backpressure.stalls").counter().count());
+        assertEquals(5.0, registry.get("codehack.events.published").counter().count());
+        assertEquals(0.0, registry.get("codehack.events.dropped").counter().count());
+        assertEquals(0.0, registry.get("codehack.events.lag").tag("consumer", "slow").gauge().value());
+    }
+
+    // a publisher gives up after the configured wait and the dropped changes are counted
+    @Test
+    public void test_full_buffer_drops_after_wait() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScoreEventBus bus = new ScoreEventBus(4, 50, registry);
+        bus.registerGauges();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(4);
+        bus.register("stuck", (change, endOfBatch) -> {
+            await(release);
+            delivered.countDown();
+        });
+
+        for (int i = 0; i < 4; i++) {
+            bus.publish(ScoreChange.Type.SCORED, "u" + i, 0, i);
+        }
+        long start = System.nanoTime();
+        bus.publish(ScoreChange.Type.SCORED, "u4", 0, 4);
+        bus.publishMembership(ScoreChange.Type.JOINED, "c1", List.of("u0", "u1"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(3, bus.cursor());
+        assertEquals(0.0, registry.get("codehack.events.remaining").gauge().value());
+
+        release.countDown();
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        bus.close();
+
+        assertEquals(3.0, registry.get("codehack.events.dropped").counter().count());
+        assertEquals(2.0, registry.get("codehack.events.backpressure.stalls").counter().count());
+        assertEquals(4.0, registry.get("codehack.events.capacity").gauge().value());
+    }
+
+    // a durable consumer makes publishers wait past the configured wait, so no change is dropped
+    @Test
+    public void test_durable_consumer_prevents_drops() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScoreEventBus bus = new ScoreEventBus(4, 1, registry);
+        List<Integer> scores = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(200);
+        bus.register("durable", (change, endOfBatch) -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+            scores.add(change.getNewScore());
+            done.countDown();
+        }, true);
+        bus.register("lossy", (change, endOfBatch) -> { });
+
+        for (int i = 0; i < 150; i++) {
+            bus.publish(ScoreChange.Type.SCORED, "a", i, i + 1);
+        }
+        bus.publishMembership(ScoreChange.Type.JOINED, "c1", Collections.nCopies(50, "a"));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        bus.close();
+
+        assertEquals(199, bus.cursor());
+        assertEquals(IntStream.rangeClosed(1, 150).boxed().toList(), scores.subList(0, 150));
+        assertEquals(0.0, registry.get("codehack.events.dropped").counter().count());
+        assertTrue(registry.get("codehack.events.backpressure.stalls").counter().count() > 0);
+    }
+
+    // a failing consumer is counted and keeps receiving the following changes
+    @Test
+    public void test_consumer_failure_does_not_stop_delivery() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScoreEventBus bus = new ScoreEventBus(8, registry);
+        List<String> users = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        bus.register("flaky", (change, endOfBatch) -> {
+            done.countDown();
+            if (change.getUserId().equals("bad")) {
+                throw new IllegalStateException("boom");
+            }
+            users.add(change.getUserId());
+        });
+
+        bus.publish(ScoreChange.Type.CREATED, "a", ScoreChange.ABSENT, 0);
+        bus.publish(ScoreChange.Type.CREATED, "bad", ScoreChange.ABSENT, 0);
+        bus.publish(ScoreChange.Type.DELETED, "c", 10, ScoreChange.ABSENT);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        bus.close();
+
+        assertEquals(List.of("a", "c"), users);
+        assertEquals(1.0, registry.get("codehack.events.errors").tag("consumer", "flaky").counter().count());
+    }
+
+    // a disabled bus accepts changes and delivers nothing
+    @Test
+    public void test_disabled_bus_publishes_nothing() {
+        ScoreEventBus bus = ScoreEventBus.disabled();
+        bus.register("ignored", (change, endOfBatch) -> fail("nothing is published"));
+        bus.publish(ScoreChange.Type.SCORED, "a", 0, 10);
+
+        assertFalse(bus.isEnabled());
+        assertEquals(-1, bus.cursor());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.history.ScoreEventLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreEventLogTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    // scores are reconstructed at any point in time, including creation and deletion
+    @Test
+    public void test_scores_as_of_point_in_time() {
+        ScoreEventLog log = open();
+        record(log, 1000, "a", ScoreEventLog.ABSENT, 0);
+        record(log, 2000, "a", 0, 40);
+        record(log, 3000, "b", ScoreEventLog.ABSENT, 0);
+        record(log, 4000, "a", 40, 70);
+        record(log, 5000, "b", 0, ScoreEventLog.ABSENT);
+
+        List<String> ids = List.of("a", "b", "unknown");
+        assertArrayEquals(new int[]{ScoreEventLog.ABSENT, ScoreEventLog.ABSENT, ScoreEventLog.NO_HISTORY}, log.scoresAsOf(999, ids));
+        assertArrayEquals(new int[]{40, ScoreEventLog.ABSENT, ScoreEventLog.NO_HISTORY}, log.scoresAsOf(2500, ids));
+        assertArrayEquals(new int[]{40, 0, ScoreEventLog.NO_HISTORY}, log.scoresAsOf(3000, ids));
+        assertArrayEquals(new int[]{70, ScoreEventLog.ABSENT, ScoreEventLog.NO_HISTORY}, log.scoresAsOf(9000, ids));
+        log.close();
+    }
+
+    // a user whose first event comes later had the score that event started from
+    @Test
+    public void test_user_before_first_event_has_old_score() {
+        ScoreEventLog log = open();
+        record(log, 1000, "a", 10, 20);
+        record(log, 2000, "b", 55, 60);
+
+        assertArrayEquals(new int[]{20, 55}, log.scoresAsOf(1500, List.of("a", "b")));
+        log.close();
+    }
+
+    // replays across several segments and checkpoints give the same answers after a restart
+    @Test
+    public void test_segments_and_checkpoints_survive_restart() {
+        ScoreEventLog log = open();
+        for (int i = 0; i < 50; i++) {
+            record(log, 1000 + i * 10L, "u" + (i % 7), i == 0 ? ScoreEventLog.ABSENT : i - 1, i);
+        }
+        List<String> ids = List.of("u0", "u1", "u2", "u3", "u4", "u5", "u6");
+        int[] middle = log.scoresAsOf(1255, ids);
+        int[] end = log.scoresAsOf(Long.MAX_VALUE, ids);
+        assertArrayEquals(new int[]{21, 22, 23, 24, 25, 19, 20}, middle);
+        log.close();
+
+        ScoreEventLog reopened = open();
+        assertEquals(50, reopened.eventCount());
+        assertArrayEquals(middle, reopened.scoresAsOf(1255, ids));
+        assertArrayEquals(end, reopened.scoresAsOf(Long.MAX_VALUE, ids));
+        // A clock going backwards does not break the time order of the log
+        record(reopened, 900, "u0", 49, 99);
+        assertEquals(99, reopened.scoresAsOf(1490, List.of("u0"))[0]);
+        assertEquals(42, reopened.scoresAsOf(1480, List.of("u0"))[0]);
+        reopened.close();
+    }
+
+    // the time a score was reached is set by changed scores only and survives checkpoints and a restart
+    @Test
+    public void test_improved_times_as_of_point_in_time() {
+        ScoreEventLog log = open();
+        record(log, 1000, "a", ScoreEventLog.ABSENT, 0);
+        record(log, 2000, "a", 0, 40);
+        record(log, 3000, "b", ScoreEventLog.ABSENT, 40);
+        record(log, 4000, "a", 40, 40);
+        for (int i = 0; i < 12; i++) {
+            record(log, 5000 + i, "c", i, i + 1);
+        }
+        record(log, 6000, "b", 40, 50);
+        List<String> ids = List.of("a", "b", "unknown");
+        ScoreEventLog.Standings beforeCheckpoint = log.standingsAsOf(4500, ids);
+        assertArrayEquals(new int[]{40, 40, ScoreEventLog.NO_HISTORY}, beforeCheckpoint.scores());
+        assertArrayEquals(new long[]{2000, 0, 0}, beforeCheckpoint.improved());
+        log.close();
+
+        ScoreEventLog reopened = open();
+        assertArrayEquals(new long[]{2000, 0, 0}, reopened.standingsAsOf(5500, ids).improved());
+        assertArrayEquals(new long[]{2000, 6000, 0}, reopened.standingsAsOf(Long.MAX_VALUE, ids).improved());
+        reopened.close();
+    }
+
+    // contest membership is reconstructed at any point in time and survives a restart
+    @Test
+    public void test_members_as_of_point_in_time() {
+        ScoreEventLog log = open();
+        clock.set(1000);
+        log.recordJoined("c1", Map.of("a", "Alice"));
+        clock.set(2000);
+        log.recordJoined("c1", Map.of("b", "Bob"));
+        clock.set(3000);
+        log.recordLeft("c1", List.of("a"));
+        log.close();
+
+        ScoreEventLog reopened = open();
+        assertEquals(Map.of(), reopened.membersAsOf("c1", 999).members());
+        assertEquals(Map.of("a", "Alice", "b", "Bob"), reopened.membersAsOf("c1", 2500).members());
+        assertEquals(Map.of("b", "Bob"), reopened.membersAsOf("c1", 3000).members());
+        assertEquals(Set.of("a", "b"), reopened.membersAsOf("c1", 999).tracked());
+        assertEquals(Map.of(), reopened.membersAsOf("c2", 3000).members());
+        reopened.close();
+    }
+
+    private ScoreEventLog open() {
+        return new ScoreEventLog(dir, 8, 5, clock::get);
+    }
+
+    private void record(ScoreEventLog log, long time, String userId, int oldScore, int newScore) {
+        clock.set(time);
+        log.record(userId, oldScore, newScore);
+    }
+}
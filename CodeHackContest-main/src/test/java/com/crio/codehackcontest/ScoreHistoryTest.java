@@ -0,0 +1,110 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.events.ScoreChange;
+import com.crio.codehackcontest.events.ScoreEventBus;
+import com.crio.codehackcontest.history.Resolution;
+import com.crio.codehackcontest.history.ScoreEventLog;
+import com.crio.codehackcontest.history.ScoreHistory;
+import com.crio.codehackcontest.model.ScorePoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreHistoryTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong clock = new AtomicLong(0);
+
+    // raw points keep every change, rollups keep the lowest, highest and last score of each bucket
+    @Test
+    public void test_raw_points_and_rollups() {
+        ScoreEventLog log = open();
+        record(log, 1_000, "a", ScoreEventLog.ABSENT, 0);
+        record(log, 1_500, "a", 0, 40);
+        record(log, 1_700, "a", 40, 20);
+        record(log, 61_000, "a", 20, 90);
+        ScoreHistory history = new ScoreHistory(log);
+
+        assertEquals(List.of(new ScorePoint(1_000, 0, 0, 0), new ScorePoint(1_500, 40, 40, 40),
+                        new ScorePoint(1_700, 20, 20, 20), new ScorePoint(61_000, 90, 90, 90)),
+                history.range("a", Resolution.RAW, 0, Long.MAX_VALUE));
+        assertEquals(List.of(new ScorePoint(1_000, 20, 0, 40), new ScorePoint(61_000, 90, 90, 90)),
+                history.range("a", Resolution.SECOND, 0, Long.MAX_VALUE));
+        assertEquals(List.of(new ScorePoint(0, 20, 0, 40), new ScorePoint(60_000, 90, 90, 90)),
+                history.range("a", Resolution.MINUTE, 0, Long.MAX_VALUE));
+        assertEquals(List.of(new ScorePoint(0, 90, 0, 90)), history.range("a", Resolution.HOUR, 0, Long.MAX_VALUE));
+        log.close();
+    }
+
+    // range queries cut across chunks, deleted users lose their history and restarts rebuild it
+    @Test
+    public void test_ranges_deletes_and_restart() {
+        ScoreEventLog log = open();
+        record(log, 500, "a", ScoreEventLog.ABSENT, 0);
+        for (int i = 1; i <= 1000; i++) {
+            record(log, i * 1000L, "a", (i - 1) % 101, i % 101);
+        }
+        record(log, 0, "b", ScoreEventLog.ABSENT, 0);
+        record(log, 0, "b", 0, ScoreEventLog.ABSENT);
+        ScoreHistory history = new ScoreHistory(log);
+
+        List<ScorePoint> points = history.range("a", Resolution.SECOND, 300_000, 310_500);
+        assertEquals(11, points.size());
+        assertEquals(new ScorePoint(300_000, 300 % 101, 300 % 101, 300 % 101), points.get(0));
+        assertEquals(new ScorePoint(310_000, 310 % 101, 310 % 101, 310 % 101), points.get(10));
+        assertTrue(history.range("b", Resolution.RAW, 0, Long.MAX_VALUE).isEmpty());
+        // 1000 sealed seconds take about one byte of key delta and three bytes of scores each
+        assertTrue(history.encodedBytes("a") < 10_000, "encoded " + history.encodedBytes("a") + " bytes");
+        log.close();
+
+        ScoreEventLog reopened = open();
+        assertEquals(points, new ScoreHistory(reopened).range("a", Resolution.SECOND, 300_000, 310_500));
+        reopened.close();
+    }
+
+    // after the replay the history follows the score changes published on the bus, on the consumer's thread
+    @Test
+    public void test_follows_bus_after_replay() throws InterruptedException {
+        ScoreEventLog log = open();
+        record(log, 1_000, "a", ScoreEventLog.ABSENT, 0);
+        ScoreEventBus bus = new ScoreEventBus(16, new SimpleMeterRegistry());
+        ScoreHistory history = new ScoreHistory(log, bus);
+        assertEquals(1, history.range("a", Resolution.RAW, 0, Long.MAX_VALUE).size());
+
+        bus.publishMembership(ScoreChange.Type.JOINED, "c1", List.of("a"));
+        bus.publish(ScoreChange.Type.SCORED, "a", 0, 40);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (history.range("a", Resolution.RAW, 0, Long.MAX_VALUE).size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        List<ScorePoint> points = history.range("a", Resolution.RAW, 0, Long.MAX_VALUE);
+        assertEquals(2, points.size());
+        assertEquals(40, points.get(1).getScore());
+
+        bus.publish(ScoreChange.Type.DELETED, "a", 40, ScoreChange.ABSENT);
+        while (!history.range("a", Resolution.RAW, 0, Long.MAX_VALUE).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(history.range("a", Resolution.RAW, 0, Long.MAX_VALUE).isEmpty());
+        bus.close();
+        log.close();
+    }
+
+    private ScoreEventLog open() {
+        return new ScoreEventLog(dir, 256, 64, clock::get);
+    }
+
+    private void record(ScoreEventLog log, long time, String userId, int oldScore, int newScore) {
+        clock.set(time);
+        log.record(userId, oldScore, newScore);
+    }
+}
@@ -0,0 +1,95 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.utils.SingleFlight;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    // concurrent callers for the same key share one computation
+    @Test
+    public void test_concurrent_calls_share_one_computation() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("contest", () -> {
+                computations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "board";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            CountDownLatch submitted = new CountDownLatch(7);
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(executor.submit(() -> {
+                    submitted.countDown();
+                    return singleFlight.execute("contest", () -> {
+                        computations.incrementAndGet();
+                        return "other";
+                    });
+                }));
+            }
+            assertTrue(submitted.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            release.countDown();
+
+            assertEquals("board", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("board", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computations.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // the key is released after completion so the next call recomputes
+    @Test
+    public void test_sequential_calls_recompute() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("contest", computations::incrementAndGet));
+        assertEquals(2, singleFlight.execute("contest", computations::incrementAndGet));
+    }
+
+    // exceptions are rethrown unchanged and do not leave the key in flight
+    @Test
+    public void test_exception_is_propagated() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> singleFlight.execute("contest", () -> {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contest not found");
+        }));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.archive.FinalStandings;
+import com.crio.codehackcontest.archive.StandingsArchive;
+import com.crio.codehackcontest.entity.Contest;
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.exchange.ContestRequest;
+import com.crio.codehackcontest.exchange.UserFields;
+import com.crio.codehackcontest.history.ScoreEventLog;
+import com.crio.codehackcontest.index.LeaderBoardIndex;
+import com.crio.codehackcontest.model.LeaderBoard;
+import com.crio.codehackcontest.model.SubsetLeaderBoard;
+import com.crio.codehackcontest.model.SubsetStanding;
+import com.crio.codehackcontest.repository.ContestRepository;
+import com.crio.codehackcontest.repository.UserRepository;
+import com.crio.codehackcontest.service.implementation.ContestServiceImpl;
+import com.crio.codehackcontest.utils.DetermineBadges;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class StandingsArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    // pages anywhere in the standings decode the same users, and the file is mapped again after a restart
+    @Test
+    public void test_pages_and_restart() {
+        List<User> users = users(300);
+        new StandingsArchive(dir).archive("c1", "Final", users);
+
+        StandingsArchive reopened = new StandingsArchive(dir);
+        FinalStandings standings = reopened.get("c1").orElseThrow();
+        assertEquals("Final", standings.getName());
+        assertEquals(300, standings.size());
+        assertEquals(users.subList(130, 200), standings.page(130, 70));
+        assertEquals(users.subList(290, 300), standings.page(290, 50));
+        assertTrue(standings.page(300, 10).isEmpty());
+        // Ranks are stored, so a page starting inside a tie still reports the shared rank
+        assertEquals(List.of(130, 133), standings.ranks(131, 2));
+        assertEquals(users, standings.stream().toList());
+    }
+
+    // a contest is finalized once, and damaged or unknown files are not served
+    @Test
+    public void test_duplicate_and_damaged_files() throws Exception {
+        StandingsArchive archive = new StandingsArchive(dir);
+        archive.archive("c1", "Final", users(3));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> archive.archive("c1", "Final", users(3)));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+
+        Path file = dir.resolve("standings-c1.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 1;
+        Files.write(file, bytes);
+        assertTrue(new StandingsArchive(dir).get("c1").isEmpty());
+        assertTrue(archive.get("c2").isEmpty());
+    }
+
+    // once finalized, the leaderboard no longer reads the repositories and the participants are frozen
+    @Test
+    public void test_finalized_contest_is_served_from_archive() {
+        UserRepository userRepository = mock(UserRepository.class);
+        ContestRepository contestRepository = mock(ContestRepository.class);
+        ContestServiceImpl contestService = new ContestServiceImpl(userRepository, contestRepository, new LeaderBoardIndex(),
+                ScoreEventLog.disabled(), new StandingsArchive(dir));
+        List<User> users = users(5);
+        Contest contest = new Contest("Final", users.stream().map(User::getUserid).toList());
+        contest.setId("c1");
+        when(contestRepository.findById("c1")).thenReturn(Optional.of(contest));
+        when(userRepository.findAllById(contest.getParticipantsId())).thenReturn(new ArrayList<>(users));
+
+        LeaderBoard finalLeaderBoard = contestService.finalizeContest("c1");
+        assertEquals(users, finalLeaderBoard.getUser());
+        clearInvocations(userRepository);
+        clearInvocations(contestRepository);
+
+        assertEquals(users, contestService.checkLeaderBoard("c1", UserFields.ALL).getUser());
+        LeaderBoard page = contestService.checkLeaderBoard("c1", UserFields.ALL, 2, 2);
+        assertEquals(users.subList(2, 4), page.getUser());
+        assertEquals(List.of(1, 4), page.getRank());
+        assertTrue(contestService.isFinalized("c1"));
+        SubsetLeaderBoard subset = contestService.checkSubsetLeaderBoard("c1", List.of("user4", "nobody", "user0"));
+        assertEquals(List.of("user0", "user4"), subset.getUser().stream().map(SubsetStanding::getUserid).toList());
+        assertEquals(List.of(1, 4), subset.getUser().stream().map(SubsetStanding::getGlobalRank).toList());
+        assertEquals(List.of("nobody"), subset.getMissing());
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> contestService.addUserToContest("c1", new ContestRequest("Final", List.of("x"))));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verifyNoMoreInteractions(userRepository, contestRepository);
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int score = 100 - i / 3;
+            users.add(new User("user" + i, "name " + i, score, new HashSet<>(DetermineBadges.determineBadges(score))));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,77 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.exchange.GenericResponse;
+import com.crio.codehackcontest.exchange.StreamingGenericResponse;
+import com.crio.codehackcontest.model.Badges;
+import com.crio.codehackcontest.model.LeaderBoard;
+import com.crio.codehackcontest.utils.MongoRequestStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingGenericResponseTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<User> users = List.of(
+            new User("u1", "alice", 70, new HashSet<>(Set.of(Badges.CODEMASTER))),
+            new User("u2", "bob", 10, new HashSet<>()));
+
+    // a streamed list has the same JSON as the materialized GenericResponse and closes its stream
+    @Test
+    public void test_streamed_list_matches_generic_response() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingGenericResponse.list(objectMapper.writer(), users.stream().onClose(() -> closed.set(true))).writeTo(out);
+
+        assertEquals(objectMapper.writeValueAsString(new GenericResponse<>(users)), out.toString());
+        assertTrue(closed.get());
+    }
+
+    // a streamed leaderboard has the same JSON as the materialized GenericResponse
+    @Test
+    public void test_streamed_object_matches_generic_response() throws Exception {
+        Map<String, Object> dataFields = new LinkedHashMap<>();
+        dataFields.put("id", "lb_for_contest_id_c1");
+        dataFields.put("name", "LeaderBoard: contest");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingGenericResponse.object(objectMapper.writer(), dataFields, "user", users.stream()).writeTo(out);
+
+        LeaderBoard leaderBoard = new LeaderBoard("lb_for_contest_id_c1", "LeaderBoard: contest", users);
+        assertEquals(objectMapper.writeValueAsString(new GenericResponse<>(leaderBoard)), out.toString());
+    }
+
+    // reads made while the stream is written on another thread are charged to the request that created it
+    @Test
+    public void test_stream_charges_request_stats_on_writer_thread() throws Exception {
+        MongoRequestStats stats = MongoRequestStats.start();
+        StreamingGenericResponse response;
+        try {
+            response = StreamingGenericResponse.list(objectMapper.writer(), users.stream()
+                    .peek(user -> MongoRequestStats.current().record(1_000, 1)));
+        } finally {
+            MongoRequestStats.clear();
+        }
+        Thread writer = new Thread(() -> {
+            try {
+                response.writeTo(new ByteArrayOutputStream());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            assertNull(MongoRequestStats.current());
+        });
+        writer.start();
+        writer.join();
+
+        assertEquals(2, stats.getCommands());
+        assertEquals(2, stats.getDocuments());
+    }
+}
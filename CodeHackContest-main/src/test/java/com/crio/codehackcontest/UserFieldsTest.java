@@ -0,0 +1,57 @@
+package com.crio.codehackcontest;
+
+import com.crio.codehackcontest.config.JacksonConfig;
+import com.crio.codehackcontest.entity.User;
+import com.crio.codehackcontest.exchange.UserFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserFieldsTest {
+
+    // a missing or blank parameter selects every field
+    @Test
+    public void test_missing_fields_select_all() {
+        assertTrue(UserFields.parse(null).isAll());
+        assertTrue(UserFields.parse(" ").isAll());
+        assertTrue(UserFields.parse("badges,score,username,userid").isAll());
+    }
+
+    // the projection always loads the score, which orders the result, and never names the ID
+    @Test
+    public void test_projection_keeps_score_and_drops_id() {
+        UserFields fields = UserFields.parse("userid, username");
+
+        assertFalse(fields.isAll());
+        assertTrue(fields.includes("username"));
+        assertFalse(fields.includes("score"));
+        assertEquals(List.of("username", "score"), fields.projection());
+    }
+
+    // unknown field names are rejected with 400
+    @Test
+    public void test_unknown_field_is_rejected() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> UserFields.parse("userid,password"));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    // the time a score was reached is stored for ranking but never written to responses
+    @Test
+    public void test_last_improved_is_not_serialized() throws Exception {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfig().userFieldsFilter().customize(builder);
+        ObjectMapper mapper = builder.build();
+        User user = new User("1", "alice", 40, new HashSet<>(), 1_700_000_000_000L);
+
+        assertFalse(mapper.writeValueAsString(user).contains("lastImproved"));
+        assertFalse(UserFields.ALL.writer(mapper).writeValueAsString(user).contains("lastImproved"));
+        assertEquals("{\"score\":40}", UserFields.parse("score").writer(mapper).writeValueAsString(user));
+    }
+}
@@ -173,6 +173,35 @@ public class UserTest {
         verify(userRepository, times(1)).deleteById("1");
     }
 
+    // A finalized contest keeps its participants, but users outside it are still created and deleted
+    @Test
+    public void test_users_outside_finalized_contest() {
+        UserRepository userRepository = mock(UserRepository.class);
+        ContestService contestService = mock(ContestService.class);
+        UserServiceImpl userService = new UserServiceImpl(userRepository, contestService);
+
+        Contest contest = new Contest();
+        contest.setParticipantsId(List.of("member"));
+        User newcomer = new User("2", "newcomer", 0, new HashSet<>());
+        when(contestService.isFinalized(anyString())).thenReturn(true);
+        when(contestService.getContestById(anyString())).thenReturn(contest);
+        when(userRepository.findById("2")).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenReturn(newcomer);
+
+        assertEquals(newcomer, userService.createUser(new UserRequest("2", "newcomer")));
+        verify(contestService, never()).addUserToContest(anyString(), any(ContestRequest.class));
+
+        when(userRepository.findById("2")).thenReturn(Optional.of(newcomer));
+        userService.delete("2");
+        verify(userRepository, times(1)).deleteById("2");
+
+        when(userRepository.findById("member")).thenReturn(Optional.of(new User("member", "member", 10, new HashSet<>())));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> userService.delete("member"));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(userRepository, never()).deleteById("member");
+        verify(contestService, never()).removeUserFromContest(anyString(), any(ContestRequest.class));
+    }
+
     // Updating a non-existent user
     @Test
     public void test_update_non_existent_user() {